@@ -20,7 +20,7 @@ SELECT DATABASE();
 -- - email (VARCHAR(100), UNIQUE, NOT NULL)
 -- - password_hash (VARCHAR(255), NOT NULL)
 -- - event_type (ENUM: 'time_block', 'course')
--- - time_block_id(VARCHAR(50), FOREIGN KEY)
+-- - time_block_id(BIGINT, FOREIGN KEY)
 -- - selected_course_id(VARCHAR(50), FOREIGN KEY)
 
 CREATE TABLE IF NOT EXISTS students (
@@ -30,13 +30,13 @@ CREATE TABLE IF NOT EXISTS students (
     email VARCHAR(100) UNIQUE NOT NULL,
     password_hash VARCHAR(255) NOT NULL,
     event_type ENUM('time_block', 'course') NOT NULL,
-    time_block_id INT,
+    time_block_id BIGINT,
     selected_course_id INT
 );
 
 
 -- Time Blocks table
--- - time_block_id (INT, PRIMARY KEY, AUTO_INCREMENT)
+-- - time_block_id (BIGINT, PRIMARY KEY, AUTO_INCREMENT) -- with sharding, a Snowflake id generated by the application that encodes the shard
 -- - title (VARCHAR(200), NOT NULL) -- e.g., "Chess Club", "Part-time Job"
 -- - start_time (TIME, NOT NULL) -- e.g., "15:30:00"
 -- - end_time (TIME, NOT NULL) -- e.g., "17:00:00"
@@ -44,28 +44,30 @@ CREATE TABLE IF NOT EXISTS students (
 -- - weeks (INT)
 -- - description (TEXT)
 -- - student_id (INT, FOREIGN KEY)
+-- - version (BIGINT, NOT NULL) -- optimistic lock, bumped on every update and sent to clients as the ETag
 
 CREATE TABLE IF NOT EXISTS time_blocks (
-    time_block_id INT PRIMARY KEY AUTO_INCREMENT,
+    time_block_id BIGINT PRIMARY KEY AUTO_INCREMENT,
     title VARCHAR(200) NOT NULL,
     start_time TIME NOT NULL,
     end_time TIME NOT NULL,
     day ENUM('Monday', 'Tuesday', 'Wednesday', 'Thursday', 'Friday', 'Saturday', 'Sunday') NOT NULL,
     weeks INT,
     description TEXT,
-    student_id INT
+    student_id INT,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Cart Table
 -- - cart_id (INT, PRIMARY KEY, AUTO_INCREMENT)
 -- - student_id (INT, FOREIGN KEY)
--- - time_block_id (INT, FOREIGN KEY)
+-- - time_block_id (BIGINT, FOREIGN KEY)
 -- - selected_course_id (INT, FOREIGN KEY)
 
 CREATE TABLE IF NOT EXISTS cart (
     cart_id INT PRIMARY KEY AUTO_INCREMENT,
     student_id INT,
-    time_block_id INT,
+    time_block_id BIGINT,
     selected_course_id INT
 );
 
@@ -157,6 +159,58 @@ CREATE TABLE IF NOT EXISTS instructors (
     FOREIGN KEY (instructor_course_id) REFERENCES instructors_courses(instructor_course_id)
 );
 
+-- Cluster Messages Table (cross-node broadcast when cluster.broadcast.type=jdbc)
+-- - message_id (BIGINT, PRIMARY KEY, AUTO_INCREMENT)
+-- - node_id (VARCHAR(36), NOT NULL) -- publishing backend instance
+-- - channel (VARCHAR(100), NOT NULL)
+-- - payload (TEXT, NOT NULL)
+-- - created_at (TIMESTAMP, NOT NULL)
+
+CREATE TABLE IF NOT EXISTS cluster_messages (
+    message_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    node_id VARCHAR(36) NOT NULL,
+    channel VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+-- Type colors: rows of student 0 are the defaults, the rest are per-student custom types and overrides.
+-- Not NULL, as the unique key would let every node seed its own copy of NULL-student rows.
+CREATE TABLE IF NOT EXISTS type_colors (
+    type_color_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    student_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    color VARCHAR(7) NOT NULL,
+    UNIQUE (student_id, type)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    response_status INT,
+    content_type VARCHAR(100),
+    location VARCHAR(500),
+    body LONGBLOB,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+-- Existing databases:
+-- ALTER TABLE time_blocks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Sharding migration, once before setting timeblocks.sharding.enabled=true on an existing database.
+-- Snowflake ids exceed INT, so time_block_id and the columns referencing it become BIGINT:
+-- SET FOREIGN_KEY_CHECKS = 0;
+-- ALTER TABLE time_blocks MODIFY time_block_id BIGINT NOT NULL AUTO_INCREMENT;
+-- ALTER TABLE students MODIFY time_block_id BIGINT;
+-- ALTER TABLE cart MODIFY time_block_id BIGINT;
+-- SET FOREIGN_KEY_CHECKS = 1;
+-- Students owning blocks from before sharding stay on the main database with them. Set
+-- timeblocks.sharding.legacy-max-student-id to the result of:
+-- SELECT COALESCE(MAX(student_id), 0) FROM time_blocks;
+
+-- Extra time block shards (timeblocks.sharding.extra-shard-urls) only hold the time_blocks table
+-- above, without the foreign keys below, since students and carts stay on the main database.
+
 ALTER TABLE students
     ADD FOREIGN KEY (time_block_id) REFERENCES time_blocks(time_block_id),
     ADD FOREIGN KEY (selected_course_id) REFERENCES students_courses(selected_course_id);
@@ -0,0 +1,66 @@
+package com.scheduleplanner.backend.config;
+
+/**
+ * Adaptive concurrency limit using additive increase / multiplicative decrease on latency.
+ *
+ * While responses stay under the latency threshold and the limit is actually being used, it grows
+ * by roughly one per limit's worth of requests. A slow or failed response shrinks it by the backoff
+ * ratio, at most once per threshold interval so a single burst of slow responses counts once.
+ */
+public class AimdLimiter {
+    
+    private final int minLimit;
+    
+    private final int maxLimit;
+    
+    private final long latencyThresholdNanos;
+    
+    private final double backoffRatio;
+    
+    private double limit;
+    
+    private int inFlight;
+    
+    private long lastDecreaseNanos;
+    
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMs, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdMs * 1_000_000L;
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+    
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+    
+    public synchronized void release(long latencyNanos, boolean failed) {
+        int used = inFlight;
+        inFlight--;
+        
+        long now = System.nanoTime();
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            if (now - lastDecreaseNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        } else if (used * 2 >= limit) {
+            // Only grow when demand is close to the limit; otherwise the limit says nothing about capacity
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+    
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+    
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,136 @@
+package com.scheduleplanner.backend.config;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * Closed, it records the outcome of the last {@code windowSize} calls and opens once at least
+ * {@code minimumCalls} were recorded and the failure share reaches the threshold. Open, it rejects every
+ * call until {@code openMillis} have passed, then lets {@code halfOpenCalls} trial calls through: if all
+ * of them succeed it closes with a fresh window, and any failure opens it again.
+ */
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+    
+    private final boolean[] window;
+    
+    private final int minimumCalls;
+    
+    private final double failureRateThreshold;
+    
+    private final long openNanos;
+    
+    private final int halfOpenCalls;
+    
+    private State state = State.CLOSED;
+    
+    private int recorded;
+    
+    private int next;
+    
+    private int failures;
+    
+    private long openedAt;
+    
+    private int trialsStarted;
+    
+    private int trialsSucceeded;
+    
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis, int halfOpenCalls) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+    
+    // A permitted call must be followed by exactly one onSuccess, onFailure or onIgnored
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+    
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+    
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+    
+    // A permitted call that ended without telling anything about the database (e.g. a client error)
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialsStarted--;
+        }
+    }
+    
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+    
+    public synchronized long getRemainingOpenMillis() {
+        return state == State.OPEN ? Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000L) : 0;
+    }
+    
+    private void record(boolean failed) {
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+    
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+    
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.scheduleplanner.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifies the caller for per-client bookkeeping: the studentId in a valid bearer token,
+ * or the remote address when there is none. Behind a trusted proxy the remote address is already the
+ * client's, taken from X-Forwarded-For ({@code server.forward-headers-strategy=native}).
+ */
+@Component
+public class ClientKeyResolver {
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    public String resolve(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Long studentId = jwtUtil.getStudentIdFromToken(authHeader.substring(7));
+                if (studentId != null) {
+                    return "student:" + studentId;
+                }
+            } catch (RuntimeException e) {
+                // Invalid or expired token: fall back to the address
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
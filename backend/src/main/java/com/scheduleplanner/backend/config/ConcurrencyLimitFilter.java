@@ -0,0 +1,71 @@
+package com.scheduleplanner.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds requests to the database-bound handlers with 503 once more of them are in flight than the
+ * {@link AimdLimiter} currently allows, so queueing for connections never builds up behind a slow database.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    private final RateLimitProperties.Concurrency properties;
+    
+    private final AimdLimiter limiter;
+    
+    private final Counter shed;
+    
+    public ConcurrencyLimitFilter(RateLimitProperties.Concurrency properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limiter = new AimdLimiter(properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit(),
+                properties.getLatencyThresholdMs(), properties.getBackoffRatio());
+        this.shed = Counter.builder("concurrency.shed")
+                .description("Requests rejected with 503 by the adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limit", limiter, AimdLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.in-flight", limiter, AimdLimiter::getInFlight)
+                .description("Requests currently holding a concurrency permit")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return properties.getExcludedPaths().stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path))
+                || properties.getPaths().stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            shed.increment();
+            response.setHeader("Retry-After", "1");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.scheduleplanner.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import com.scheduleplanner.backend.service.ScheduleSnapshotCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Guards the time block API against a stalled database.
+ *
+ * Reads (GET) and writes take a permit from separate bulkheads, so a pile-up of slow writes cannot
+ * starve schedule reads of connections or request threads, and the other way round. Requests that end
+ * with a connection, timeout or transient database error count as failures for a {@link CircuitBreaker};
+ * while it is open, or when a bulkhead stays full for longer than the short wait, requests are not
+ * passed on. Student schedule reads are then answered from the {@link ScheduleSnapshotCache} with
+ * {@code Warning: 110} and an {@code Age} header; everything else fails fast with 503 and Retry-After.
+ */
+public class DatabaseCircuitBreakerFilter extends OncePerRequestFilter {
+    
+    // Set by DatabaseFailureAdvice when it turned a database failure into a 503 response
+    public static final String FAILURE_ATTRIBUTE = DatabaseCircuitBreakerFilter.class.getName() + ".failure";
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    // Student schedule reads that can be derived from a snapshot
+    private static final String SCHEDULE_PATH = "/api/timeblocks/student/{studentId}/schedule";
+    private static final String STUDENT_PATH = "/api/timeblocks/student/{studentId}";
+    private static final String STUDENT_DAY_PATH = "/api/timeblocks/student/{studentId}/day/{day}";
+    private static final String STUDENT_TYPE_PATH = "/api/timeblocks/student/{studentId}/type/{type}";
+    
+    private final List<String> paths;
+    
+    private final List<String> excludedPaths;
+    
+    private final CircuitBreaker circuitBreaker;
+    
+    private final Semaphore readBulkhead;
+    
+    private final Semaphore writeBulkhead;
+    
+    private final long bulkheadWaitMs;
+    
+    private final ScheduleSnapshotCache snapshotCache;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final Counter rejected;
+    
+    private final Counter staleResponses;
+    
+    public DatabaseCircuitBreakerFilter(List<String> paths, List<String> excludedPaths, CircuitBreaker circuitBreaker,
+                                        int readPermits, int writePermits, long bulkheadWaitMs,
+                                        ScheduleSnapshotCache snapshotCache, ObjectMapper objectMapper,
+                                        MeterRegistry meterRegistry) {
+        this.paths = paths;
+        this.excludedPaths = excludedPaths;
+        this.circuitBreaker = circuitBreaker;
+        this.readBulkhead = new Semaphore(readPermits);
+        this.writeBulkhead = new Semaphore(writePermits);
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.snapshotCache = snapshotCache;
+        this.objectMapper = objectMapper;
+        this.rejected = Counter.builder("database.circuit.rejected")
+                .description("Requests not passed to the database because the circuit was open or a bulkhead was full")
+                .register(meterRegistry);
+        this.staleResponses = Counter.builder("database.circuit.stale-responses")
+                .description("Schedule reads answered from a snapshot instead of the database")
+                .register(meterRegistry);
+        Gauge.builder("database.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Database circuit state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+        Gauge.builder("database.bulkhead.read.available", readBulkhead, Semaphore::availablePermits)
+                .register(meterRegistry);
+        Gauge.builder("database.bulkhead.write.available", writeBulkhead, Semaphore::availablePermits)
+                .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return excludedPaths.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path))
+                || paths.stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        Semaphore bulkhead = read ? readBulkhead : writeBulkhead;
+        if (!acquire(bulkhead)) {
+            degrade(request, response, read);
+            return;
+        }
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                degrade(request, response, read);
+                return;
+            }
+            try {
+                chain.doFilter(request, response);
+            } catch (ServletException | IOException | RuntimeException e) {
+                if (isDatabaseFailure(e)) {
+                    circuitBreaker.onFailure();
+                    if (!response.isCommitted()) {
+                        response.reset();
+                        degrade(request, response, read);
+                        return;
+                    }
+                } else {
+                    circuitBreaker.onIgnored();
+                }
+                throw e;
+            }
+            if (request.getAttribute(FAILURE_ATTRIBUTE) != null) {
+                circuitBreaker.onFailure();
+            } else if (response.getStatus() < 500) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onIgnored();
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+    
+    private boolean acquire(Semaphore bulkhead) {
+        try {
+            return bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private void degrade(HttpServletRequest request, HttpServletResponse response, boolean read) throws IOException {
+        if (read) {
+            Optional<ScheduleSnapshotCache.Snapshot> stale = staleSchedule(request);
+            if (stale.isPresent()) {
+                staleResponses.increment();
+                long age = Duration.between(stale.get().capturedAt(), Instant.now()).toSeconds();
+                response.setStatus(HttpStatus.OK.value());
+                response.setHeader("Age", String.valueOf(Math.max(0, age)));
+                response.setHeader("Warning", "110 - \"Response is Stale\"");
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(), stale.get().timeBlocks());
+                return;
+            }
+        }
+        rejected.increment();
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (circuitBreaker.getRemainingOpenMillis() + 999) / 1000)));
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+    
+    private Optional<ScheduleSnapshotCache.Snapshot> staleSchedule(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        Predicate<TimeBlockDTO> filter;
+        Map<String, String> variables;
+        if (PATH_MATCHER.match(SCHEDULE_PATH, path)) {
+            variables = PATH_MATCHER.extractUriTemplateVariables(SCHEDULE_PATH, path);
+            filter = timeBlock -> true;
+        } else if (PATH_MATCHER.match(STUDENT_DAY_PATH, path)) {
+            variables = PATH_MATCHER.extractUriTemplateVariables(STUDENT_DAY_PATH, path);
+            filter = timeBlock -> timeBlock.getDay().equals(variables.get("day"));
+        } else if (PATH_MATCHER.match(STUDENT_TYPE_PATH, path)) {
+            variables = PATH_MATCHER.extractUriTemplateVariables(STUDENT_TYPE_PATH, path);
+            filter = timeBlock -> timeBlock.getType().equals(variables.get("type"));
+        } else if (PATH_MATCHER.match(STUDENT_PATH, path)) {
+            variables = PATH_MATCHER.extractUriTemplateVariables(STUDENT_PATH, path);
+            filter = timeBlock -> true;
+        } else {
+            return Optional.empty();
+        }
+        if (variables.containsKey("day") && !isDay(variables.get("day"))) {
+            return Optional.empty();
+        }
+        
+        Long studentId;
+        try {
+            studentId = Long.valueOf(variables.get("studentId"));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        return snapshotCache.get(studentId).map(snapshot -> new ScheduleSnapshotCache.Snapshot(
+                snapshot.timeBlocks().stream().filter(filter).toList(), snapshot.capturedAt()));
+    }
+    
+    private static boolean isDay(String day) {
+        for (DayOfWeek value : DayOfWeek.values()) {
+            if (value.name().equals(day)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Connection, timeout and transient errors say the database is unhealthy; lock conflicts, constraint
+    // violations and the like do not
+    public static boolean isDatabaseFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException) {
+                return false;
+            }
+            if (cause instanceof CannotCreateTransactionException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof SQLTransientException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
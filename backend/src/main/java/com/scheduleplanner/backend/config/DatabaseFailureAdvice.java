@@ -0,0 +1,44 @@
+package com.scheduleplanner.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers 503 for connection, timeout and transient database errors from any controller, instead of the
+ * 400/404/500 a handler's own catch-all would produce. The request is marked so the
+ * {@link DatabaseCircuitBreakerFilter} still counts it as a database failure. Other data access errors
+ * (constraint violations, lock conflicts) are left to the default handling.
+ */
+@RestControllerAdvice
+public class DatabaseFailureAdvice {
+    
+    @Autowired
+    private ObjectProvider<CircuitBreaker> databaseCircuitBreaker;
+    
+    @ExceptionHandler({DataAccessException.class, TransactionException.class})
+    public ResponseEntity<Map<String, String>> handleDatabaseFailure(RuntimeException e, HttpServletRequest request) {
+        if (!DatabaseCircuitBreakerFilter.isDatabaseFailure(e)) {
+            throw e;
+        }
+        request.setAttribute(DatabaseCircuitBreakerFilter.FAILURE_ATTRIBUTE, e);
+        CircuitBreaker circuitBreaker = databaseCircuitBreaker.getIfAvailable();
+        long retryAfterSeconds = circuitBreaker != null
+                ? Math.max(1, (circuitBreaker.getRemainingOpenMillis() + 999) / 1000)
+                : 1;
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "The database is unavailable; try again later");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+}
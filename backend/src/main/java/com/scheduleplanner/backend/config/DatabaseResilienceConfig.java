@@ -0,0 +1,53 @@
+package com.scheduleplanner.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduleplanner.backend.service.ScheduleSnapshotCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Registers the database circuit breaker and bulkheads after the rate and concurrency limits and before
+ * idempotency, so a request failed fast for a database outage never claims an idempotency key.
+ *
+ * It sits in front of the handler rather than around the repositories because {@code @Transactional}
+ * service methods already borrow a connection before any repository code runs; a stalled pool would
+ * block there first.
+ */
+@Configuration
+@ConditionalOnProperty(name = "timeblocks.resilience.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseResilienceConfig {
+    
+    @Bean
+    public CircuitBreaker databaseCircuitBreaker(@Value("${timeblocks.resilience.window-size:20}") int windowSize,
+                                                 @Value("${timeblocks.resilience.minimum-calls:10}") int minimumCalls,
+                                                 @Value("${timeblocks.resilience.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                                 @Value("${timeblocks.resilience.open-ms:10000}") long openMs,
+                                                 @Value("${timeblocks.resilience.half-open-calls:3}") int halfOpenCalls) {
+        return new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, openMs, halfOpenCalls);
+    }
+    
+    // The SSE stream holds its request open for minutes and search is served from memory
+    @Bean
+    public FilterRegistrationBean<DatabaseCircuitBreakerFilter> databaseCircuitBreakerFilterRegistration(
+            CircuitBreaker databaseCircuitBreaker, ScheduleSnapshotCache scheduleSnapshotCache,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${timeblocks.resilience.read-bulkhead:16}") int readBulkhead,
+            @Value("${timeblocks.resilience.write-bulkhead:8}") int writeBulkhead,
+            @Value("${timeblocks.resilience.bulkhead-wait-ms:50}") long bulkheadWaitMs) {
+        FilterRegistrationBean<DatabaseCircuitBreakerFilter> registration = new FilterRegistrationBean<>(
+                new DatabaseCircuitBreakerFilter(
+                        List.of("/api/timeblocks", "/api/timeblocks/**"),
+                        List.of("/api/timeblocks/student/*/events", "/api/timeblocks/search"),
+                        databaseCircuitBreaker, readBulkhead, writeBulkhead, bulkheadWaitMs,
+                        scheduleSnapshotCache, objectMapper, meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 25);
+        return registration;
+    }
+}
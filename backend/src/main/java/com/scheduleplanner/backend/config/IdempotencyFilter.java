@@ -0,0 +1,214 @@
+package com.scheduleplanner.backend.config;
+
+import com.scheduleplanner.backend.model.IdempotencyRecord;
+import com.scheduleplanner.backend.service.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Honours the {@code Idempotency-Key} header on writes under /api. The first attempt runs normally and
+ * its response is stored; retries with the same key get the stored response without touching the
+ * database again, marked with {@code Idempotent-Replayed: true}. A retry while the first attempt is
+ * still running gets 409, and reusing a key for a different request gets 422.
+ *
+ * Keys are scoped to the caller, method and path. 5xx responses are not stored, so those can be retried.
+ * The body is buffered to compare retries, so bodies above {@code maxBodyBytes} are refused with 413.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "Idempotency-Key";
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final IdempotencyStore idempotencyStore;
+    
+    private final ClientKeyResolver clientKeyResolver;
+    
+    private final int maxBodyBytes;
+    
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ClientKeyResolver clientKeyResolver, int maxBodyBytes) {
+        this.idempotencyStore = idempotencyStore;
+        this.clientKeyResolver = clientKeyResolver;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return request.getHeader(HEADER) == null
+                || !request.getRequestURI().startsWith("/api/")
+                || !("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method) || "DELETE".equals(method));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        String key = sha256((clientKeyResolver.resolve(request) + ' ' + request.getMethod() + ' '
+                + request.getRequestURI() + ' ' + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+        
+        // Read the body up front so a replay can be compared; the wrapper lets the handler read it again.
+        // Chunked bodies have no declared length, so reading stops one byte past the limit.
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, maxBodyBytes + 1);
+        if (cachedRequest.getBody().length > maxBodyBytes) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        // The raw bytes: decoding first would make different invalid UTF-8 bodies hash the same
+        String requestHash = sha256(cachedRequest.getBody());
+        
+        Optional<IdempotencyRecord> existing;
+        try {
+            existing = idempotencyStore.claim(key, requestHash);
+        } catch (RuntimeException e) {
+            log.warn("Idempotency store unavailable; processing request without deduplication", e);
+            chain.doFilter(cachedRequest, response);
+            return;
+        }
+        
+        if (existing.isPresent()) {
+            replay(existing.get(), requestHash, response);
+            return;
+        }
+        
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(cachedRequest, cachingResponse);
+            int status = cachingResponse.getStatus();
+            if (status < 500) {
+                idempotencyStore.complete(key, status, cachingResponse.getContentType(),
+                        cachingResponse.getHeader(HttpHeaders.LOCATION), cachingResponse.getContentAsByteArray());
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyStore.release(key);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+    
+    private void replay(IdempotencyRecord record, String requestHash, HttpServletResponse response) throws IOException {
+        if (!record.getRequestHash().equals(requestHash)) {
+            response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+            return;
+        }
+        if (!record.isCompleted()) {
+            response.setStatus(HttpStatus.CONFLICT.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        response.setStatus(record.getStatus());
+        response.setHeader("Idempotent-Replayed", "true");
+        if (record.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, record.getLocation());
+        }
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        if (record.getBody() != null && record.getBody().length > 0) {
+            response.setContentLength(record.getBody().length);
+            response.getOutputStream().write(record.getBody());
+        }
+    }
+    
+    private static String sha256(byte[] value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value);
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+        
+        private CachedBodyRequest(HttpServletRequest request, int maxBytes) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readNBytes(maxBytes);
+        }
+        
+        private byte[] getBody() {
+            return body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                // The whole body is already in memory, so it is all available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+                
+                @Override
+                public int read() {
+                    return input.read();
+                }
+                
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
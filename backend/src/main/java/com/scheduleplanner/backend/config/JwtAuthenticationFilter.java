@@ -0,0 +1,76 @@
+package com.scheduleplanner.backend.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Authenticates requests carrying a bearer access token. Every student gets {@code ROLE_STUDENT};
+ * the accounts listed in {@code security.admin-emails} also get {@code ROLE_ADMIN}, which the admin
+ * endpoints require. Requests without a token stay anonymous; a token that is presented but expired,
+ * forged or revoked is answered with 401, so a logged-out token stops working on permitAll paths too.
+ * The {@code /api/auth/} endpoints are the exception: logging in, refreshing and logging out must still
+ * work for a client holding a stale token.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    
+    private static final String AUTH_PATH = "/api/auth/";
+    
+    private final JwtUtil jwtUtil;
+    
+    private final Set<String> adminEmails;
+    
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, Set<String> adminEmails) {
+        this.jwtUtil = jwtUtil;
+        this.adminEmails = adminEmails;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtUtil.parseAccessToken(authHeader.substring(7));
+                StudentPrincipal principal = new StudentPrincipal(claims.get("studentId", Long.class), claims.getSubject());
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(principal, null, authoritiesOf(principal)));
+            } catch (JwtException | IllegalArgumentException e) {
+                SecurityContextHolder.clearContext();
+                if (!request.getRequestURI().startsWith(request.getContextPath() + AUTH_PATH)) {
+                    response.setHeader("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+    
+    private List<GrantedAuthority> authoritiesOf(StudentPrincipal principal) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_STUDENT"));
+        if (principal.email() != null && adminEmails.contains(principal.email().toLowerCase(Locale.ROOT))) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        return authorities;
+    }
+    
+    // The authenticated caller, as found in the access token
+    public record StudentPrincipal(Long studentId, String email) {
+    }
+}
@@ -1,78 +1,167 @@
 package com.scheduleplanner.backend.config;
 
+import com.scheduleplanner.backend.diagnostics.JwtVerificationEvent;
+import com.scheduleplanner.backend.service.TokenDenylist;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
 
+/**
+ * Issues short-lived access tokens and long-lived refresh tokens. Both carry a {@code jti} so they
+ * can be revoked through the {@link TokenDenylist}, and a {@code typ} claim so a refresh token is
+ * never accepted as a bearer token (tokens without one predate refresh tokens and count as access).
+ */
 @Component
 public class JwtUtil {
-    
-    // Use a secure secret key for JWT signing
-    private final SecretKey secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
-    
-    @Value("${jwt.expiration:86400000}") // 24 hours default
+
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
+    private static final String TYPE_CLAIM = "typ";
+
+    private static final String ACCESS = "access";
+
+    private static final String REFRESH = "refresh";
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    // Base64, at least 256 bits; every node must share it. Only the dev and loadtest profiles may leave it empty,
+    // and then each process signs with its own random key
+    @Value("${jwt.secret:}")
+    private String secret;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${jwt.expiration:900000}") // 15 minutes default
     private long jwtExpiration;
-    
+
+    @Value("${jwt.refresh-expiration:1209600000}") // 14 days default
+    private long refreshExpiration;
+
+    private SecretKey secretKey;
+
+    @PostConstruct
+    public void init() {
+        if (secret != null && !secret.isBlank()) {
+            secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+            return;
+        }
+        // A random key silently logs everyone out on restart and breaks tokens across nodes
+        if (!environment.acceptsProfiles(Profiles.of("dev", "loadtest"))) {
+            throw new IllegalStateException("jwt.secret (JWT_SECRET) must be set; only the dev and loadtest profiles may omit it");
+        }
+        log.warn("jwt.secret is not set: signing with a random per-process key, so tokens do not survive a restart");
+        secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+    }
+
     public String generateToken(String email, Long studentId) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpiration);
-        
-        return Jwts.builder()
-                .setSubject(email)
-                .claim("studentId", studentId)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(secretKey)
-                .compact();
+        return buildToken(email, studentId, ACCESS, jwtExpiration);
     }
-    
+
+    public String generateRefreshToken(String email, Long studentId) {
+        return buildToken(email, studentId, REFRESH, refreshExpiration);
+    }
+
+    public long getExpirationMs() {
+        return jwtExpiration;
+    }
+
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return parseAccessToken(token).getSubject();
     }
-    
+
     public Long getStudentIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.get("studentId", Long.class);
+        return parseAccessToken(token).get("studentId", Long.class);
     }
-    
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token);
+            parseAccessToken(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
-    
+
     public boolean isTokenExpired(String token) {
+        try {
+            return parseAccessToken(token).getExpiration().before(new Date());
+        } catch (JwtException | IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    // Valid, unrevoked access token claims; throws JwtException otherwise
+    public Claims parseAccessToken(String token) {
+        Claims claims = parseClaims(token);
+        if (REFRESH.equals(claims.get(TYPE_CLAIM, String.class))) {
+            throw new InvalidTokenException("A refresh token cannot be used as an access token");
+        }
+        return claims;
+    }
+
+    // Valid, unrevoked refresh token claims; throws JwtException otherwise
+    public Claims parseRefreshToken(String token) {
+        Claims claims = parseClaims(token);
+        if (!REFRESH.equals(claims.get(TYPE_CLAIM, String.class)) || claims.getId() == null) {
+            throw new InvalidTokenException("Not a refresh token");
+        }
+        return claims;
+    }
+
+    private String buildToken(String email, Long studentId, String type, long expiration) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + expiration);
+
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(email)
+                .claim("studentId", studentId)
+                .claim(TYPE_CLAIM, type)
+                .setIssuedAt(now)
+                .setExpiration(expiryDate)
+                .signWith(secretKey)
+                .compact();
+    }
+
+    private Claims parseClaims(String token) {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
         try {
             Claims claims = Jwts.parserBuilder()
                     .setSigningKey(secretKey)
                     .build()
                     .parseClaimsJws(token)
                     .getBody();
-            
-            return claims.getExpiration().before(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            return true;
+            if (claims.getId() != null && tokenDenylist.isRevoked(claims.getId(), claims.getExpiration().toInstant())) {
+                throw new InvalidTokenException("Token has been revoked");
+            }
+            event.valid = true;
+            return claims;
+        } catch (RuntimeException e) {
+            event.failure = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    public static class InvalidTokenException extends JwtException {
+        public InvalidTokenException(String message) {
+            super(message);
         }
     }
-} 
\ No newline at end of file
+}
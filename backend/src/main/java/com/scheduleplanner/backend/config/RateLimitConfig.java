@@ -0,0 +1,40 @@
+package com.scheduleplanner.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the rate limiter and the adaptive concurrency limit right after the security filter chain,
+ * so rejected requests still carry CORS headers but never reach a handler or the database.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+    
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, ClientKeyResolver clientKeyResolver,
+                                           MeterRegistry meterRegistry) {
+        return new RateLimitFilter(properties, clientKeyResolver, meterRegistry);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        return registration;
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "ratelimit.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(
+            RateLimitProperties properties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(properties.getConcurrency(), meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,92 @@
+package com.scheduleplanner.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-client token buckets for the budgets in {@link RateLimitProperties}. Clients are identified by
+ * the studentId in their bearer token, or by remote address when there is no valid token, so one
+ * noisy client cannot use up the database pool for everyone else.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    private final List<Rule> rules = new ArrayList<>();
+    
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    
+    private final ClientKeyResolver clientKeyResolver;
+    
+    public RateLimitFilter(RateLimitProperties properties, ClientKeyResolver clientKeyResolver, MeterRegistry meterRegistry) {
+        this.clientKeyResolver = clientKeyResolver;
+        properties.getEndpoints().forEach((name, budget) -> rules.add(new Rule(name, budget,
+                Counter.builder("ratelimit.rejected")
+                        .description("Requests rejected with 429 by the per-client rate limiter")
+                        .tag("budget", name)
+                        .register(meterRegistry))));
+        Gauge.builder("ratelimit.buckets", buckets, Map::size)
+                .description("Client buckets currently tracked")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = null;
+        for (Rule rule : rules) {
+            if (!rule.matches(request)) {
+                continue;
+            }
+            if (client == null) {
+                client = clientKeyResolver.resolve(request);
+            }
+            TokenBucket bucket = buckets.computeIfAbsent(rule.name + '|' + client,
+                    key -> new TokenBucket(rule.budget.getCapacity(), rule.budget.getRefillPerSecond()));
+            if (!bucket.tryConsume()) {
+                rule.rejected.increment();
+                response.setHeader("Retry-After", Long.toString(bucket.secondsUntilNextToken()));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+    
+    @Scheduled(fixedDelayString = "${ratelimit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        buckets.values().removeIf(TokenBucket::isFull);
+    }
+    
+    private static class Rule {
+        private final String name;
+        private final RateLimitProperties.Budget budget;
+        private final Counter rejected;
+        
+        private Rule(String name, RateLimitProperties.Budget budget, Counter rejected) {
+            this.name = name;
+            this.budget = budget;
+            this.rejected = rejected;
+        }
+        
+        private boolean matches(HttpServletRequest request) {
+            return (budget.getMethod() == null || budget.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && PATH_MATCHER.match(budget.getPath(), request.getRequestURI());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.scheduleplanner.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Budgets for {@link RateLimitFilter} and {@link ConcurrencyLimitFilter}, bound from {@code ratelimit.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    
+    // Budget name -> budget; a request is charged against every budget whose path (and method) it matches
+    private Map<String, Budget> endpoints = new LinkedHashMap<>();
+    
+    private Concurrency concurrency = new Concurrency();
+    
+    public static class Budget {
+        
+        private String path;
+        
+        private String method;
+        
+        private int capacity = 60;
+        
+        private double refillPerSecond = 1.0;
+        
+        // Getters and Setters
+        public String getPath() {
+            return path;
+        }
+        
+        public void setPath(String path) {
+            this.path = path;
+        }
+        
+        public String getMethod() {
+            return method;
+        }
+        
+        public void setMethod(String method) {
+            this.method = method;
+        }
+        
+        public int getCapacity() {
+            return capacity;
+        }
+        
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+        
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+    
+    public static class Concurrency {
+        
+        private boolean enabled = true;
+        
+        private List<String> paths = new ArrayList<>(List.of("/api/**"));
+        
+        private List<String> excludedPaths = new ArrayList<>();
+        
+        private int initialLimit = 20;
+        
+        private int minLimit = 4;
+        
+        private int maxLimit = 200;
+        
+        private long latencyThresholdMs = 250;
+        
+        private double backoffRatio = 0.9;
+        
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public List<String> getPaths() {
+            return paths;
+        }
+        
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+        
+        public List<String> getExcludedPaths() {
+            return excludedPaths;
+        }
+        
+        public void setExcludedPaths(List<String> excludedPaths) {
+            this.excludedPaths = excludedPaths;
+        }
+        
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+        
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+        
+        public int getMinLimit() {
+            return minLimit;
+        }
+        
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+        
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+        
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+        
+        public long getLatencyThresholdMs() {
+            return latencyThresholdMs;
+        }
+        
+        public void setLatencyThresholdMs(long latencyThresholdMs) {
+            this.latencyThresholdMs = latencyThresholdMs;
+        }
+        
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+        
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public Map<String, Budget> getEndpoints() {
+        return endpoints;
+    }
+    
+    public void setEndpoints(Map<String, Budget> endpoints) {
+        this.endpoints = endpoints;
+    }
+    
+    public Concurrency getConcurrency() {
+        return concurrency;
+    }
+    
+    public void setConcurrency(Concurrency concurrency) {
+        this.concurrency = concurrency;
+    }
+}
@@ -0,0 +1,89 @@
+package com.scheduleplanner.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.AllNestedConditions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read-replica routing, enabled by setting {@code spring.datasource.replica.url}.
+ * Without it the application keeps using the single auto-configured primary. Sharding brings its own
+ * data source ({@link ShardingConfig}) and cannot be combined with a replica yet, so it switches this off.
+ */
+@Configuration
+@Conditional(ReadReplicaConfig.ReplicaWithoutSharding.class)
+public class ReadReplicaConfig {
+    
+    // Both pools take spring.datasource.hikari, like the auto-configured pool they replace
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties primaryProperties) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primaryProperties,
+                                              @Value("${spring.datasource.replica.url}") String url,
+                                              @Value("${spring.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${spring.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primaryProperties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.Target.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${spring.datasource.replica.read-your-writes-window-ms:5000}") long windowMs) {
+        return new ReadYourWritesFilter(windowMs);
+    }
+    
+    static class ReplicaWithoutSharding extends AllNestedConditions {
+        
+        ReplicaWithoutSharding() {
+            super(ConfigurationPhase.PARSE_CONFIGURATION);
+        }
+        
+        @ConditionalOnProperty(name = "spring.datasource.replica.url")
+        static class ReplicaConfigured {
+        }
+        
+        @ConditionalOnProperty(name = "timeblocks.sharding.enabled", havingValue = "false", matchIfMissing = true)
+        static class ShardingDisabled {
+        }
+    }
+}
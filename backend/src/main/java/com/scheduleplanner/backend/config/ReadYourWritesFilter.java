@@ -0,0 +1,77 @@
+package com.scheduleplanner.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Read-your-writes for replica routing. A write request sets a short-lived cookie on the caller,
+ * and while it is present that caller's reads go to the primary, so a student never sees their
+ * schedule without the change they just made because the replica has not caught up yet.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    public static final String COOKIE_NAME = "primary_reads_until";
+    
+    private final long windowMs;
+    
+    public ReadYourWritesFilter(long windowMs) {
+        this.windowMs = windowMs;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isWrite(request)) {
+            // Set before the handler runs; afterwards the response may already be committed
+            long until = System.currentTimeMillis() + windowMs;
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+            cookie.setPath("/api");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, windowMs / 1000));
+            response.addCookie(cookie);
+        }
+        
+        if (isWithinWriteWindow(request)) {
+            ReplicaRoutingDataSource.forcePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearForcePrimary();
+        }
+    }
+    
+    private boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return false;
+        }
+        // Logging in, asking the optimizer for suggestions and batched reads do not change any rows; matched by
+        // suffix so they are recognised under a servlet context path
+        String path = request.getRequestURI();
+        return !path.endsWith("/api/auth/login") && !path.endsWith("/optimize") && !path.endsWith("/api/batch");
+    }
+    
+    private boolean isWithinWriteWindow(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.scheduleplanner.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ *
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * Hibernate asks for the connection while the transaction is still being started, before the
+ * read-only flag is visible, so the physical connection has to be chosen on first use instead.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+    
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+    
+    // Keeps the current thread's reads on the primary, e.g. right after the caller wrote
+    public static void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+    
+    public static void clearForcePrimary() {
+        FORCE_PRIMARY.remove();
+    }
+    
+    public static boolean isPrimaryForced() {
+        return FORCE_PRIMARY.get() != null;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && FORCE_PRIMARY.get() == null) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
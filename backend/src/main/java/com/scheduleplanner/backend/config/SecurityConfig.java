@@ -1,18 +1,34 @@
 package com.scheduleplanner.backend.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    // Accounts allowed to use /api/admin/**
+    @Value("${security.admin-emails:}")
+    private String[] adminEmails;
+    
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -26,8 +42,21 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/timeblocks/**").permitAll() // Allow time blocks for now
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/analytics/student/**").authenticated() // Scoped to the caller in the controller
+                .requestMatchers("/api/analytics/reconcile").hasRole("ADMIN")
+                .requestMatchers("/api/analytics/**").permitAll() // Campus-wide aggregates only
+                .requestMatchers("/api/batch").permitAll() // Allow batched reads for now
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN") // Exposes per-endpoint traffic and cache internals
                 .anyRequest().authenticated()
             )
+            // Not a bean, so Boot does not also register it as a plain servlet filter
+            .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, Arrays.stream(adminEmails)
+                    .map(email -> email.trim().toLowerCase(Locale.ROOT))
+                    .filter(email -> !email.isEmpty())
+                    .collect(Collectors.toSet())), UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .cors(cors -> cors.configurationSource(corsConfigurationSource()));
         
         return http.build();
@@ -39,6 +68,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(java.util.Arrays.asList("http://localhost:5173"));
         configuration.setAllowedMethods(java.util.Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(java.util.Arrays.asList("*"));
+        configuration.setExposedHeaders(java.util.Arrays.asList("ETag"));
         configuration.setAllowCredentials(true);
         
         org.springframework.web.cors.UrlBasedCorsConfigurationSource source = new org.springframework.web.cors.UrlBasedCorsConfigurationSource();
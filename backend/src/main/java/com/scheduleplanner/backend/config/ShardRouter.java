@@ -0,0 +1,124 @@
+package com.scheduleplanner.backend.config;
+
+import com.scheduleplanner.backend.model.SnowflakeIds;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard holds a student's time blocks and runs work against it.
+ *
+ * Shard 0 is the regular {@code spring.datasource} database, which also keeps every other table;
+ * with {@code timeblocks.sharding.enabled}, {@code timeblocks.sharding.extra-shard-urls} adds shards 1..N-1.
+ * With no extra shards everything runs on the caller's thread exactly as before.
+ *
+ * Students up to {@code timeblocks.sharding.legacy-max-student-id} stay on shard 0 with the blocks they had
+ * before sharding was enabled; later students are spread by a hash of their id.
+ */
+@Component
+public class ShardRouter {
+    
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+    
+    private final int shardCount;
+    
+    private final long legacyMaxStudentId;
+    
+    private final ExecutorService scatterPool;
+    
+    public ShardRouter(@Value("${timeblocks.sharding.enabled:false}") boolean enabled,
+                       @Value("${timeblocks.sharding.extra-shard-urls:}") String[] extraShardUrls,
+                       @Value("${timeblocks.sharding.legacy-max-student-id:0}") long legacyMaxStudentId,
+                       @Value("${timeblocks.sharding.scatter-threads:8}") int scatterThreads) {
+        this.shardCount = enabled ? 1 + extraShardUrls.length : 1;
+        if (shardCount > SnowflakeIds.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + SnowflakeIds.MAX_SHARDS + " shards are supported");
+        }
+        this.legacyMaxStudentId = legacyMaxStudentId;
+        this.scatterPool = shardCount > 1 ? Executors.newFixedThreadPool(scatterThreads) : null;
+    }
+    
+    public static int currentShard() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard != null ? shard : 0;
+    }
+    
+    public int getShardCount() {
+        return shardCount;
+    }
+    
+    public long getLegacyMaxStudentId() {
+        return legacyMaxStudentId;
+    }
+    
+    // Changing the shard count moves students between shards, so it requires a data migration
+    public int shardForStudent(Long studentId) {
+        if (studentId == null || shardCount == 1 || studentId <= legacyMaxStudentId) {
+            return 0;
+        }
+        return Math.floorMod(Long.hashCode(studentId * 0x9E3779B97F4A7C15L), shardCount);
+    }
+    
+    // Blocks written before sharding have IDENTITY ids and belong to legacy students, who stay on shard 0
+    public int shardForTimeBlock(Long timeBlockId) {
+        return timeBlockId == null || shardCount == 1 ? 0 : SnowflakeIds.shardOf(timeBlockId);
+    }
+    
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (shardCount == 1) {
+            return work.get();
+        }
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_SHARD.set(previous);
+            } else {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+    
+    // Runs the query on every shard in parallel (each in its own transaction) and concatenates the results
+    public <T> List<T> scatter(IntFunction<List<T>> query) {
+        if (shardCount == 1) {
+            return query.apply(0);
+        }
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, () -> query.apply(target)), scatterPool));
+        }
+        
+        List<T> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<T>> future : futures) {
+                results.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (scatterPool != null) {
+            scatterPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.scheduleplanner.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Picks the shard selected by {@link ShardRouter#onShard} for the current thread, or shard 0.
+ * Like the replica routing it sits behind a lazy connection proxy, so the shard only has to be
+ * known by the first statement of a transaction rather than when the transaction begins.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+}
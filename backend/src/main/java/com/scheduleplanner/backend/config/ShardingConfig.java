@@ -0,0 +1,98 @@
+package com.scheduleplanner.backend.config;
+
+import com.scheduleplanner.backend.model.SnowflakeIdGenerator;
+import com.scheduleplanner.backend.model.SnowflakeIds;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Student-sharded storage for {@code time_blocks}, enabled by {@code timeblocks.sharding.enabled} with the
+ * shards beyond the main database in {@code timeblocks.sharding.extra-shard-urls}. The extra shards use the
+ * primary's credentials and need the time_blocks table from database-setup.sql; schema auto-update only runs
+ * against shard 0. Replaces {@link ReadReplicaConfig}, which stays off while sharding is enabled.
+ *
+ * Time blocks get {@link SnowflakeIds} instead of IDENTITY values, so every node needs its own
+ * {@code timeblocks.sharding.node-id}; there is no default.
+ */
+@Configuration
+@ConditionalOnProperty(name = "timeblocks.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+    
+    private final List<HikariDataSource> shards = new ArrayList<>();
+    
+    // Pool settings shared by every shard, bound like the auto-configured pool's (connection timeout, sizes)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig shardPoolSettings() {
+        return new HikariConfig();
+    }
+    
+    @Bean
+    public SnowflakeIds snowflakeIds(@Value("${timeblocks.sharding.node-id}") int nodeId) {
+        return new SnowflakeIds(nodeId);
+    }
+    
+    // Hibernate instantiates SnowflakeIdGenerator itself and finds the node's ids in its settings
+    @Bean
+    public HibernatePropertiesCustomizer snowflakeIdsSetting(SnowflakeIds snowflakeIds) {
+        return properties -> properties.put(SnowflakeIdGenerator.IDS_SETTING, snowflakeIds);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties primaryProperties,
+                                 HikariConfig shardPoolSettings,
+                                 @Value("${timeblocks.sharding.extra-shard-urls:}") String[] extraShardUrls,
+                                 @Value("${spring.datasource.replica.url:}") String replicaUrl) {
+        if (!replicaUrl.isEmpty()) {
+            throw new IllegalStateException("Sharding cannot be combined with spring.datasource.replica.url yet");
+        }
+        
+        HikariDataSource shard0 = newShard(shardPoolSettings, primaryProperties, primaryProperties.determineUrl(), 0);
+        
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(0, shard0);
+        for (int i = 0; i < extraShardUrls.length; i++) {
+            targets.put(i + 1, newShard(shardPoolSettings, primaryProperties, extraShardUrls[i].trim(), i + 1));
+        }
+        
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shard0);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    @PreDestroy
+    public void closeShards() {
+        shards.forEach(HikariDataSource::close);
+    }
+    
+    private HikariDataSource newShard(HikariConfig settings, DataSourceProperties primaryProperties, String url, int shard) {
+        HikariDataSource pool = new HikariDataSource();
+        settings.copyStateTo(pool);
+        pool.setDriverClassName(primaryProperties.determineDriverClassName());
+        pool.setJdbcUrl(url);
+        pool.setUsername(primaryProperties.determineUsername());
+        pool.setPassword(primaryProperties.determinePassword());
+        pool.setPoolName("shard-" + shard);
+        shards.add(pool);
+        return pool;
+    }
+}
@@ -0,0 +1,56 @@
+package com.scheduleplanner.backend.config;
+
+import com.scheduleplanner.backend.model.SnowflakeIds;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Refuses to start sharding on a main database (shard 0) that is not ready for it. It only reads; preparing
+ * an existing database is the explicit migration step in database-setup.sql.
+ *
+ * The time_block_id columns must be BIGINT to hold Snowflake ids, and every student owning blocks from before
+ * sharding must be covered by {@code timeblocks.sharding.legacy-max-student-id}, so the student stays on shard 0
+ * with those blocks.
+ */
+@Component
+@ConditionalOnProperty(name = "timeblocks.sharding.enabled", havingValue = "true")
+public class ShardingStartupCheck {
+    
+    // Outside a shard scope and a read-only transaction this runs against the main database
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @PostConstruct
+    public void verify() {
+        List<String> narrowTables = jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM information_schema.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND COLUMN_NAME = 'time_block_id' AND DATA_TYPE <> 'bigint'",
+                String.class);
+        if (!narrowTables.isEmpty()) {
+            throw new IllegalStateException("time_block_id is not BIGINT in " + narrowTables
+                    + "; apply the sharding migration from database-setup.sql before enabling sharding");
+        }
+        
+        List<String> timeBlocksTable = jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'time_blocks'",
+                String.class);
+        if (timeBlocksTable.isEmpty()) {
+            // A new database: schema auto-update creates the table and there are no blocks from before sharding
+            return;
+        }
+        Long legacyOwner = jdbcTemplate.queryForObject(
+                "SELECT MAX(student_id) FROM time_blocks WHERE time_block_id < ?", Long.class, SnowflakeIds.MIN_ID);
+        if (legacyOwner != null && legacyOwner > shardRouter.getLegacyMaxStudentId()) {
+            throw new IllegalStateException("Students up to id " + legacyOwner + " own time blocks from before sharding;"
+                    + " set timeblocks.sharding.legacy-max-student-id to at least " + legacyOwner);
+        }
+    }
+}
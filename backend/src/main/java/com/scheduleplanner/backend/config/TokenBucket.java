@@ -0,0 +1,55 @@
+package com.scheduleplanner.backend.config;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills continuously.
+ */
+public class TokenBucket {
+    
+    private final int capacity;
+    
+    private final double refillPerNano;
+    
+    private double tokens;
+    
+    private long lastRefillNanos;
+    
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+    
+    public synchronized boolean tryConsume() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+    
+    // Whole seconds until the next token is available, for the Retry-After header
+    public synchronized long secondsUntilNextToken() {
+        refill();
+        if (tokens >= 1) {
+            return 0;
+        }
+        if (refillPerNano == 0) {
+            return 60;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerNano / 1_000_000_000.0));
+    }
+    
+    // A full bucket behaves exactly like a new one, so it can be dropped
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+    
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
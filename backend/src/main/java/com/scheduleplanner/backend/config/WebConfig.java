@@ -0,0 +1,53 @@
+package com.scheduleplanner.backend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.scheduleplanner.backend.diagnostics.ResponseSerializationProfiler;
+import com.scheduleplanner.backend.service.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+    
+    @Autowired
+    private ResponseSerializationProfiler responseSerializationProfiler;
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // CBOR is appended after the JSON converter so it is only chosen when a client
+        // explicitly sends "Accept: application/cbor"; "*/*" and missing Accept headers keep getting JSON
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build()));
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(responseSerializationProfiler).addPathPatterns("/api/timeblocks/**");
+    }
+    
+    // After the rate and concurrency limits, so rejected requests never claim a key
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilterRegistration(
+            IdempotencyStore idempotencyStore,
+            ClientKeyResolver clientKeyResolver,
+            @Value("${timeblocks.idempotency.max-body-bytes:1048576}") int maxBodyBytes) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore, clientKeyResolver, maxBodyBytes));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 30);
+        return registration;
+    }
+}
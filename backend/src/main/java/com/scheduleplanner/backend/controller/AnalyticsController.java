@@ -0,0 +1,60 @@
+package com.scheduleplanner.backend.controller;
+
+import com.scheduleplanner.backend.config.JwtAuthenticationFilter.StudentPrincipal;
+import com.scheduleplanner.backend.model.SlotLoad;
+import com.scheduleplanner.backend.service.ScheduleAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:3000")
+public class AnalyticsController {
+    
+    @Autowired
+    private ScheduleAnalyticsService scheduleAnalyticsService;
+    
+    @GetMapping("/student/{studentId}/hours-by-type")
+    public ResponseEntity<Map<String, Double>> getHoursByType(@PathVariable Long studentId, Authentication authentication) {
+        if (!canRead(authentication, studentId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(scheduleAnalyticsService.getHoursByType(studentId));
+    }
+    
+    @GetMapping("/busiest-slots")
+    public ResponseEntity<List<SlotLoad>> getBusiestSlots(@RequestParam(defaultValue = "10") int limit) {
+        if (limit <= 0 || limit > 672) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(scheduleAnalyticsService.getBusiestSlots(limit));
+    }
+    
+    @GetMapping("/heatmap")
+    public ResponseEntity<Map<String, long[]>> getHeatmap() {
+        return ResponseEntity.ok(scheduleAnalyticsService.getHeatmap());
+    }
+    
+    @PostMapping("/reconcile")
+    public ResponseEntity<?> reconcile() {
+        scheduleAnalyticsService.reconcileInBackground();
+        return ResponseEntity.accepted().build();
+    }
+    
+    // A student sees their own figures; admins see everyone's
+    private static boolean canRead(Authentication authentication, Long studentId) {
+        if (authentication == null) {
+            return false;
+        }
+        if (authentication.getPrincipal() instanceof StudentPrincipal principal && studentId.equals(principal.studentId())) {
+            return true;
+        }
+        return authentication.getAuthorities().stream().anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
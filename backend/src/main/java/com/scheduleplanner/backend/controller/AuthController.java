@@ -1,5 +1,6 @@
 package com.scheduleplanner.backend.controller;
 
+import com.scheduleplanner.backend.config.JwtUtil;
 import com.scheduleplanner.backend.model.*;
 import com.scheduleplanner.backend.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +20,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private JwtUtil jwtUtil;
+    
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
         try {
@@ -43,9 +47,36 @@ public class AuthController {
         }
     }
     
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String email,
+                                               @RequestParam(required = false) String username) {
+        if ((email == null || email.isBlank()) && (username == null || username.isBlank())) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Provide an email or a username to check");
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(authService.checkAvailability(
+                email == null || email.isBlank() ? null : email,
+                username == null || username.isBlank() ? null : username));
+    }
+    
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        try {
+            return ResponseEntity.ok(authService.refresh(refreshRequest.getRefreshToken()));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }
+    }
+    
+    // Revokes the bearer token and, when given, the refresh token; other nodes stop accepting them within a poll interval
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        // For JWT, logout is handled on the client side by removing the token
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                    @RequestBody(required = false) RefreshRequest refreshRequest) {
+        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(token, refreshRequest != null ? refreshRequest.getRefreshToken() : null);
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logged out successfully");
         return ResponseEntity.ok(response);
@@ -53,19 +84,14 @@ public class AuthController {
     
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser(@RequestHeader("Authorization") String authHeader) {
-        try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Here you would validate the token and get user info
-            // For now, return a simple response
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "User authenticated");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
+        // Expired, malformed and revoked tokens are all rejected
+        if (!authHeader.startsWith("Bearer ") || !jwtUtil.validateToken(authHeader.substring(7))) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Invalid token");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "User authenticated");
+        return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.scheduleplanner.backend.controller;
+
+import com.scheduleplanner.backend.model.BatchRequest;
+import com.scheduleplanner.backend.model.BatchResponse;
+import com.scheduleplanner.backend.service.BatchService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/batch")
+@CrossOrigin(origins = "http://localhost:3000")
+public class BatchController {
+    
+    @Autowired
+    private BatchService batchService;
+    
+    // Several page-load reads in one round trip; each sub-response carries its own status
+    @PostMapping
+    public ResponseEntity<BatchResponse> executeBatch(@Valid @RequestBody BatchRequest batchRequest,
+                                                      @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        return ResponseEntity.ok(batchService.execute(batchRequest, authHeader));
+    }
+}
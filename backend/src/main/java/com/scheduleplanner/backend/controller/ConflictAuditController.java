@@ -0,0 +1,54 @@
+package com.scheduleplanner.backend.controller;
+
+import com.scheduleplanner.backend.model.ConflictAuditReport;
+import com.scheduleplanner.backend.model.ConflictPair;
+import com.scheduleplanner.backend.service.ConflictAuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/conflict-audit")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ConflictAuditController {
+    
+    @Autowired
+    private ConflictAuditService conflictAuditService;
+    
+    @PostMapping
+    public ResponseEntity<ConflictAuditReport> startAudit(@RequestParam(defaultValue = "false") boolean resume) {
+        try {
+            ConflictAuditReport report = conflictAuditService.start(resume);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    @GetMapping
+    public ResponseEntity<ConflictAuditReport> getAuditStatus() {
+        return conflictAuditService.getCurrentReport()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/conflicts")
+    public ResponseEntity<List<ConflictPair>> getConflicts(@RequestParam(defaultValue = "0") int offset,
+                                                           @RequestParam(defaultValue = "1000") int limit) {
+        if (offset < 0 || limit <= 0 || limit > 10000) {
+            return ResponseEntity.badRequest().build();
+        }
+        return conflictAuditService.getCurrentReport()
+                .map(report -> ResponseEntity.ok(report.getConflicts(offset, limit)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @DeleteMapping
+    public ResponseEntity<?> cancelAudit() {
+        conflictAuditService.cancel();
+        return ResponseEntity.accepted().build();
+    }
+}
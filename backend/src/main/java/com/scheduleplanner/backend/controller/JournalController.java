@@ -0,0 +1,67 @@
+package com.scheduleplanner.backend.controller;
+
+import com.scheduleplanner.backend.model.JournalPage;
+import com.scheduleplanner.backend.service.ChangeJournal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/journal")
+@CrossOrigin(origins = "http://localhost:3000")
+public class JournalController {
+    
+    private static final long MAX_WAIT_MS = 30000;
+    
+    @Autowired
+    private ChangeJournal changeJournal;
+    
+    // Offset-based read; with waitMs > 0 a caught-up consumer long-polls for new records.
+    // studentId / timeBlockId narrow the page for support lookups; nextOffset still covers the whole range read.
+    @GetMapping
+    public ResponseEntity<?> read(@RequestParam(defaultValue = "0") long fromOffset,
+                                            @RequestParam(defaultValue = "500") int limit,
+                                            @RequestParam(defaultValue = "0") long waitMs,
+                                            @RequestParam(required = false) Long studentId,
+                                            @RequestParam(required = false) Long timeBlockId) {
+        if (fromOffset < 0 || limit <= 0 || limit > 5000 || waitMs < 0 || waitMs > MAX_WAIT_MS) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            JournalPage page = changeJournal.poll(fromOffset, limit, waitMs);
+            if (studentId != null || timeBlockId != null) {
+                page.getEntries().removeIf(entry -> (studentId != null && !entry.getEvent().getAffectedStudentIds().contains(studentId))
+                        || (timeBlockId != null && !timeBlockId.equals(entry.getEvent().getTimeBlockId())));
+            }
+            return ResponseEntity.ok(page);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.internalServerError().build();
+        } catch (ChangeJournal.CorruptRecordException e) {
+            // Corrupt record or misaligned offset; the offset lets a consumer skip to the next segment
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            error.put("offset", e.getOffset());
+            return ResponseEntity.unprocessableEntity().body(error);
+        } catch (UncheckedIOException e) {
+            // A segment file could not be mapped; it may be mid-rotation or the disk is failing
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
+    }
+    
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Long>> status() {
+        Map<String, Long> status = new HashMap<>();
+        status.put("startOffset", changeJournal.getStartOffset());
+        status.put("endOffset", changeJournal.getEndOffset());
+        status.put("droppedEvents", changeJournal.getDroppedCount());
+        return ResponseEntity.ok(status);
+    }
+}
@@ -0,0 +1,77 @@
+package com.scheduleplanner.backend.controller;
+
+import com.scheduleplanner.backend.service.ProfilingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/profiling")
+@ConditionalOnProperty(name = "timeblocks.profiling.enabled", havingValue = "true")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ProfilingController {
+    
+    @Autowired
+    private ProfilingService profilingService;
+    
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> startRecording(@RequestParam(defaultValue = "60") long durationSeconds,
+                                                              @RequestParam(defaultValue = "profile") String settings) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(profilingService.start(durationSeconds, settings));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IOException | ParseException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getRecordingStatus() {
+        return ResponseEntity.ok(profilingService.status());
+    }
+    
+    // Stops the recording (if it has not reached its duration yet) and streams the .jfr file back
+    @DeleteMapping
+    public ResponseEntity<StreamingResponseBody> stopRecording() {
+        Path file;
+        try {
+            file = profilingService.stop();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .contentLength(Files.size(file))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                    .body(body);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
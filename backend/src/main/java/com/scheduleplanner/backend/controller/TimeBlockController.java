@@ -1,19 +1,40 @@
 package com.scheduleplanner.backend.controller;
 
+import com.scheduleplanner.backend.config.DatabaseCircuitBreakerFilter;
+import com.scheduleplanner.backend.diagnostics.DtoConversionEvent;
+import com.scheduleplanner.backend.model.AsyncOperation;
+import com.scheduleplanner.backend.model.OptimizeRequest;
+import com.scheduleplanner.backend.model.OptimizeResponse;
+import com.scheduleplanner.backend.model.ScheduleCopyRequest;
+import com.scheduleplanner.backend.model.ScheduleCopyResult;
 import com.scheduleplanner.backend.model.TimeBlock;
 import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
 import com.scheduleplanner.backend.model.TimeBlockDTO;
+import com.scheduleplanner.backend.model.TypeColorRequest;
+import com.scheduleplanner.backend.service.ScheduleCopyService;
+import com.scheduleplanner.backend.service.ScheduleEventBus;
+import com.scheduleplanner.backend.service.ScheduleOptimizerService;
+import com.scheduleplanner.backend.service.TimeBlockSearchIndex;
 import com.scheduleplanner.backend.service.TimeBlockService;
+import com.scheduleplanner.backend.service.TimeBlockWriteQueue;
+import com.scheduleplanner.backend.service.TypeColorRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.net.URI;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/timeblocks")
@@ -23,49 +44,133 @@ public class TimeBlockController {
     @Autowired
     private TimeBlockService timeBlockService;
     
+    @Autowired
+    private TimeBlockWriteQueue timeBlockWriteQueue;
+    
+    @Autowired
+    private ScheduleEventBus scheduleEventBus;
+    
+    @Autowired
+    private ScheduleOptimizerService scheduleOptimizerService;
+    
+    @Autowired
+    private ScheduleCopyService scheduleCopyService;
+    
+    @Autowired
+    private TimeBlockSearchIndex timeBlockSearchIndex;
+    
+    @Value("${timeblocks.search.max-results:100}")
+    private int searchMaxResults;
+    
+    // Each student is a partition of the index, scanned separately (a full dictionary scan with fuzzy=true)
+    @Value("${timeblocks.search.max-students:20}")
+    private int searchMaxStudents;
+    
+    @Autowired
+    private TypeColorRegistry typeColorRegistry;
+    
+    @Value("${timeblocks.type-colors.max-age-seconds:60}")
+    private long typeColorsMaxAgeSeconds;
+    
     @GetMapping
     public ResponseEntity<List<TimeBlockDTO>> getAllTimeBlocks() {
         List<TimeBlock> timeBlocks = timeBlockService.getAllTimeBlocks();
-        List<TimeBlockDTO> timeBlockDTOs = timeBlocks.stream()
-                .map(TimeBlockDTO::new)
-                .collect(Collectors.toList());
+        List<TimeBlockDTO> timeBlockDTOs = toDTOs(timeBlocks);
         return ResponseEntity.ok(timeBlockDTOs);
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<TimeBlockDTO> getTimeBlockById(@PathVariable Long id) {
         return timeBlockService.getTimeBlockById(id)
-                .map(timeBlock -> ResponseEntity.ok().body(new TimeBlockDTO(timeBlock)))
+                .map(timeBlock -> withVersion(ResponseEntity.ok(), timeBlock.getVersion()).body(new TimeBlockDTO(timeBlock)))
                 .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/student/{studentId}")
     public ResponseEntity<List<TimeBlockDTO>> getTimeBlocksByStudentId(@PathVariable Long studentId) {
         List<TimeBlock> timeBlocks = timeBlockService.getTimeBlocksByStudentId(studentId);
-        List<TimeBlockDTO> timeBlockDTOs = timeBlocks.stream()
-                .map(TimeBlockDTO::new)
-                .collect(Collectors.toList());
+        List<TimeBlockDTO> timeBlockDTOs = toDTOs(timeBlocks);
         return ResponseEntity.ok(timeBlockDTOs);
     }
     
     @GetMapping("/student/{studentId}/schedule")
     public ResponseEntity<List<TimeBlockDTO>> getTimeBlocksForScheduleView(@PathVariable Long studentId) {
         List<TimeBlock> timeBlocks = timeBlockService.getTimeBlocksForScheduleView(studentId);
-        List<TimeBlockDTO> timeBlockDTOs = timeBlocks.stream()
-                .map(TimeBlockDTO::new)
-                .collect(Collectors.toList());
+        List<TimeBlockDTO> timeBlockDTOs = toDTOs(timeBlocks);
         return ResponseEntity.ok(timeBlockDTOs);
     }
     
+    // Pushes create/update/delete events for the student's schedule instead of having clients poll
+    @GetMapping(path = "/student/{studentId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamScheduleEvents(@PathVariable Long studentId) {
+        return scheduleEventBus.subscribe(studentId);
+    }
+    
+    // Proposes conflict-free placements for flexible tasks; nothing is saved
+    @PostMapping("/student/{studentId}/optimize")
+    public ResponseEntity<OptimizeResponse> optimizeSchedule(@PathVariable Long studentId,
+                                                             @Valid @RequestBody OptimizeRequest optimizeRequest) {
+        try {
+            OptimizeResponse response = scheduleOptimizerService.optimize(studentId, optimizeRequest.getTasks());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Copies the student's schedule to every target student in one set-based write (409 with the conflicts
+    // when onConflict is REJECT and a target already has an overlapping block)
+    @PostMapping("/student/{studentId}/clone")
+    public ResponseEntity<ScheduleCopyResult> cloneSchedule(@PathVariable Long studentId,
+                                                            @Valid @RequestBody ScheduleCopyRequest copyRequest) {
+        try {
+            return ResponseEntity.ok(scheduleCopyService.cloneSchedule(studentId, copyRequest));
+        } catch (ScheduleCopyService.ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getResult());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Term rollover: copies each mapped source student's schedule to its target student
+    @PostMapping("/rollover")
+    public ResponseEntity<ScheduleCopyResult> rolloverSchedules(@Valid @RequestBody ScheduleCopyRequest copyRequest) {
+        try {
+            return ResponseEntity.ok(scheduleCopyService.rollover(copyRequest));
+        } catch (ScheduleCopyService.ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getResult());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Keyword search over the titles and descriptions of the given students' blocks (e.g. a student and
+    // their club); 503 until the index has been built after startup
+    @GetMapping("/search")
+    public ResponseEntity<List<TimeBlockDTO>> searchTimeBlocks(@RequestParam String q,
+                                                               @RequestParam List<Long> studentIds,
+                                                               @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                               @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank() || studentIds.isEmpty() || studentIds.size() > searchMaxStudents || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!timeBlockSearchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ResponseEntity.ok(timeBlockSearchIndex.search(q, studentIds, fuzzy, Math.min(limit, searchMaxResults)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/student/{studentId}/day/{day}")
     public ResponseEntity<List<TimeBlockDTO>> getTimeBlocksByStudentIdAndDay(
             @PathVariable Long studentId, @PathVariable String day) {
         try {
             DayOfWeek dayOfWeek = DayOfWeek.valueOf(day);
             List<TimeBlock> timeBlocks = timeBlockService.getTimeBlocksByStudentIdAndDay(studentId, dayOfWeek);
-            List<TimeBlockDTO> timeBlockDTOs = timeBlocks.stream()
-                    .map(TimeBlockDTO::new)
-                    .collect(Collectors.toList());
+            List<TimeBlockDTO> timeBlockDTOs = toDTOs(timeBlocks);
             return ResponseEntity.ok(timeBlockDTOs);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -77,9 +182,7 @@ public class TimeBlockController {
         try {
             DayOfWeek dayOfWeek = DayOfWeek.valueOf(day);
             List<TimeBlock> timeBlocks = timeBlockService.getTimeBlocksByDay(dayOfWeek);
-            List<TimeBlockDTO> timeBlockDTOs = timeBlocks.stream()
-                    .map(TimeBlockDTO::new)
-                    .collect(Collectors.toList());
+            List<TimeBlockDTO> timeBlockDTOs = toDTOs(timeBlocks);
             return ResponseEntity.ok(timeBlockDTOs);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -89,9 +192,7 @@ public class TimeBlockController {
     @GetMapping("/type/{type}")
     public ResponseEntity<List<TimeBlockDTO>> getTimeBlocksByType(@PathVariable String type) {
         List<TimeBlock> timeBlocks = timeBlockService.getTimeBlocksByType(type);
-        List<TimeBlockDTO> timeBlockDTOs = timeBlocks.stream()
-                .map(TimeBlockDTO::new)
-                .collect(Collectors.toList());
+        List<TimeBlockDTO> timeBlockDTOs = toDTOs(timeBlocks);
         return ResponseEntity.ok(timeBlockDTOs);
     }
     
@@ -99,9 +200,7 @@ public class TimeBlockController {
     public ResponseEntity<List<TimeBlockDTO>> getTimeBlocksByStudentIdAndType(
             @PathVariable Long studentId, @PathVariable String type) {
         List<TimeBlock> timeBlocks = timeBlockService.getTimeBlocksByStudentIdAndType(studentId, type);
-        List<TimeBlockDTO> timeBlockDTOs = timeBlocks.stream()
-                .map(TimeBlockDTO::new)
-                .collect(Collectors.toList());
+        List<TimeBlockDTO> timeBlockDTOs = toDTOs(timeBlocks);
         return ResponseEntity.ok(timeBlockDTOs);
     }
     
@@ -122,15 +221,18 @@ public class TimeBlockController {
             
             TimeBlock createdTimeBlock = timeBlockService.createTimeBlock(timeBlock);
             return ResponseEntity.status(HttpStatus.CREATED).body(new TimeBlockDTO(createdTimeBlock));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (RuntimeException e) {
+            return clientError(e, HttpStatus.BAD_REQUEST);
         }
     }
     
+    // If-Match carries the version from a previous response's ETag; a stale version is answered with 412
     @PutMapping("/{id}")
     public ResponseEntity<TimeBlockDTO> updateTimeBlock(@PathVariable Long id, 
-                                                       @Valid @RequestBody TimeBlockDTO timeBlockDTO) {
+                                                       @Valid @RequestBody TimeBlockDTO timeBlockDTO,
+                                                       @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         try {
+            Long expectedVersion = parseIfMatch(ifMatch);
             TimeBlock timeBlockDetails = timeBlockDTO.toEntity();
             
             // Check for overlapping time blocks for the specific student (excluding the current one)
@@ -145,25 +247,125 @@ public class TimeBlockController {
                 }
             }
             
-            TimeBlock updatedTimeBlock = timeBlockService.updateTimeBlock(id, timeBlockDetails);
-            return ResponseEntity.ok(new TimeBlockDTO(updatedTimeBlock));
+            TimeBlock updatedTimeBlock = timeBlockService.updateTimeBlock(id, timeBlockDetails, expectedVersion);
+            return withVersion(ResponseEntity.ok(), updatedTimeBlock.getVersion()).body(new TimeBlockDTO(updatedTimeBlock));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            return clientError(e, HttpStatus.NOT_FOUND);
         }
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteTimeBlock(@PathVariable Long id) {
+    public ResponseEntity<?> deleteTimeBlock(@PathVariable Long id,
+                                             @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         try {
-            timeBlockService.deleteTimeBlock(id);
+            timeBlockService.deleteTimeBlock(id, parseIfMatch(ifMatch));
             return ResponseEntity.ok().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+            return clientError(e, HttpStatus.NOT_FOUND);
         }
     }
     
+    // Database outages are not the client's fault: they propagate to DatabaseFailureAdvice, which answers 503
+    private static <T> ResponseEntity<T> clientError(RuntimeException e, HttpStatus status) {
+        if (DatabaseCircuitBreakerFilter.isDatabaseFailure(e)) {
+            throw e;
+        }
+        return ResponseEntity.status(status).build();
+    }
+    
+    private static List<TimeBlockDTO> toDTOs(List<TimeBlock> timeBlocks) {
+        DtoConversionEvent event = new DtoConversionEvent();
+        event.begin();
+        List<TimeBlockDTO> timeBlockDTOs = new ArrayList<>(timeBlocks.size());
+        for (TimeBlock timeBlock : timeBlocks) {
+            timeBlockDTOs.add(new TimeBlockDTO(timeBlock));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.count = timeBlockDTOs.size();
+            event.commit();
+        }
+        return timeBlockDTOs;
+    }
+    
+    // "*" or no header means unconditional; anything else must be one of our version ETags
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim().replaceFirst("^W/", "");
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Malformed If-Match header");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed If-Match header", e);
+        }
+    }
+    
+    private static ResponseEntity.BodyBuilder withVersion(ResponseEntity.BodyBuilder builder, Long version) {
+        return version != null ? builder.eTag("\"" + version + "\"") : builder;
+    }
+    
+    // Asynchronous variants: validated and queued immediately, persisted in per-student order
+    @PostMapping("/async")
+    public ResponseEntity<AsyncOperation> createTimeBlockAsync(@Valid @RequestBody TimeBlockDTO timeBlockDTO) {
+        try {
+            AsyncOperation operation = timeBlockWriteQueue.submitCreate(timeBlockDTO.toEntity());
+            return accepted(operation);
+        } catch (TimeBlockWriteQueue.ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (TimeBlockWriteQueue.QueueFullException e) {
+            return queueFull(e);
+        } catch (RuntimeException e) {
+            return clientError(e, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    @PutMapping("/async/{id}")
+    public ResponseEntity<AsyncOperation> updateTimeBlockAsync(@PathVariable Long id,
+                                                              @Valid @RequestBody TimeBlockDTO timeBlockDTO) {
+        try {
+            AsyncOperation operation = timeBlockWriteQueue.submitUpdate(id, timeBlockDTO.toEntity());
+            return accepted(operation);
+        } catch (TimeBlockWriteQueue.ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (TimeBlockWriteQueue.QueueFullException e) {
+            return queueFull(e);
+        } catch (RuntimeException e) {
+            return clientError(e, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    @GetMapping("/operations/{operationId}")
+    public ResponseEntity<AsyncOperation> getOperation(@PathVariable String operationId) {
+        return timeBlockWriteQueue.getOperation(operationId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // A student flooding their own queue is throttled; a node-wide backlog means the node is overloaded
+    private static ResponseEntity<AsyncOperation> queueFull(TimeBlockWriteQueue.QueueFullException e) {
+        return ResponseEntity.status(e.isStudentLimit() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .build();
+    }
+    
+    private ResponseEntity<AsyncOperation> accepted(AsyncOperation operation) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/timeblocks/operations/" + operation.getOperationId()))
+                .body(operation);
+    }
+    
     @GetMapping("/check-overlap")
     public ResponseEntity<List<TimeBlockDTO>> checkOverlap(@RequestParam String day,
                                                           @RequestParam String startTime,
@@ -181,19 +383,54 @@ public class TimeBlockController {
                 overlapping = timeBlockService.checkForOverlaps(dayOfWeek, start, end);
             }
             
-            List<TimeBlockDTO> overlappingDTOs = overlapping.stream()
-                    .map(TimeBlockDTO::new)
-                    .collect(Collectors.toList());
+            List<TimeBlockDTO> overlappingDTOs = toDTOs(overlapping);
             return ResponseEntity.ok(overlappingDTOs);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return clientError(e, HttpStatus.BAD_REQUEST);
         }
     }
     
     @GetMapping("/type-colors")
-    public ResponseEntity<Map<String, String>> getTypeColors() {
-        Map<String, String> typeColors = timeBlockService.getTypeColors();
-        return ResponseEntity.ok(typeColors);
+    public ResponseEntity<Map<String, String>> getTypeColors(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return cachedTypeColors(typeColorRegistry.getDefaults(), ifNoneMatch,
+                CacheControl.maxAge(typeColorsMaxAgeSeconds, TimeUnit.SECONDS));
+    }
+    
+    // Defaults merged with the student's custom types and overrides
+    @GetMapping("/student/{studentId}/type-colors")
+    public ResponseEntity<Map<String, String>> getStudentTypeColors(
+            @PathVariable Long studentId,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return cachedTypeColors(typeColorRegistry.getView(studentId), ifNoneMatch,
+                CacheControl.maxAge(typeColorsMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate());
+    }
+    
+    @PutMapping("/student/{studentId}/type-colors/{type}")
+    public ResponseEntity<Map<String, String>> setStudentTypeColor(@PathVariable Long studentId, @PathVariable String type,
+                                                                   @Valid @RequestBody TypeColorRequest typeColorRequest) {
+        if (type.isBlank() || type.length() > 50) {
+            return ResponseEntity.badRequest().build();
+        }
+        TypeColorRegistry.View view = typeColorRegistry.setColor(studentId, type, typeColorRequest.getColor());
+        return ResponseEntity.ok().eTag(view.getEtag()).body(view.getColors());
+    }
+    
+    @DeleteMapping("/student/{studentId}/type-colors/{type}")
+    public ResponseEntity<?> deleteStudentTypeColor(@PathVariable Long studentId, @PathVariable String type) {
+        if (!typeColorRegistry.removeColor(studentId, type)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().build();
+    }
+    
+    private ResponseEntity<Map<String, String>> cachedTypeColors(TypeColorRegistry.View view, String ifNoneMatch,
+                                                                 CacheControl cacheControl) {
+        // Compressed responses may have had their ETag turned into a weak one on the way out
+        if (ifNoneMatch != null && view.getEtag().equals(ifNoneMatch.replaceFirst("^W/", ""))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(view.getEtag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(view.getEtag()).cacheControl(cacheControl).body(view.getColors());
     }
     
     // Legacy endpoint for backwards compatibility
@@ -0,0 +1,18 @@
+package com.scheduleplanner.backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scheduleplanner.DtoConversion")
+@Label("DTO Conversion")
+@Category({"Schedule Planner", "Time Blocks"})
+@Description("Mapping a list of time block entities to DTOs in a request handler")
+@StackTrace(false)
+public class DtoConversionEvent extends jdk.jfr.Event {
+    
+    @Label("Count")
+    public int count;
+}
@@ -0,0 +1,22 @@
+package com.scheduleplanner.backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scheduleplanner.JwtVerification")
+@Label("JWT Verification")
+@Category({"Schedule Planner", "Security"})
+@Description("Signature check and claims parsing of one bearer token")
+@StackTrace(false)
+public class JwtVerificationEvent extends jdk.jfr.Event {
+    
+    @Label("Valid")
+    public boolean valid;
+    
+    @Label("Failure")
+    @Description("Exception type when the token was rejected")
+    public String failure;
+}
@@ -0,0 +1,26 @@
+package com.scheduleplanner.backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scheduleplanner.OverlapCheck")
+@Label("Overlap Check")
+@Category({"Schedule Planner", "Time Blocks"})
+@Description("One overlap query for a day and time range")
+@StackTrace(false)
+public class OverlapCheckEvent extends jdk.jfr.Event {
+    
+    @Label("Student Id")
+    @Description("0 when the check spans all students")
+    public long studentId;
+    
+    @Label("Day")
+    public String day;
+    
+    @Label("Candidates")
+    @Description("Overlapping blocks returned, before a caller drops the block it is updating")
+    public int candidates;
+}
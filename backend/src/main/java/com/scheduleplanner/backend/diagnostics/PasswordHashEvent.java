@@ -0,0 +1,19 @@
+package com.scheduleplanner.backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scheduleplanner.PasswordHash")
+@Label("Password Hash")
+@Category({"Schedule Planner", "Security"})
+@StackTrace(false)
+public class PasswordHashEvent extends jdk.jfr.Event {
+    
+    @Label("Operation")
+    public String operation;
+    
+    @Label("Matched")
+    public boolean matched;
+}
@@ -0,0 +1,25 @@
+package com.scheduleplanner.backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scheduleplanner.ResponseSerialization")
+@Label("Response Serialization")
+@Category({"Schedule Planner", "Time Blocks"})
+@Description("Writing a time block response body, from the message converter until the request completes")
+@StackTrace(false)
+public class ResponseSerializationEvent extends jdk.jfr.Event {
+    
+    @Label("Path")
+    public String path;
+    
+    @Label("Media Type")
+    public String mediaType;
+    
+    @Label("Elements")
+    @Description("Size of a list body, -1 for a single object")
+    public int elements;
+}
@@ -0,0 +1,62 @@
+package com.scheduleplanner.backend.diagnostics;
+
+import com.scheduleplanner.backend.controller.TimeBlockController;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.EventType;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+
+/**
+ * Times time block response bodies with a {@link ResponseSerializationEvent}. The event begins just
+ * before the message converter runs and ends when the request completes, so it covers serialization
+ * and the write into the response buffer. While no recording asks for the event, a response costs
+ * one check of the event type's enabled flag and allocates nothing.
+ */
+@ControllerAdvice(assignableTypes = TimeBlockController.class)
+public class ResponseSerializationProfiler implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+    
+    private static final String EVENT_ATTRIBUTE = ResponseSerializationProfiler.class.getName() + ".event";
+    
+    private static final EventType EVENT_TYPE = EventType.getEventType(ResponseSerializationEvent.class);
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!EVENT_TYPE.isEnabled() || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        ResponseSerializationEvent event = new ResponseSerializationEvent();
+        event.path = servletRequest.getServletRequest().getRequestURI();
+        event.mediaType = selectedContentType.toString();
+        event.elements = body instanceof Collection<?> collection ? collection.size() : -1;
+        servletRequest.getServletRequest().setAttribute(EVENT_ATTRIBUTE, event);
+        event.begin();
+        return body;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(EVENT_ATTRIBUTE) instanceof ResponseSerializationEvent event) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.scheduleplanner.backend.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class AsyncOperation {
+    
+    private final String operationId;
+    private final Kind kind;
+    private final Long studentId;
+    private final Long timeBlockId;
+    private final Instant submittedAt;
+    
+    private volatile Status status = Status.PENDING;
+    private volatile TimeBlockDTO result;
+    private volatile String message;
+    private volatile Instant completedAt;
+    
+    // Kind of mutation that was accepted
+    public enum Kind {
+        CREATE, UPDATE
+    }
+    
+    // Lifecycle of an accepted mutation
+    public enum Status {
+        PENDING, COMPLETED, CONFLICT, FAILED
+    }
+    
+    // Constructors
+    public AsyncOperation(Kind kind, Long studentId, Long timeBlockId) {
+        this.operationId = UUID.randomUUID().toString();
+        this.kind = kind;
+        this.studentId = studentId;
+        this.timeBlockId = timeBlockId;
+        this.submittedAt = Instant.now();
+    }
+    
+    public void complete(TimeBlockDTO result) {
+        this.result = result;
+        finish(Status.COMPLETED, null);
+    }
+    
+    public void fail(Status status, String message) {
+        finish(status, message);
+    }
+    
+    private void finish(Status status, String message) {
+        this.message = message;
+        this.completedAt = Instant.now();
+        this.status = status;
+    }
+    
+    public boolean isFinished() {
+        return status != Status.PENDING;
+    }
+    
+    // Getters
+    public String getOperationId() {
+        return operationId;
+    }
+    
+    public Kind getKind() {
+        return kind;
+    }
+    
+    public Long getStudentId() {
+        return studentId;
+    }
+    
+    public Long getTimeBlockId() {
+        return timeBlockId;
+    }
+    
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public TimeBlockDTO getResult() {
+        return result;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+}
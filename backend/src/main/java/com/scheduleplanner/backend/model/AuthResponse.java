@@ -3,7 +3,9 @@ package com.scheduleplanner.backend.model;
 public class AuthResponse {
     
     private String token;
+    private String refreshToken;
     private String tokenType = "Bearer";
+    private Long expiresIn;
     private Long studentId;
     private String email;
     private String fullName;
@@ -20,6 +22,12 @@ public class AuthResponse {
         this.username = student.getUsername();
     }
     
+    public AuthResponse(String token, String refreshToken, long expiresIn, Student student) {
+        this(token, student);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+    
     // Getters and Setters
     public String getToken() {
         return token;
@@ -29,6 +37,23 @@ public class AuthResponse {
         this.token = token;
     }
     
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    // Access token lifetime in seconds
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+    
     public String getTokenType() {
         return tokenType;
     }
@@ -0,0 +1,65 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class BatchRequest {
+    
+    @NotEmpty(message = "At least one request is required")
+    @Size(max = 20, message = "At most 20 requests can be batched")
+    private List<@Valid Item> requests;
+    
+    // One GET sub-request, e.g. {"id": "schedule", "path": "/api/timeblocks/student/1/schedule"}
+    public static class Item {
+        
+        @NotBlank(message = "Request id is required")
+        private String id;
+        
+        @NotBlank(message = "Request path is required")
+        private String path;
+        
+        // Constructors
+        public Item() {}
+        
+        public Item(String id, String path) {
+            this.id = id;
+            this.path = path;
+        }
+        
+        // Getters and Setters
+        public String getId() {
+            return id;
+        }
+        
+        public void setId(String id) {
+            this.id = id;
+        }
+        
+        public String getPath() {
+            return path;
+        }
+        
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+    
+    // Constructors
+    public BatchRequest() {}
+    
+    public BatchRequest(List<Item> requests) {
+        this.requests = requests;
+    }
+    
+    // Getters and Setters
+    public List<Item> getRequests() {
+        return requests;
+    }
+    
+    public void setRequests(List<Item> requests) {
+        this.requests = requests;
+    }
+}
@@ -0,0 +1,68 @@
+package com.scheduleplanner.backend.model;
+
+import java.util.List;
+
+public class BatchResponse {
+    
+    private List<Result> responses;
+    
+    // Outcome of one sub-request, with the status and body the standalone endpoint would have returned
+    public static class Result {
+        
+        private String id;
+        
+        private int status;
+        
+        private Object body;
+        
+        // Constructors
+        public Result() {}
+        
+        public Result(String id, int status, Object body) {
+            this.id = id;
+            this.status = status;
+            this.body = body;
+        }
+        
+        // Getters and Setters
+        public String getId() {
+            return id;
+        }
+        
+        public void setId(String id) {
+            this.id = id;
+        }
+        
+        public int getStatus() {
+            return status;
+        }
+        
+        public void setStatus(int status) {
+            this.status = status;
+        }
+        
+        public Object getBody() {
+            return body;
+        }
+        
+        public void setBody(Object body) {
+            this.body = body;
+        }
+    }
+    
+    // Constructors
+    public BatchResponse() {}
+    
+    public BatchResponse(List<Result> responses) {
+        this.responses = responses;
+    }
+    
+    // Getters and Setters
+    public List<Result> getResponses() {
+        return responses;
+    }
+    
+    public void setResponses(List<Result> responses) {
+        this.responses = responses;
+    }
+}
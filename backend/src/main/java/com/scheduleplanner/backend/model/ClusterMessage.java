@@ -0,0 +1,77 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "cluster_messages")
+public class ClusterMessage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "message_id")
+    private Long id;
+    
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+    
+    @Column(name = "channel", nullable = false, length = 100)
+    private String channel;
+    
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    // Constructors
+    public ClusterMessage() {}
+    
+    public ClusterMessage(String nodeId, String channel, String payload) {
+        this.nodeId = nodeId;
+        this.channel = channel;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+    
+    public String getChannel() {
+        return channel;
+    }
+    
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,97 @@
+package com.scheduleplanner.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConflictAuditReport {
+    
+    private volatile Status status = Status.RUNNING;
+    private volatile long studentsScanned;
+    private volatile long timeBlocksScanned;
+    private volatile Long lastStudentId;
+    private volatile String message;
+    private final Instant startedAt;
+    private volatile Instant finishedAt;
+    
+    private final List<ConflictPair> conflicts = new ArrayList<>();
+    
+    // Lifecycle of an audit run
+    public enum Status {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+    
+    // Constructors
+    public ConflictAuditReport() {
+        this.startedAt = Instant.now();
+    }
+    
+    // Continues a cancelled or failed run from its cursor, keeping what it already found
+    public ConflictAuditReport(ConflictAuditReport previous) {
+        this();
+        this.studentsScanned = previous.studentsScanned;
+        this.timeBlocksScanned = previous.timeBlocksScanned;
+        this.lastStudentId = previous.lastStudentId;
+        synchronized (previous) {
+            this.conflicts.addAll(previous.conflicts);
+        }
+    }
+    
+    public synchronized void recordChunk(List<ConflictPair> found, int students, int timeBlocks, Long lastStudentId) {
+        conflicts.addAll(found);
+        this.studentsScanned += students;
+        this.timeBlocksScanned += timeBlocks;
+        this.lastStudentId = lastStudentId;
+    }
+    
+    public void finish(Status status, String message) {
+        this.message = message;
+        this.finishedAt = Instant.now();
+        this.status = status;
+    }
+    
+    public synchronized List<ConflictPair> getConflicts(int offset, int limit) {
+        int from = Math.min(offset, conflicts.size());
+        int to = Math.min(from + limit, conflicts.size());
+        return new ArrayList<>(conflicts.subList(from, to));
+    }
+    
+    public synchronized int getConflictCount() {
+        return conflicts.size();
+    }
+    
+    @JsonIgnore
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+    
+    // Getters
+    public Status getStatus() {
+        return status;
+    }
+    
+    public long getStudentsScanned() {
+        return studentsScanned;
+    }
+    
+    public long getTimeBlocksScanned() {
+        return timeBlocksScanned;
+    }
+    
+    public Long getLastStudentId() {
+        return lastStudentId;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+}
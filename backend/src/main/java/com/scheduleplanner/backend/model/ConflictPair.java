@@ -0,0 +1,80 @@
+package com.scheduleplanner.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalTime;
+
+public class ConflictPair {
+    
+    private Long studentId;
+    private String day;
+    private Long firstTimeBlockId;
+    private Long secondTimeBlockId;
+    
+    // Start and end of the overlapping interval
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime overlapStart;
+    
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime overlapEnd;
+    
+    // Constructors
+    public ConflictPair() {}
+    
+    public ConflictPair(TimeBlock first, TimeBlock second) {
+        this.studentId = first.getStudentId();
+        this.day = first.getDay().name();
+        this.firstTimeBlockId = first.getTimeBlockId();
+        this.secondTimeBlockId = second.getTimeBlockId();
+        this.overlapStart = first.getStartTime().isAfter(second.getStartTime()) ? first.getStartTime() : second.getStartTime();
+        this.overlapEnd = first.getEndTime().isBefore(second.getEndTime()) ? first.getEndTime() : second.getEndTime();
+    }
+    
+    // Getters and Setters
+    public Long getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+    
+    public String getDay() {
+        return day;
+    }
+    
+    public void setDay(String day) {
+        this.day = day;
+    }
+    
+    public Long getFirstTimeBlockId() {
+        return firstTimeBlockId;
+    }
+    
+    public void setFirstTimeBlockId(Long firstTimeBlockId) {
+        this.firstTimeBlockId = firstTimeBlockId;
+    }
+    
+    public Long getSecondTimeBlockId() {
+        return secondTimeBlockId;
+    }
+    
+    public void setSecondTimeBlockId(Long secondTimeBlockId) {
+        this.secondTimeBlockId = secondTimeBlockId;
+    }
+    
+    public LocalTime getOverlapStart() {
+        return overlapStart;
+    }
+    
+    public void setOverlapStart(LocalTime overlapStart) {
+        this.overlapStart = overlapStart;
+    }
+    
+    public LocalTime getOverlapEnd() {
+        return overlapEnd;
+    }
+    
+    public void setOverlapEnd(LocalTime overlapEnd) {
+        this.overlapEnd = overlapEnd;
+    }
+}
@@ -0,0 +1,109 @@
+package com.scheduleplanner.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import java.time.LocalTime;
+import java.util.List;
+
+public class FlexibleTask {
+    
+    @NotBlank(message = "Title is required")
+    private String title;
+    
+    @NotBlank(message = "Type is required")
+    private String type;
+    
+    @Min(value = 5, message = "Duration must be at least 5 minutes")
+    @Max(value = 1440, message = "Duration must fit in a day")
+    private int durationMinutes;
+    
+    // Days the task may be placed on; empty means any day
+    private List<String> allowedDays;
+    
+    // Earliest start and latest end; defaults to the whole day
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime windowStart;
+    
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime windowEnd;
+    
+    private Integer weeks;
+    
+    private String description;
+    
+    // Constructors
+    public FlexibleTask() {}
+    
+    public FlexibleTask(String title, String type, int durationMinutes) {
+        this.title = title;
+        this.type = type;
+        this.durationMinutes = durationMinutes;
+    }
+    
+    // Getters and Setters
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+    
+    public void setDurationMinutes(int durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+    
+    public List<String> getAllowedDays() {
+        return allowedDays;
+    }
+    
+    public void setAllowedDays(List<String> allowedDays) {
+        this.allowedDays = allowedDays;
+    }
+    
+    public LocalTime getWindowStart() {
+        return windowStart;
+    }
+    
+    public void setWindowStart(LocalTime windowStart) {
+        this.windowStart = windowStart;
+    }
+    
+    public LocalTime getWindowEnd() {
+        return windowEnd;
+    }
+    
+    public void setWindowEnd(LocalTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+    
+    public Integer getWeeks() {
+        return weeks;
+    }
+    
+    public void setWeeks(Integer weeks) {
+        this.weeks = weeks;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,135 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a request made with an {@code Idempotency-Key}. While the first attempt is still
+ * running the record has no status yet; once it finishes, retries are answered from it.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord implements Persistable<String> {
+    
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String key;
+    
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(name = "response_status")
+    private Integer status;
+    
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+    
+    @Column(name = "location", length = 500)
+    private String location;
+    
+    @Lob
+    @Column(name = "body", columnDefinition = "LONGBLOB")
+    private byte[] body;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    // Assigned ids would make save() merge; a record is only ever inserted once
+    @Transient
+    private boolean newRecord = true;
+    
+    // Constructors
+    public IdempotencyRecord() {}
+    
+    public IdempotencyRecord(String key, String requestHash) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.createdAt = Instant.now();
+    }
+    
+    public boolean isCompleted() {
+        return status != null;
+    }
+    
+    public void complete(int status, String contentType, String location, byte[] body) {
+        this.status = status;
+        this.contentType = contentType;
+        this.location = location;
+        this.body = body;
+    }
+    
+    @Override
+    public String getId() {
+        return key;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newRecord = false;
+    }
+    
+    // Getters and Setters
+    public String getKey() {
+        return key;
+    }
+    
+    public void setKey(String key) {
+        this.key = key;
+    }
+    
+    public String getRequestHash() {
+        return requestHash;
+    }
+    
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+    
+    public Integer getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+    
+    public String getLocation() {
+        return location;
+    }
+    
+    public void setLocation(String location) {
+        this.location = location;
+    }
+    
+    public byte[] getBody() {
+        return body;
+    }
+    
+    public void setBody(byte[] body) {
+        this.body = body;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,46 @@
+package com.scheduleplanner.backend.model;
+
+/**
+ * One record of the change journal: a schedule event and its position. {@code nextOffset} is
+ * where the following record starts, so a consumer resumes from the last entry it processed.
+ */
+public class JournalEntry {
+    
+    private long offset;
+    private long nextOffset;
+    private ScheduleEvent event;
+    
+    // Constructors
+    public JournalEntry() {}
+    
+    public JournalEntry(long offset, long nextOffset, ScheduleEvent event) {
+        this.offset = offset;
+        this.nextOffset = nextOffset;
+        this.event = event;
+    }
+    
+    // Getters and Setters
+    public long getOffset() {
+        return offset;
+    }
+    
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+    
+    public long getNextOffset() {
+        return nextOffset;
+    }
+    
+    public void setNextOffset(long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+    
+    public ScheduleEvent getEvent() {
+        return event;
+    }
+    
+    public void setEvent(ScheduleEvent event) {
+        this.event = event;
+    }
+}
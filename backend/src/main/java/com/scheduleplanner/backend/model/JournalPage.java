@@ -0,0 +1,48 @@
+package com.scheduleplanner.backend.model;
+
+import java.util.List;
+
+/**
+ * A slice of the change journal. Continue reading from {@code nextOffset}; {@code endOffset} is the
+ * end of the durable journal when the page was read, so {@code nextOffset == endOffset} means caught up.
+ */
+public class JournalPage {
+    
+    private List<JournalEntry> entries;
+    private long nextOffset;
+    private long endOffset;
+    
+    // Constructors
+    public JournalPage() {}
+    
+    public JournalPage(List<JournalEntry> entries, long nextOffset, long endOffset) {
+        this.entries = entries;
+        this.nextOffset = nextOffset;
+        this.endOffset = endOffset;
+    }
+    
+    // Getters and Setters
+    public List<JournalEntry> getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(List<JournalEntry> entries) {
+        this.entries = entries;
+    }
+    
+    public long getNextOffset() {
+        return nextOffset;
+    }
+    
+    public void setNextOffset(long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+    
+    public long getEndOffset() {
+        return endOffset;
+    }
+    
+    public void setEndOffset(long endOffset) {
+        this.endOffset = endOffset;
+    }
+}
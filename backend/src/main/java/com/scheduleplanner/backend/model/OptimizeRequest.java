@@ -0,0 +1,29 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class OptimizeRequest {
+    
+    @NotEmpty(message = "At least one task is required")
+    @Size(max = 50, message = "At most 50 tasks can be optimized at once")
+    private List<@Valid FlexibleTask> tasks;
+    
+    // Constructors
+    public OptimizeRequest() {}
+    
+    public OptimizeRequest(List<FlexibleTask> tasks) {
+        this.tasks = tasks;
+    }
+    
+    // Getters and Setters
+    public List<FlexibleTask> getTasks() {
+        return tasks;
+    }
+    
+    public void setTasks(List<FlexibleTask> tasks) {
+        this.tasks = tasks;
+    }
+}
@@ -0,0 +1,60 @@
+package com.scheduleplanner.backend.model;
+
+import java.util.List;
+
+public class OptimizeResponse {
+    
+    // Proposed, not yet saved, time blocks for the tasks that could be placed
+    private List<TimeBlockDTO> placements;
+    
+    // Titles of tasks that did not fit anywhere
+    private List<String> unplaced;
+    
+    // False when the time limit was hit before the search space was exhausted
+    private boolean complete;
+    
+    private long elapsedMs;
+    
+    // Constructors
+    public OptimizeResponse() {}
+    
+    public OptimizeResponse(List<TimeBlockDTO> placements, List<String> unplaced, boolean complete, long elapsedMs) {
+        this.placements = placements;
+        this.unplaced = unplaced;
+        this.complete = complete;
+        this.elapsedMs = elapsedMs;
+    }
+    
+    // Getters and Setters
+    public List<TimeBlockDTO> getPlacements() {
+        return placements;
+    }
+    
+    public void setPlacements(List<TimeBlockDTO> placements) {
+        this.placements = placements;
+    }
+    
+    public List<String> getUnplaced() {
+        return unplaced;
+    }
+    
+    public void setUnplaced(List<String> unplaced) {
+        this.unplaced = unplaced;
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+    
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+    
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+}
@@ -0,0 +1,25 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class RefreshRequest {
+    
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+    
+    // Constructors
+    public RefreshRequest() {}
+    
+    public RefreshRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    // Getters and Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
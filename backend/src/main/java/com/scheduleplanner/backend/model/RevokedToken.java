@@ -0,0 +1,66 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "revocation_id")
+    private Long id;
+    
+    // Unique so two nodes rotating the same refresh token cannot both succeed
+    @Column(name = "jti", nullable = false, unique = true, length = 36)
+    private String jti;
+    
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    // Constructors
+    public RevokedToken() {}
+    
+    public RevokedToken(String jti, Instant expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+        this.createdAt = Instant.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getJti() {
+        return jti;
+    }
+    
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
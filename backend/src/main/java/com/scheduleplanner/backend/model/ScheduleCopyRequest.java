@@ -0,0 +1,78 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import java.util.List;
+import java.util.Map;
+
+public class ScheduleCopyRequest {
+    
+    public enum ConflictPolicy {
+        // Copy regardless of existing blocks
+        IGNORE,
+        // Copy nothing if any target has an overlapping block
+        REJECT,
+        // Leave out the targets that have an overlapping block
+        SKIP
+    }
+    
+    // Clone: students that receive a copy of the template student's schedule
+    private List<Long> targetStudentIds;
+    
+    // Rollover: source student id -> student receiving the copy
+    private Map<Long, Long> studentMapping;
+    
+    // Replaces the weeks of every copied block when set
+    @Min(value = 1, message = "Weeks must be at least 1")
+    private Integer weeks;
+    
+    // Type -> color for the copies; other types keep the source color
+    private Map<@NotBlank String, @Pattern(regexp = "^#[0-9A-Fa-f]{6}$", message = "Color must be a hex value like #1E88E5") String> colors;
+    
+    private ConflictPolicy onConflict = ConflictPolicy.REJECT;
+    
+    // Constructors
+    public ScheduleCopyRequest() {}
+    
+    // Getters and Setters
+    public List<Long> getTargetStudentIds() {
+        return targetStudentIds;
+    }
+    
+    public void setTargetStudentIds(List<Long> targetStudentIds) {
+        this.targetStudentIds = targetStudentIds;
+    }
+    
+    public Map<Long, Long> getStudentMapping() {
+        return studentMapping;
+    }
+    
+    public void setStudentMapping(Map<Long, Long> studentMapping) {
+        this.studentMapping = studentMapping;
+    }
+    
+    public Integer getWeeks() {
+        return weeks;
+    }
+    
+    public void setWeeks(Integer weeks) {
+        this.weeks = weeks;
+    }
+    
+    public Map<String, String> getColors() {
+        return colors;
+    }
+    
+    public void setColors(Map<String, String> colors) {
+        this.colors = colors;
+    }
+    
+    public ConflictPolicy getOnConflict() {
+        return onConflict;
+    }
+    
+    public void setOnConflict(ConflictPolicy onConflict) {
+        this.onConflict = onConflict;
+    }
+}
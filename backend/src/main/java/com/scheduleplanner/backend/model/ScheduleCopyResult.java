@@ -0,0 +1,57 @@
+package com.scheduleplanner.backend.model;
+
+import java.util.List;
+
+public class ScheduleCopyResult {
+    
+    private int copiedTimeBlocks;
+    private int targetStudents;
+    private List<Long> skippedStudentIds;
+    
+    // Existing target block first, source block second
+    private List<ConflictPair> conflicts;
+    
+    // Constructors
+    public ScheduleCopyResult() {}
+    
+    public ScheduleCopyResult(int copiedTimeBlocks, int targetStudents, List<Long> skippedStudentIds,
+                              List<ConflictPair> conflicts) {
+        this.copiedTimeBlocks = copiedTimeBlocks;
+        this.targetStudents = targetStudents;
+        this.skippedStudentIds = skippedStudentIds;
+        this.conflicts = conflicts;
+    }
+    
+    // Getters and Setters
+    public int getCopiedTimeBlocks() {
+        return copiedTimeBlocks;
+    }
+    
+    public void setCopiedTimeBlocks(int copiedTimeBlocks) {
+        this.copiedTimeBlocks = copiedTimeBlocks;
+    }
+    
+    public int getTargetStudents() {
+        return targetStudents;
+    }
+    
+    public void setTargetStudents(int targetStudents) {
+        this.targetStudents = targetStudents;
+    }
+    
+    public List<Long> getSkippedStudentIds() {
+        return skippedStudentIds;
+    }
+    
+    public void setSkippedStudentIds(List<Long> skippedStudentIds) {
+        this.skippedStudentIds = skippedStudentIds;
+    }
+    
+    public List<ConflictPair> getConflicts() {
+        return conflicts;
+    }
+    
+    public void setConflicts(List<ConflictPair> conflicts) {
+        this.conflicts = conflicts;
+    }
+}
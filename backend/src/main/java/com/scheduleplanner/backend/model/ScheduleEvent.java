@@ -0,0 +1,152 @@
+package com.scheduleplanner.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public class ScheduleEvent {
+    
+    private Type type;
+    private Long studentId;
+    private Long timeBlockId;
+    private TimeBlockDTO before;
+    private TimeBlockDTO after;
+    private Instant occurredAt;
+    
+    // COPIED only: the students that received copies and how many blocks were copied in total
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> studentIds;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer copiedCount;
+    
+    // Set on events that were received from another node rather than raised here
+    @JsonIgnore
+    private boolean remote;
+    
+    // Kind of change made to a student's schedule; COPIED covers every block of one schedule copy
+    public enum Type {
+        CREATED, UPDATED, DELETED, COPIED
+    }
+    
+    // Constructors
+    public ScheduleEvent() {}
+    
+    public ScheduleEvent(Type type, Long studentId, Long timeBlockId, TimeBlockDTO before, TimeBlockDTO after) {
+        this.type = type;
+        this.studentId = studentId;
+        this.timeBlockId = timeBlockId;
+        this.before = before;
+        this.after = after;
+        this.occurredAt = Instant.now();
+    }
+    
+    public static ScheduleEvent created(TimeBlock created) {
+        return new ScheduleEvent(Type.CREATED, created.getStudentId(), created.getTimeBlockId(),
+                null, new TimeBlockDTO(created));
+    }
+    
+    public static ScheduleEvent updated(TimeBlockDTO before, TimeBlock updated) {
+        return new ScheduleEvent(Type.UPDATED, updated.getStudentId(), updated.getTimeBlockId(),
+                before, new TimeBlockDTO(updated));
+    }
+    
+    public static ScheduleEvent deleted(TimeBlock deleted) {
+        return new ScheduleEvent(Type.DELETED, deleted.getStudentId(), deleted.getTimeBlockId(),
+                new TimeBlockDTO(deleted), null);
+    }
+    
+    public static ScheduleEvent copied(Collection<Long> studentIds, int copiedCount) {
+        ScheduleEvent event = new ScheduleEvent(Type.COPIED, null, null, null, null);
+        event.studentIds = List.copyOf(studentIds);
+        event.copiedCount = copiedCount;
+        return event;
+    }
+    
+    // Students whose schedule this event changes
+    @JsonIgnore
+    public List<Long> getAffectedStudentIds() {
+        if (type == Type.COPIED) {
+            return studentIds != null ? studentIds : List.of();
+        }
+        if (before != null && before.getStudentId() != null && !before.getStudentId().equals(studentId)) {
+            return studentId != null ? List.of(before.getStudentId(), studentId) : List.of(before.getStudentId());
+        }
+        return studentId != null ? List.of(studentId) : List.of();
+    }
+    
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public Long getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+    
+    public Long getTimeBlockId() {
+        return timeBlockId;
+    }
+    
+    public void setTimeBlockId(Long timeBlockId) {
+        this.timeBlockId = timeBlockId;
+    }
+    
+    public TimeBlockDTO getBefore() {
+        return before;
+    }
+    
+    public void setBefore(TimeBlockDTO before) {
+        this.before = before;
+    }
+    
+    public TimeBlockDTO getAfter() {
+        return after;
+    }
+    
+    public void setAfter(TimeBlockDTO after) {
+        this.after = after;
+    }
+    
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+    
+    public List<Long> getStudentIds() {
+        return studentIds;
+    }
+    
+    public void setStudentIds(List<Long> studentIds) {
+        this.studentIds = studentIds;
+    }
+    
+    public Integer getCopiedCount() {
+        return copiedCount;
+    }
+    
+    public void setCopiedCount(Integer copiedCount) {
+        this.copiedCount = copiedCount;
+    }
+    
+    public boolean isRemote() {
+        return remote;
+    }
+    
+    public void setRemote(boolean remote) {
+        this.remote = remote;
+    }
+}
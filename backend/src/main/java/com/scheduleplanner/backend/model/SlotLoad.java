@@ -0,0 +1,61 @@
+package com.scheduleplanner.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalTime;
+
+public class SlotLoad {
+    
+    private String day;
+    
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime startTime;
+    
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime endTime;
+    
+    // Number of time blocks (across all students) that cover this slot
+    private long timeBlocks;
+    
+    // Constructors
+    public SlotLoad() {}
+    
+    public SlotLoad(String day, LocalTime startTime, LocalTime endTime, long timeBlocks) {
+        this.day = day;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.timeBlocks = timeBlocks;
+    }
+    
+    // Getters and Setters
+    public String getDay() {
+        return day;
+    }
+    
+    public void setDay(String day) {
+        this.day = day;
+    }
+    
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+    
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+    
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+    
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+    
+    public long getTimeBlocks() {
+        return timeBlocks;
+    }
+    
+    public void setTimeBlocks(long timeBlocks) {
+        this.timeBlocks = timeBlocks;
+    }
+}
@@ -0,0 +1,64 @@
+package com.scheduleplanner.backend.model;
+
+import com.scheduleplanner.backend.config.ShardRouter;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.OnExecutionGenerator;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.id.PostInsertIdentityPersister;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.id.insert.InsertGeneratedIdentifierDelegate;
+
+import java.lang.reflect.Member;
+
+/**
+ * Time block ids: {@link SnowflakeIds} of the node while sharding is enabled, the database's IDENTITY
+ * column otherwise. Which one is decided once, when Hibernate builds the mapping.
+ */
+public class SnowflakeIdGenerator implements IdentifierGenerator, OnExecutionGenerator {
+    
+    // Hibernate setting that carries the node's SnowflakeIds; ShardingConfig sets it while sharding is enabled
+    public static final String IDS_SETTING = "timeblocks.snowflake-ids";
+    
+    private final IdentityGenerator identity = new IdentityGenerator();
+    
+    private final transient SnowflakeIds ids;
+    
+    public SnowflakeIdGenerator(SnowflakeId annotation, Member member, CustomIdGeneratorCreationContext context) {
+        Object setting = context.getServiceRegistry().getService(ConfigurationService.class).getSettings().get(IDS_SETTING);
+        this.ids = (SnowflakeIds) setting;
+    }
+    
+    @Override
+    public boolean generatedOnExecution() {
+        return ids == null;
+    }
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        // Inserts run inside ShardRouter.onShard for the owning student's shard
+        return ids.nextId(ShardRouter.currentShard());
+    }
+    
+    @Override
+    public boolean referenceColumnsInSql(Dialect dialect) {
+        return identity.referenceColumnsInSql(dialect);
+    }
+    
+    @Override
+    public boolean writePropertyValue() {
+        return false;
+    }
+    
+    @Override
+    public String[] getReferencedColumnValues(Dialect dialect) {
+        return identity.getReferencedColumnValues(dialect);
+    }
+    
+    @Override
+    public InsertGeneratedIdentifierDelegate getGeneratedIdentifierDelegate(PostInsertIdentityPersister persister) {
+        return identity.getGeneratedIdentifierDelegate(persister);
+    }
+}
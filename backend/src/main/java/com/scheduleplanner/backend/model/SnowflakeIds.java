@@ -0,0 +1,128 @@
+package com.scheduleplanner.backend.model;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Globally unique, roughly time-ordered time block ids that carry the shard they were written to. Used while
+ * time block sharding is enabled, with one instance per application node (see ShardingConfig).
+ *
+ * Layout (53 bits, so ids stay exact as JavaScript numbers in the frontend):
+ * 31 bits of seconds since 2024-01-01 UTC, 4 shard bits, 4 node bits, 14 sequence bits.
+ * That allows 16 shards, 16 application nodes and 16384 ids per second per node.
+ *
+ * Rows written before sharding was enabled keep their IDENTITY values, which are all below {@link #MIN_ID},
+ * and live on shard 0.
+ */
+public class SnowflakeIds {
+    
+    public static final int MAX_SHARDS = 16;
+    public static final int MAX_NODES = 16;
+    
+    private static final long EPOCH_SECONDS = 1704067200L;
+    private static final int SEQUENCE_BITS = 14;
+    private static final int NODE_BITS = 4;
+    private static final int SHARD_SHIFT = SEQUENCE_BITS + NODE_BITS;
+    private static final int TIME_SHIFT = SHARD_SHIFT + 4;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    
+    // 2026-10-19 UTC, when Snowflake ids were introduced; a clock set earlier still counts from here
+    private static final long FIRST_SECOND = 88300800L;
+    
+    public static final long MIN_ID = FIRST_SECOND << TIME_SHIFT;
+    
+    private final int nodeId;
+    
+    private final LongSupplier clock;
+    
+    private long lastSecond = FIRST_SECOND;
+    
+    private long sequence = -1;
+    
+    public SnowflakeIds(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+    
+    // The clock returns epoch milliseconds; tests pass a fixed one
+    SnowflakeIds(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId >= MAX_NODES) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + (MAX_NODES - 1));
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+    
+    public static int shardOf(long id) {
+        if (id < MIN_ID) {
+            return 0;
+        }
+        return (int) ((id >>> SHARD_SHIFT) & (MAX_SHARDS - 1));
+    }
+    
+    public static int getMaxReservation() {
+        return (int) MAX_SEQUENCE + 1;
+    }
+    
+    public synchronized long nextId(int shard) {
+        checkShard(shard);
+        // Never step backwards if the wall clock does
+        long second = Math.max(lastSecond, currentSecond());
+        if (second == lastSecond) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                second = waitForNextSecond(second);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastSecond = second;
+        return id(second, shard, sequence);
+    }
+    
+    /**
+     * Reserves {@code count} consecutive ids on the shard and returns the first, so a set-based insert can
+     * number its rows itself. At most one second's sequence space can be reserved at once; when the current
+     * second has too little left the reservation moves to the next one, ahead of the clock if necessary.
+     */
+    public synchronized long reserve(int shard, int count) {
+        checkShard(shard);
+        if (count < 1 || count > getMaxReservation()) {
+            throw new IllegalArgumentException("Can reserve between 1 and " + getMaxReservation() + " ids at once");
+        }
+        long second = Math.max(lastSecond, currentSecond());
+        long first;
+        if (second != lastSecond) {
+            first = 0;
+        } else if (sequence + count <= MAX_SEQUENCE) {
+            first = sequence + 1;
+        } else {
+            second++;
+            first = 0;
+        }
+        sequence = first + count - 1;
+        lastSecond = second;
+        return id(second, shard, first);
+    }
+    
+    private long id(long second, int shard, long sequence) {
+        return (second << TIME_SHIFT) | ((long) shard << SHARD_SHIFT) | ((long) nodeId << SEQUENCE_BITS) | sequence;
+    }
+    
+    private long currentSecond() {
+        return clock.getAsLong() / 1000 - EPOCH_SECONDS;
+    }
+    
+    private long waitForNextSecond(long second) {
+        long next;
+        do {
+            Thread.onSpinWait();
+            next = currentSecond();
+        } while (next <= second);
+        return next;
+    }
+    
+    private static void checkShard(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (MAX_SHARDS - 1));
+        }
+    }
+}
@@ -4,9 +4,16 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "students")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student")
+@NaturalIdCache(region = "student-natural-id")
 public class Student {
     
     @Id
@@ -27,6 +34,7 @@ public class Student {
     @NotBlank(message = "Email is required")
     @Email(message = "Please provide a valid email")
     @Size(max = 100, message = "Email must be less than 100 characters")
+    @NaturalId
     @Column(name = "email", nullable = false, unique = true, length = 100)
     private String email;
     
@@ -3,15 +3,19 @@ package com.scheduleplanner.backend.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalTime;
 
 @Entity
 @Table(name = "time_blocks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "time-block")
 public class TimeBlock {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "time_block_id")
+    @SnowflakeId
+    @Column(name = "time_block_id", columnDefinition = "BIGINT AUTO_INCREMENT")
     private Long timeBlockId;
     
     @NotBlank(message = "Title is required")
@@ -47,6 +51,11 @@ public class TimeBlock {
     @Column(name = "student_id")
     private Long studentId;
     
+    // Optimistic lock; bumped by every update, exposed to clients as the ETag
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+    
     // Enum for days of the week to match database ENUM
     public enum DayOfWeek {
         Monday, Tuesday, Wednesday, Thursday, Friday, Saturday, Sunday
@@ -149,6 +158,14 @@ public class TimeBlock {
         this.studentId = studentId;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     // Legacy getter for backwards compatibility with existing controller
     public Long getId() {
         return timeBlockId;
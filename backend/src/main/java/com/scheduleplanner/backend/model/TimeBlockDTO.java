@@ -3,8 +3,10 @@ package com.scheduleplanner.backend.model;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.time.LocalTime;
 
+@JsonSerialize(using = TimeBlockDTOSerializer.class)
 public class TimeBlockDTO {
     
     private Long timeBlockId;
@@ -34,6 +36,8 @@ public class TimeBlockDTO {
     
     private Long studentId;
     
+    private Long version;
+    
     // Constructors
     public TimeBlockDTO() {}
     
@@ -48,9 +52,10 @@ public class TimeBlockDTO {
         this.description = timeBlock.getDescription();
         this.color = timeBlock.getColor();
         this.studentId = timeBlock.getStudentId();
+        this.version = timeBlock.getVersion();
     }
     
-    // Convert DTO to Entity
+    // Convert DTO to Entity (the version is not copied; updates take it from If-Match)
     public TimeBlock toEntity() {
         TimeBlock timeBlock = new TimeBlock();
         timeBlock.setTimeBlockId(this.timeBlockId);
@@ -149,6 +154,14 @@ public class TimeBlockDTO {
         this.studentId = studentId;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     // Legacy compatibility
     public Long getId() {
         return timeBlockId;
@@ -0,0 +1,62 @@
+package com.scheduleplanner.backend.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written serializer for {@link TimeBlockDTO}. Schedule and admin list endpoints
+ * serialize thousands of these, so the fields are written directly instead of going
+ * through bean introspection, and the time format is shared instead of resolved per property.
+ * The output is identical to the default bean serialization (including the legacy "id" property).
+ */
+public class TimeBlockDTOSerializer extends StdSerializer<TimeBlockDTO> {
+    
+    public static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    
+    public TimeBlockDTOSerializer() {
+        super(TimeBlockDTO.class);
+    }
+    
+    @Override
+    public void serialize(TimeBlockDTO dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(dto);
+        writeLong(gen, "timeBlockId", dto.getTimeBlockId());
+        gen.writeStringField("title", dto.getTitle());
+        writeTime(gen, "startTime", dto.getStartTime());
+        writeTime(gen, "endTime", dto.getEndTime());
+        gen.writeStringField("day", dto.getDay());
+        gen.writeStringField("type", dto.getType());
+        if (dto.getWeeks() != null) {
+            gen.writeNumberField("weeks", dto.getWeeks());
+        } else {
+            gen.writeNullField("weeks");
+        }
+        gen.writeStringField("description", dto.getDescription());
+        gen.writeStringField("color", dto.getColor());
+        writeLong(gen, "studentId", dto.getStudentId());
+        writeLong(gen, "version", dto.getVersion());
+        writeLong(gen, "id", dto.getId());
+        gen.writeEndObject();
+    }
+    
+    private static void writeLong(JsonGenerator gen, String name, Long value) throws IOException {
+        if (value != null) {
+            gen.writeNumberField(name, value);
+        } else {
+            gen.writeNullField(name);
+        }
+    }
+    
+    private static void writeTime(JsonGenerator gen, String name, LocalTime value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(name, TIME_FORMAT.format(value));
+        } else {
+            gen.writeNullField(name);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.persistence.*;
+
+// A color for a block type: the built-in defaults belong to student 0, custom types and overrides to one real student
+@Entity
+@Table(name = "type_colors", uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "type"}))
+public class TypeColor {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "type_color_id")
+    private Long id;
+    
+    // Never NULL: the unique key treats NULLs as distinct, so it would not stop duplicate defaults
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "type", nullable = false, length = 50)
+    private String type;
+    
+    @Column(name = "color", nullable = false, length = 7)
+    private String color;
+    
+    // Constructors
+    public TypeColor() {}
+    
+    public TypeColor(Long studentId, String type, String color) {
+        this.studentId = studentId;
+        this.type = type;
+        this.color = color;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public String getColor() {
+        return color;
+    }
+    
+    public void setColor(String color) {
+        this.color = color;
+    }
+}
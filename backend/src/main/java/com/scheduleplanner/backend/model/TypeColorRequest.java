@@ -0,0 +1,27 @@
+package com.scheduleplanner.backend.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+public class TypeColorRequest {
+    
+    @NotBlank(message = "Color is required")
+    @Pattern(regexp = "^#[0-9A-Fa-f]{6}$", message = "Color must be a hex value like #1E88E5")
+    private String color;
+    
+    // Constructors
+    public TypeColorRequest() {}
+    
+    public TypeColorRequest(String color) {
+        this.color = color;
+    }
+    
+    // Getters and Setters
+    public String getColor() {
+        return color;
+    }
+    
+    public void setColor(String color) {
+        this.color = color;
+    }
+}
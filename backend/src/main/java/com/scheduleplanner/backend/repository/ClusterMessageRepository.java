@@ -0,0 +1,26 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.ClusterMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ClusterMessageRepository extends JpaRepository<ClusterMessage, Long> {
+    
+    // Incremental poll: everything after the last id a node has seen
+    List<ClusterMessage> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+    
+    // Ids skipped by an earlier poll that may have committed since
+    List<ClusterMessage> findByIdIn(Collection<Long> ids);
+    
+    Optional<ClusterMessage> findTopByOrderByIdDesc();
+    
+    @Transactional
+    long deleteByCreatedAtBefore(Instant cutoff);
+}
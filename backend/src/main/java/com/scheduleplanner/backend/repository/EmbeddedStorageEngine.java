@@ -0,0 +1,577 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.Student;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * In-process storage for students and time blocks, used instead of MySQL when
+ * {@code timeblocks.storage.engine=embedded}.
+ *
+ * Rows live in memory in id-keyed primitive hash maps plus, per student, an array of their blocks kept
+ * in (day, start time) order, so schedule reads and overlap checks never leave the heap. Stored rows are
+ * never mutated; a write replaces the row and callers always get copies.
+ *
+ * Durability: every write is appended to a CRC-checked write-ahead log (and forced to disk when
+ * {@code fsync} is on) before it is applied. A periodic snapshot, on its own thread so a large dataset
+ * never holds up the shared scheduler, writes the whole dataset to a new file, starts a fresh log segment
+ * and deletes the older ones. Startup memory-maps the newest snapshot, replays the log segments after it
+ * and truncates a record torn by a crash. An empty engine is then filled by the
+ * {@link EmbeddedStorageMigration}, if configured, before any request can reach it.
+ *
+ * Writes are serialized by a read-write lock; unlike the JPA backend they are applied immediately and
+ * are not rolled back with a surrounding Spring transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "timeblocks.storage.engine", havingValue = "embedded")
+public class EmbeddedStorageEngine {
+    
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedStorageEngine.class);
+    
+    private static final int SNAPSHOT_MAGIC = 0x54425331; // "TBS1"
+    
+    private static final byte OP_PUT_STUDENT = 1;
+    private static final byte OP_PUT_TIME_BLOCK = 2;
+    private static final byte OP_DELETE_TIME_BLOCK = 3;
+    
+    private static final int RECORD_HEADER_BYTES = 8;
+    
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    
+    // Schedule order: day, then start time, then id for a stable order among equal starts
+    static final Comparator<TimeBlock> SCHEDULE_ORDER = Comparator.comparing(TimeBlock::getDay)
+            .thenComparing(TimeBlock::getStartTime)
+            .thenComparing(TimeBlock::getTimeBlockId);
+    
+    private static final TimeBlock[] NO_BLOCKS = new TimeBlock[0];
+    
+    @Value("${timeblocks.storage.embedded.dir:data}")
+    private String directory;
+    
+    @Value("${timeblocks.storage.embedded.fsync:true}")
+    private boolean fsync;
+    
+    @Value("${timeblocks.storage.embedded.snapshot-interval-ms:600000}")
+    private long snapshotIntervalMs;
+    
+    @Autowired(required = false)
+    private EmbeddedStorageMigration migration;
+    
+    private final ScheduledExecutorService snapshotScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "embedded-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final LongObjectHashMap<TimeBlock> timeBlocks = new LongObjectHashMap<>();
+    
+    private final LongObjectHashMap<TimeBlock[]> schedules = new LongObjectHashMap<>();
+    
+    private final LongObjectHashMap<Student> students = new LongObjectHashMap<>();
+    
+    private final Map<String, Student> studentsByEmail = new HashMap<>();
+    
+    private final Map<String, Student> studentsByUsername = new HashMap<>();
+    
+    private long lastStudentId;
+    
+    private long lastTimeBlockId;
+    
+    private long walSequence;
+    
+    private FileChannel wal;
+    
+    @PostConstruct
+    public void open() throws IOException {
+        Path dir = Path.of(directory);
+        Files.createDirectories(dir);
+        TreeMap<Long, Path> snapshots = listFiles(dir, "snapshot-", ".dat");
+        TreeMap<Long, Path> logs = listFiles(dir, "wal-", ".log");
+        
+        long snapshotSequence = 0;
+        if (!snapshots.isEmpty()) {
+            snapshotSequence = snapshots.lastKey();
+            loadSnapshot(snapshots.lastEntry().getValue());
+        }
+        
+        walSequence = Math.max(snapshotSequence, logs.isEmpty() ? 0 : logs.lastKey());
+        for (Path segment : logs.tailMap(snapshotSequence, true).values()) {
+            replay(segment);
+        }
+        wal = FileChannel.open(walPath(walSequence), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        wal.position(wal.size());
+        log.info("Embedded storage open at {}: {} students, {} time blocks", dir.toAbsolutePath(),
+                students.size(), timeBlocks.size());
+        
+        // During context startup, so the web server only starts taking requests once the import is done
+        if (migration != null) {
+            migration.migrateInto(this);
+        }
+        snapshotScheduler.scheduleWithFixedDelay(this::scheduledSnapshot, snapshotIntervalMs, snapshotIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+    
+    <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    <T> T write(Supplier<T> mutation) {
+        lock.writeLock().lock();
+        try {
+            return mutation.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Accessors below expect the caller to hold the lock (read or write)
+    
+    TimeBlock timeBlock(long id) {
+        return timeBlocks.get(id);
+    }
+    
+    TimeBlock[] schedule(Long studentId) {
+        TimeBlock[] schedule = studentId == null ? null : schedules.get(studentId);
+        return schedule != null ? schedule : NO_BLOCKS;
+    }
+    
+    LongObjectHashMap<TimeBlock> allTimeBlocks() {
+        return timeBlocks;
+    }
+    
+    long[] studentIdsWithTimeBlocks() {
+        long[] ids = schedules.keys();
+        Arrays.sort(ids);
+        return ids;
+    }
+    
+    Student studentByEmail(String email) {
+        return studentsByEmail.get(normalize(email));
+    }
+    
+    Student studentByUsername(String username) {
+        return studentsByUsername.get(normalize(username));
+    }
+    
+    long[] studentIds() {
+        long[] ids = students.keys();
+        Arrays.sort(ids);
+        return ids;
+    }
+    
+    Student student(long id) {
+        return students.get(id);
+    }
+    
+    boolean isEmpty() {
+        return read(() -> students.size() == 0 && timeBlocks.size() == 0);
+    }
+    
+    // Mutations below expect the caller to hold the write lock; they are logged before they are applied
+    
+    long nextStudentId() {
+        return lastStudentId + 1;
+    }
+    
+    long nextTimeBlockId() {
+        return lastTimeBlockId + 1;
+    }
+    
+    void putStudent(Student student) {
+        appendToLog(OP_PUT_STUDENT, out -> writeStudent(out, student));
+        applyStudent(student);
+    }
+    
+    void putTimeBlock(TimeBlock timeBlock) {
+        appendToLog(OP_PUT_TIME_BLOCK, out -> writeTimeBlock(out, timeBlock));
+        applyTimeBlock(timeBlock);
+    }
+    
+    void removeTimeBlock(long id) {
+        appendToLog(OP_DELETE_TIME_BLOCK, out -> out.writeLong(id));
+        applyRemoval(id);
+    }
+    
+    // Bulk load used by the MySQL migration: applied without logging, made durable by the snapshot that follows
+    void importRows(List<Student> importedStudents, List<TimeBlock> importedBlocks) {
+        write(() -> {
+            importedStudents.forEach(this::applyStudent);
+            importedBlocks.forEach(this::applyTimeBlock);
+            return null;
+        });
+    }
+    
+    private void applyStudent(Student student) {
+        Student previous = students.put(student.getStudentId(), student);
+        if (previous != null) {
+            studentsByEmail.remove(normalize(previous.getEmail()));
+            studentsByUsername.remove(normalize(previous.getUsername()));
+        }
+        studentsByEmail.put(normalize(student.getEmail()), student);
+        studentsByUsername.put(normalize(student.getUsername()), student);
+        lastStudentId = Math.max(lastStudentId, student.getStudentId());
+    }
+    
+    private void applyTimeBlock(TimeBlock timeBlock) {
+        TimeBlock previous = timeBlocks.put(timeBlock.getTimeBlockId(), timeBlock);
+        lastTimeBlockId = Math.max(lastTimeBlockId, timeBlock.getTimeBlockId());
+        if (previous != null) {
+            removeFromSchedule(previous);
+        }
+        if (timeBlock.getStudentId() != null) {
+            TimeBlock[] schedule = schedule(timeBlock.getStudentId());
+            int insertAt = -Arrays.binarySearch(schedule, timeBlock, SCHEDULE_ORDER) - 1;
+            TimeBlock[] updated = new TimeBlock[schedule.length + 1];
+            System.arraycopy(schedule, 0, updated, 0, insertAt);
+            updated[insertAt] = timeBlock;
+            System.arraycopy(schedule, insertAt, updated, insertAt + 1, schedule.length - insertAt);
+            schedules.put(timeBlock.getStudentId(), updated);
+        }
+    }
+    
+    private void applyRemoval(long id) {
+        TimeBlock previous = timeBlocks.remove(id);
+        if (previous != null) {
+            removeFromSchedule(previous);
+        }
+    }
+    
+    private void removeFromSchedule(TimeBlock timeBlock) {
+        if (timeBlock.getStudentId() == null) {
+            return;
+        }
+        TimeBlock[] schedule = schedule(timeBlock.getStudentId());
+        int index = Arrays.binarySearch(schedule, timeBlock, SCHEDULE_ORDER);
+        if (index < 0) {
+            return;
+        }
+        if (schedule.length == 1) {
+            schedules.remove(timeBlock.getStudentId());
+            return;
+        }
+        TimeBlock[] updated = new TimeBlock[schedule.length - 1];
+        System.arraycopy(schedule, 0, updated, 0, index);
+        System.arraycopy(schedule, index + 1, updated, index, schedule.length - index - 1);
+        schedules.put(timeBlock.getStudentId(), updated);
+    }
+    
+    // Write-ahead log
+    
+    private void appendToLog(byte op, RecordWriter body) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(op);
+            body.write(out);
+            byte[] payload = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+            record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+            while (record.hasRemaining()) {
+                wal.write(record);
+            }
+            if (fsync) {
+                wal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the embedded storage log", e);
+        }
+    }
+    
+    private void replay(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int position = 0;
+            int applied = 0;
+            while (position + RECORD_HEADER_BYTES <= buffer.limit()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + RECORD_HEADER_BYTES + length > buffer.limit()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(position + RECORD_HEADER_BYTES, payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    break;
+                }
+                applyRecord(ByteBuffer.wrap(payload));
+                position += RECORD_HEADER_BYTES + length;
+                applied++;
+            }
+            if (position < channel.size()) {
+                log.warn("Truncating torn record at byte {} of {}", position, file);
+                channel.truncate(position);
+            }
+            log.debug("Replayed {} records from {}", applied, file);
+        }
+    }
+    
+    private void applyRecord(ByteBuffer record) {
+        byte op = record.get();
+        switch (op) {
+            case OP_PUT_STUDENT -> applyStudent(readStudent(record));
+            case OP_PUT_TIME_BLOCK -> applyTimeBlock(readTimeBlock(record));
+            case OP_DELETE_TIME_BLOCK -> applyRemoval(record.getLong());
+            default -> throw new IllegalStateException("Unknown embedded storage log operation " + op);
+        }
+    }
+    
+    // Snapshots
+    
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            // The log still holds every write; an exception would cancel the periodic task
+            log.warn("Embedded storage snapshot failed", e);
+        }
+    }
+    
+    /**
+     * Writes the whole dataset to a new snapshot and drops the log segments it covers. Only the switch
+     * to a new log segment happens under the write lock; rows are immutable, so the copy is written
+     * while requests continue.
+     */
+    public synchronized void snapshot() {
+        List<Student> studentRows = new ArrayList<>();
+        List<TimeBlock> timeBlockRows = new ArrayList<>();
+        long sequence;
+        lock.writeLock().lock();
+        try {
+            students.forEachValue(studentRows::add);
+            timeBlocks.forEachValue(timeBlockRows::add);
+            sequence = walSequence + 1;
+            FileChannel next = FileChannel.open(walPath(sequence), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            wal.close();
+            wal = next;
+            walSequence = sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start a new embedded storage log segment", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Path dir = Path.of(directory);
+        Path target = dir.resolve(String.format("snapshot-%020d.dat", sequence));
+        Path temporary = dir.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            OutputStream stream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(stream, 1 << 16), crc));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(studentRows.size());
+            for (Student student : studentRows) {
+                writeStudent(out, student);
+            }
+            out.writeInt(timeBlockRows.size());
+            for (TimeBlock timeBlock : timeBlockRows) {
+                writeTimeBlock(out, timeBlock);
+            }
+            out.flush();
+            // The checksum covers everything before it
+            new DataOutputStream(stream).writeLong(crc.getValue());
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write embedded storage snapshot", e);
+        }
+        
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            for (Path old : listFiles(dir, "snapshot-", ".dat").headMap(sequence).values()) {
+                Files.deleteIfExists(old);
+            }
+            for (Path old : listFiles(dir, "wal-", ".log").headMap(sequence).values()) {
+                Files.deleteIfExists(old);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not install embedded storage snapshot", e);
+        }
+        log.info("Embedded storage snapshot {} written: {} students, {} time blocks",
+                sequence, studentRows.size(), timeBlockRows.size());
+    }
+    
+    private void loadSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int contentLength = buffer.limit() - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, contentLength));
+            if (crc.getValue() != buffer.getLong(contentLength) || buffer.getInt(0) != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Embedded storage snapshot " + file + " is corrupt");
+            }
+            buffer.position(Integer.BYTES);
+            for (int i = buffer.getInt(); i > 0; i--) {
+                applyStudent(readStudent(buffer));
+            }
+            for (int i = buffer.getInt(); i > 0; i--) {
+                applyTimeBlock(readTimeBlock(buffer));
+            }
+        }
+    }
+    
+    // A final snapshot keeps the next startup from replaying the whole log
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        snapshotScheduler.shutdown();
+        snapshotScheduler.awaitTermination(30, TimeUnit.SECONDS);
+        snapshot();
+        lock.writeLock().lock();
+        try {
+            wal.force(true);
+            wal.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Binary row format
+    
+    private static void writeStudent(DataOutput out, Student student) throws IOException {
+        out.writeLong(student.getStudentId());
+        writeString(out, student.getFullName());
+        writeString(out, student.getUsername());
+        writeString(out, student.getEmail());
+        writeString(out, student.getPasswordHash());
+    }
+    
+    private static Student readStudent(ByteBuffer in) {
+        Student student = new Student();
+        student.setStudentId(in.getLong());
+        student.setFullName(readString(in));
+        student.setUsername(readString(in));
+        student.setEmail(readString(in));
+        student.setPasswordHash(readString(in));
+        return student;
+    }
+    
+    private static void writeTimeBlock(DataOutput out, TimeBlock timeBlock) throws IOException {
+        out.writeLong(timeBlock.getTimeBlockId());
+        out.writeLong(timeBlock.getVersion() != null ? timeBlock.getVersion() : 0L);
+        out.writeLong(timeBlock.getStudentId() != null ? timeBlock.getStudentId() : Long.MIN_VALUE);
+        writeString(out, timeBlock.getTitle());
+        out.writeInt(timeBlock.getStartTime().toSecondOfDay());
+        out.writeInt(timeBlock.getEndTime().toSecondOfDay());
+        out.writeByte(timeBlock.getDay().ordinal());
+        writeString(out, timeBlock.getType());
+        out.writeInt(timeBlock.getWeeks() != null ? timeBlock.getWeeks() : Integer.MIN_VALUE);
+        writeString(out, timeBlock.getDescription());
+        writeString(out, timeBlock.getColor());
+    }
+    
+    private static TimeBlock readTimeBlock(ByteBuffer in) {
+        TimeBlock timeBlock = new TimeBlock();
+        timeBlock.setTimeBlockId(in.getLong());
+        timeBlock.setVersion(in.getLong());
+        long studentId = in.getLong();
+        timeBlock.setStudentId(studentId != Long.MIN_VALUE ? studentId : null);
+        timeBlock.setTitle(readString(in));
+        timeBlock.setStartTime(LocalTime.ofSecondOfDay(in.getInt()));
+        timeBlock.setEndTime(LocalTime.ofSecondOfDay(in.getInt()));
+        timeBlock.setDay(DAYS[in.get()]);
+        timeBlock.setType(readString(in));
+        int weeks = in.getInt();
+        timeBlock.setWeeks(weeks != Integer.MIN_VALUE ? weeks : null);
+        timeBlock.setDescription(readString(in));
+        timeBlock.setColor(readString(in));
+        return timeBlock;
+    }
+    
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private Path walPath(long sequence) {
+        return Path.of(directory, String.format("wal-%020d.log", sequence));
+    }
+    
+    private static TreeMap<Long, Path> listFiles(Path dir, String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> list = Files.list(dir)) {
+            list.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(suffix)) {
+                    files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), file);
+                }
+            });
+        }
+        return files;
+    }
+    
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutput out) throws IOException;
+    }
+}
@@ -0,0 +1,75 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.Student;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off copy of {@code students} and {@code time_blocks} from MySQL into the embedded engine, run by
+ * the engine as it opens when {@code timeblocks.storage.embedded.migrate-from.url} is set. It only imports
+ * into an empty engine, so leaving the property set after the first start is harmless; the result is
+ * written straight to a snapshot.
+ */
+@Component
+@ConditionalOnExpression("'${timeblocks.storage.engine:jpa}' == 'embedded' " +
+        "&& '${timeblocks.storage.embedded.migrate-from.url:}' != ''")
+public class EmbeddedStorageMigration {
+    
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedStorageMigration.class);
+    
+    @Value("${timeblocks.storage.embedded.migrate-from.url}")
+    private String url;
+    
+    @Value("${timeblocks.storage.embedded.migrate-from.username:}")
+    private String username;
+    
+    @Value("${timeblocks.storage.embedded.migrate-from.password:}")
+    private String password;
+    
+    @Value("${timeblocks.storage.embedded.migrate-from.fetch-size:1000}")
+    private int fetchSize;
+    
+    void migrateInto(EmbeddedStorageEngine engine) {
+        if (!engine.isEmpty()) {
+            log.info("Embedded storage already holds data; skipping migration from {}", url);
+            return;
+        }
+        
+        JdbcTemplate source = new JdbcTemplate(new DriverManagerDataSource(url, username, password));
+        source.setFetchSize(fetchSize);
+        
+        List<Student> students = new ArrayList<>();
+        source.query("SELECT student_id, full_name, username, email, password_hash FROM students", rs -> {
+            Student student = new Student(rs.getString("full_name"), rs.getString("username"),
+                    rs.getString("email"), rs.getString("password_hash"));
+            student.setStudentId(rs.getLong("student_id"));
+            students.add(student);
+        });
+        
+        List<TimeBlock> timeBlocks = new ArrayList<>();
+        source.query("SELECT time_block_id, title, start_time, end_time, day, type, weeks, description, color, " +
+                "student_id, version FROM time_blocks", rs -> {
+            TimeBlock timeBlock = new TimeBlock(rs.getString("title"), rs.getTime("start_time").toLocalTime(),
+                    rs.getTime("end_time").toLocalTime(), DayOfWeek.valueOf(rs.getString("day")),
+                    rs.getString("type"), rs.getObject("weeks", Integer.class), rs.getString("description"),
+                    rs.getString("color"), rs.getObject("student_id", Long.class));
+            timeBlock.setTimeBlockId(rs.getLong("time_block_id"));
+            timeBlock.setVersion(rs.getLong("version"));
+            timeBlocks.add(timeBlock);
+        });
+        
+        engine.importRows(students, timeBlocks);
+        engine.snapshot();
+        log.info("Migrated {} students and {} time blocks from {}", students.size(), timeBlocks.size(), url);
+    }
+}
@@ -0,0 +1,103 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.Student;
+import com.scheduleplanner.backend.repository.StudentRepository.Handles;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Students in the {@link EmbeddedStorageEngine}. Email and username lookups are case-insensitive,
+ * matching the default MySQL collation of the {@code students} table.
+ */
+@Repository
+@ConditionalOnProperty(name = "timeblocks.storage.engine", havingValue = "embedded")
+public class EmbeddedStudentStore implements StudentStore {
+    
+    @Autowired
+    private EmbeddedStorageEngine engine;
+    
+    @Override
+    public Optional<Student> findByEmail(String email) {
+        return engine.read(() -> Optional.ofNullable(engine.studentByEmail(email)).map(EmbeddedStudentStore::copy));
+    }
+    
+    @Override
+    public Optional<Student> findByUsername(String username) {
+        return engine.read(() -> Optional.ofNullable(engine.studentByUsername(username)).map(EmbeddedStudentStore::copy));
+    }
+    
+    @Override
+    public boolean existsByEmail(String email) {
+        return engine.read(() -> engine.studentByEmail(email) != null);
+    }
+    
+    @Override
+    public boolean existsByUsername(String username) {
+        return engine.read(() -> engine.studentByUsername(username) != null);
+    }
+    
+    @Override
+    public Student insert(Student student) {
+        return engine.write(() -> {
+            if (engine.studentByEmail(student.getEmail()) != null || engine.studentByUsername(student.getUsername()) != null) {
+                throw new DataIntegrityViolationException("Duplicate email or username");
+            }
+            Student stored = copy(student);
+            stored.setStudentId(engine.nextStudentId());
+            engine.putStudent(stored);
+            return copy(stored);
+        });
+    }
+    
+    @Override
+    public List<Handles> findHandlesAfter(Long afterStudentId, int limit) {
+        return engine.read(() -> {
+            List<Handles> page = new ArrayList<>();
+            for (long studentId : engine.studentIds()) {
+                if (studentId > afterStudentId && page.size() < limit) {
+                    page.add(new StudentHandles(engine.student(studentId)));
+                }
+            }
+            return page;
+        });
+    }
+    
+    private static Student copy(Student source) {
+        Student copy = new Student(source.getFullName(), source.getUsername(), source.getEmail(), source.getPasswordHash());
+        copy.setStudentId(source.getStudentId());
+        return copy;
+    }
+    
+    private static class StudentHandles implements Handles {
+        private final Long studentId;
+        private final String email;
+        private final String username;
+        
+        private StudentHandles(Student student) {
+            this.studentId = student.getStudentId();
+            this.email = student.getEmail();
+            this.username = student.getUsername();
+        }
+        
+        @Override
+        public Long getStudentId() {
+            return studentId;
+        }
+        
+        @Override
+        public String getEmail() {
+            return email;
+        }
+        
+        @Override
+        public String getUsername() {
+            return username;
+        }
+    }
+}
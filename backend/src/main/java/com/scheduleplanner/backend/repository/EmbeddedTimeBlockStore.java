@@ -0,0 +1,253 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Time blocks in the {@link EmbeddedStorageEngine}. Student-scoped queries read the student's
+ * schedule array, which is already in (day, start time) order; the few campus-wide queries scan.
+ */
+@Repository
+@ConditionalOnProperty(name = "timeblocks.storage.engine", havingValue = "embedded")
+public class EmbeddedTimeBlockStore implements TimeBlockStore {
+    
+    @Autowired
+    private EmbeddedStorageEngine engine;
+    
+    @Override
+    public List<TimeBlock> findAll() {
+        return scan(timeBlock -> true);
+    }
+    
+    @Override
+    public Optional<TimeBlock> findById(Long id) {
+        return engine.read(() -> Optional.ofNullable(engine.timeBlock(id)).map(EmbeddedTimeBlockStore::copy));
+    }
+    
+    // Nothing is cached in front of the engine
+    @Override
+    public Optional<TimeBlock> findCurrentById(Long id) {
+        return findById(id);
+    }
+    
+    @Override
+    public List<TimeBlock> findByDay(DayOfWeek day) {
+        return scan(timeBlock -> timeBlock.getDay() == day);
+    }
+    
+    @Override
+    public List<TimeBlock> findByType(String type) {
+        return scan(timeBlock -> Objects.equals(timeBlock.getType(), type));
+    }
+    
+    @Override
+    public List<TimeBlock> findByStudentId(Long studentId) {
+        return fromSchedule(studentId, timeBlock -> true);
+    }
+    
+    @Override
+    public List<TimeBlock> findByStudentIdAndDay(Long studentId, DayOfWeek day) {
+        return fromSchedule(studentId, timeBlock -> timeBlock.getDay() == day);
+    }
+    
+    @Override
+    public List<TimeBlock> findByStudentIdAndType(Long studentId, String type) {
+        return fromSchedule(studentId, timeBlock -> Objects.equals(timeBlock.getType(), type));
+    }
+    
+    @Override
+    public List<TimeBlock> findTimeBlocksForScheduleView(Long studentId) {
+        return fromSchedule(studentId, timeBlock -> true);
+    }
+    
+    @Override
+    public List<TimeBlock> findOverlappingTimeBlocksForStudent(Long studentId, DayOfWeek day,
+                                                               LocalTime startTime, LocalTime endTime) {
+        return fromSchedule(studentId, timeBlock -> timeBlock.getDay() == day && overlaps(timeBlock, startTime, endTime));
+    }
+    
+    @Override
+    public List<TimeBlock> findOverlappingTimeBlocks(DayOfWeek day, LocalTime startTime, LocalTime endTime) {
+        return scan(timeBlock -> timeBlock.getDay() == day && overlaps(timeBlock, startTime, endTime));
+    }
+    
+    @Override
+    public List<Long> findStudentIdsAfter(Long afterStudentId, int limit) {
+        return engine.read(() -> {
+            List<Long> studentIds = new ArrayList<>();
+            for (long studentId : engine.studentIdsWithTimeBlocks()) {
+                if (studentId > afterStudentId && studentIds.size() < limit) {
+                    studentIds.add(studentId);
+                }
+            }
+            return studentIds;
+        });
+    }
+    
+    @Override
+    public List<TimeBlock> findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(Collection<Long> studentIds) {
+        return engine.read(() -> {
+            List<TimeBlock> timeBlocks = new ArrayList<>();
+            for (Long studentId : new TreeSet<>(studentIds)) {
+                for (TimeBlock timeBlock : engine.schedule(studentId)) {
+                    timeBlocks.add(copy(timeBlock));
+                }
+            }
+            return timeBlocks;
+        });
+    }
+    
+    @Override
+    public TimeBlock save(TimeBlock timeBlock) {
+        return engine.write(() -> {
+            TimeBlock stored = copy(timeBlock);
+            if (stored.getTimeBlockId() == null) {
+                stored.setTimeBlockId(engine.nextTimeBlockId());
+                stored.setVersion(0L);
+            } else {
+                TimeBlock current = engine.timeBlock(stored.getTimeBlockId());
+                long currentVersion = current != null ? current.getVersion() : -1L;
+                if (stored.getVersion() != null && stored.getVersion() != currentVersion) {
+                    throw new ObjectOptimisticLockingFailureException(TimeBlock.class, stored.getTimeBlockId());
+                }
+                stored.setVersion(currentVersion + 1);
+            }
+            engine.putTimeBlock(stored);
+            return copy(stored);
+        });
+    }
+    
+    @Override
+    public void delete(TimeBlock timeBlock) {
+        engine.write(() -> {
+            engine.removeTimeBlock(timeBlock.getTimeBlockId());
+            return null;
+        });
+    }
+    
+    @Override
+    public int updateInPlace(Long id, TimeBlock details, Long version) {
+        return engine.write(() -> {
+            TimeBlock current = engine.timeBlock(id);
+            if (current == null || !current.getVersion().equals(version)) {
+                return 0;
+            }
+            TimeBlock updated = copy(details);
+            updated.setTimeBlockId(id);
+            updated.setVersion(version + 1);
+            engine.putTimeBlock(updated);
+            return 1;
+        });
+    }
+    
+    @Override
+    public int deleteInPlace(Long id, Long version) {
+        return engine.write(() -> {
+            TimeBlock current = engine.timeBlock(id);
+            if (current == null || !current.getVersion().equals(version)) {
+                return 0;
+            }
+            engine.removeTimeBlock(id);
+            return 1;
+        });
+    }
+    
+    @Override
+    public List<TimeBlock> copySchedules(Map<Long, Long> sourceByTarget, Integer weeks, Map<String, String> colorsByType,
+                                         CopyFilter filter) {
+        return engine.write(() -> {
+            // The write lock excludes every other writer, so the filter's view cannot change before the copy
+            Map<Long, Long> pairs = sourceByTarget;
+            if (filter != null) {
+                pairs = new LinkedHashMap<>(sourceByTarget);
+                pairs.keySet().removeAll(filter.excludedTargets(sourceByTarget, schedules(sourceByTarget.values()),
+                        schedules(sourceByTarget.keySet())));
+            }
+            List<TimeBlock> copies = new ArrayList<>();
+            long[] nextId = {engine.nextTimeBlockId()};
+            pairs.forEach((target, source) -> {
+                for (TimeBlock template : engine.schedule(source)) {
+                    TimeBlock copy = copy(template);
+                    copy.setTimeBlockId(nextId[0]++);
+                    copy.setVersion(0L);
+                    copy.setStudentId(target);
+                    if (weeks != null) {
+                        copy.setWeeks(weeks);
+                    }
+                    copy.setColor(colorsByType.getOrDefault(template.getType(), template.getColor()));
+                    copies.add(copy);
+                }
+            });
+            // Appended after the loop so a target that is also a source is copied from its original schedule
+            copies.forEach(engine::putTimeBlock);
+            return copies.stream().map(EmbeddedTimeBlockStore::copy).toList();
+        });
+    }
+    
+    // Caller holds the engine lock
+    private Map<Long, List<TimeBlock>> schedules(Collection<Long> studentIds) {
+        Map<Long, List<TimeBlock>> schedules = new HashMap<>();
+        for (Long studentId : studentIds) {
+            schedules.computeIfAbsent(studentId, key -> Arrays.stream(engine.schedule(key)).map(EmbeddedTimeBlockStore::copy).toList());
+        }
+        return schedules;
+    }
+    
+    private List<TimeBlock> fromSchedule(Long studentId, Predicate<TimeBlock> filter) {
+        return engine.read(() -> {
+            List<TimeBlock> timeBlocks = new ArrayList<>();
+            for (TimeBlock timeBlock : engine.schedule(studentId)) {
+                if (filter.test(timeBlock)) {
+                    timeBlocks.add(copy(timeBlock));
+                }
+            }
+            return timeBlocks;
+        });
+    }
+    
+    private List<TimeBlock> scan(Predicate<TimeBlock> filter) {
+        return engine.read(() -> {
+            List<TimeBlock> timeBlocks = new ArrayList<>();
+            engine.allTimeBlocks().forEachValue(timeBlock -> {
+                if (filter.test(timeBlock)) {
+                    timeBlocks.add(copy(timeBlock));
+                }
+            });
+            return timeBlocks;
+        });
+    }
+    
+    // Same predicate as TimeBlockRepository's overlap queries
+    private static boolean overlaps(TimeBlock timeBlock, LocalTime startTime, LocalTime endTime) {
+        LocalTime start = timeBlock.getStartTime();
+        LocalTime end = timeBlock.getEndTime();
+        return (!start.isAfter(startTime) && end.isAfter(startTime))
+                || (start.isBefore(endTime) && !end.isBefore(endTime))
+                || (!start.isBefore(startTime) && !end.isAfter(endTime));
+    }
+    
+    static TimeBlock copy(TimeBlock source) {
+        TimeBlock copy = new TimeBlock(source.getTitle(), source.getStartTime(), source.getEndTime(), source.getDay(),
+                source.getType(), source.getWeeks(), source.getDescription(), source.getColor(), source.getStudentId());
+        copy.setTimeBlockId(source.getTimeBlockId());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+}
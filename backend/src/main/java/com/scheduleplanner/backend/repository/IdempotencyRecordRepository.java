@@ -0,0 +1,15 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    @Transactional
+    long deleteByCreatedAtBefore(Instant cutoff);
+}
@@ -0,0 +1,50 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.Student;
+import com.scheduleplanner.backend.repository.StudentRepository.Handles;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@ConditionalOnProperty(name = "timeblocks.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaStudentStore implements StudentStore {
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    // Served from the natural-id cache
+    @Override
+    public Optional<Student> findByEmail(String email) {
+        return studentRepository.findByNaturalEmail(email);
+    }
+    
+    @Override
+    public Optional<Student> findByUsername(String username) {
+        return studentRepository.findByUsername(username);
+    }
+    
+    @Override
+    public boolean existsByEmail(String email) {
+        return studentRepository.existsByEmail(email);
+    }
+    
+    @Override
+    public boolean existsByUsername(String username) {
+        return studentRepository.existsByUsername(username);
+    }
+    
+    @Override
+    public Student insert(Student student) {
+        return studentRepository.saveAndFlush(student);
+    }
+    
+    @Override
+    public List<Handles> findHandlesAfter(Long afterStudentId, int limit) {
+        return studentRepository.findHandlesAfter(afterStudentId, PageRequest.ofSize(limit));
+    }
+}
@@ -0,0 +1,143 @@
+package com.scheduleplanner.backend.repository;
+
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys, so the embedded engine's id indexes hold
+ * no boxed keys or entry objects. Linear probing with backward-shift deletion; not thread-safe.
+ */
+final class LongObjectHashMap<V> {
+    
+    private static final float LOAD_FACTOR = 0.6f;
+    
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeAt;
+    
+    LongObjectHashMap() {
+        allocate(64);
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+    
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+    
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                shiftBack(slot, mask);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+    
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+    
+    long[] keys() {
+        long[] result = new long[size];
+        int i = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                result[i++] = keys[slot];
+            }
+        }
+        return result;
+    }
+    
+    void clear() {
+        allocate(64);
+    }
+    
+    // Moves later entries of the probe run back into the hole so lookups never stop early
+    private void shiftBack(int hole, int mask) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = slot(keys[slot], mask);
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        values[hole] = null;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i], mask);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        size = 0;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+    
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,19 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    
+    // Startup load, and the incremental poll that picks up other nodes' revocations
+    List<RevokedToken> findTop1000ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(Long id, Instant now);
+    
+    @Transactional
+    long deleteByExpiresAtBefore(Instant cutoff);
+}
@@ -0,0 +1,416 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.config.ShardRouter;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import com.scheduleplanner.backend.model.SnowflakeIds;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Shard-aware access to time blocks. Student-scoped queries go to the student's shard, lookups by id
+ * go to the shard encoded in the id, and cross-student queries are scatter-gathered over all shards.
+ *
+ * Writes are flushed inside the shard scope: with sharding, ids are Snowflake ids rather than IDENTITY
+ * values, so Hibernate would otherwise defer the INSERT to commit, after the shard selection has been cleared.
+ */
+@Repository
+@ConditionalOnProperty(name = "timeblocks.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class ShardedTimeBlockRepository implements TimeBlockStore {
+    
+    private static final Comparator<TimeBlock> SWEEP_ORDER = Comparator.comparing(TimeBlock::getStudentId)
+            .thenComparing(TimeBlock::getDay)
+            .thenComparing(TimeBlock::getStartTime);
+    
+    @Autowired
+    private TimeBlockRepository timeBlockRepository;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Only while sharding is enabled; otherwise time block ids are IDENTITY values
+    @Autowired(required = false)
+    private SnowflakeIds snowflakeIds;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Students per INSERT ... SELECT statement of a schedule copy
+    @Value("${timeblocks.copy.statement-students:500}")
+    private int copyStatementStudents;
+    
+    // Students per query when a copy loads schedules for its conflict check
+    @Value("${timeblocks.copy.chunk-size:1000}")
+    private int copyChunkSize;
+    
+    @Override
+    public List<TimeBlock> findAll() {
+        return shardRouter.scatter(shard -> timeBlockRepository.findAll());
+    }
+    
+    @Override
+    public Optional<TimeBlock> findById(Long id) {
+        return shardRouter.onShard(shardRouter.shardForTimeBlock(id), () -> timeBlockRepository.findById(id));
+    }
+    
+    // Pending changes are flushed and the persistence context cleared, as before a bulk statement, so the read
+    // cannot return a managed copy; the second-level cache entry is evicted so it cannot answer either
+    @Override
+    public Optional<TimeBlock> findCurrentById(Long id) {
+        return shardRouter.onShard(shardRouter.shardForTimeBlock(id), () -> {
+            entityManager.flush();
+            entityManager.clear();
+            evictCached(id);
+            return timeBlockRepository.findById(id);
+        });
+    }
+    
+    @Override
+    public List<TimeBlock> findByDay(DayOfWeek day) {
+        return shardRouter.scatter(shard -> timeBlockRepository.findByDay(day));
+    }
+    
+    @Override
+    public List<TimeBlock> findByType(String type) {
+        return shardRouter.scatter(shard -> timeBlockRepository.findByType(type));
+    }
+    
+    @Override
+    public List<TimeBlock> findByStudentId(Long studentId) {
+        return onStudentShard(studentId, () -> timeBlockRepository.findByStudentId(studentId));
+    }
+    
+    @Override
+    public List<TimeBlock> findByStudentIdAndDay(Long studentId, DayOfWeek day) {
+        return onStudentShard(studentId, () -> timeBlockRepository.findByStudentIdAndDay(studentId, day));
+    }
+    
+    @Override
+    public List<TimeBlock> findByStudentIdAndType(Long studentId, String type) {
+        return onStudentShard(studentId, () -> timeBlockRepository.findByStudentIdAndType(studentId, type));
+    }
+    
+    @Override
+    public List<TimeBlock> findTimeBlocksForScheduleView(Long studentId) {
+        return onStudentShard(studentId, () -> timeBlockRepository.findTimeBlocksForScheduleView(studentId));
+    }
+    
+    @Override
+    public List<TimeBlock> findOverlappingTimeBlocksForStudent(Long studentId, DayOfWeek day,
+                                                               LocalTime startTime, LocalTime endTime) {
+        return onStudentShard(studentId, () ->
+                timeBlockRepository.findOverlappingTimeBlocksForStudent(studentId, day, startTime, endTime));
+    }
+    
+    @Override
+    public List<TimeBlock> findOverlappingTimeBlocks(DayOfWeek day, LocalTime startTime, LocalTime endTime) {
+        return shardRouter.scatter(shard -> timeBlockRepository.findOverlappingTimeBlocks(day, startTime, endTime));
+    }
+    
+    // Keyset page of student ids across shards: each shard returns its first page, the merge keeps the global first page
+    @Override
+    public List<Long> findStudentIdsAfter(Long afterStudentId, int limit) {
+        List<Long> studentIds = shardRouter.scatter(shard ->
+                timeBlockRepository.findStudentIdsAfter(afterStudentId, PageRequest.of(0, limit)));
+        if (shardRouter.getShardCount() == 1) {
+            return studentIds;
+        }
+        return studentIds.stream().sorted().limit(limit).toList();
+    }
+    
+    @Override
+    public List<TimeBlock> findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(Collection<Long> studentIds) {
+        if (shardRouter.getShardCount() == 1) {
+            return timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(studentIds);
+        }
+        List<TimeBlock> timeBlocks = new ArrayList<>(shardRouter.scatter(shard -> {
+            List<Long> onShard = studentIds.stream()
+                    .filter(studentId -> shardRouter.shardForStudent(studentId) == shard)
+                    .toList();
+            return onShard.isEmpty()
+                    ? List.of()
+                    : timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(onShard);
+        }));
+        timeBlocks.sort(SWEEP_ORDER);
+        return timeBlocks;
+    }
+    
+    @Override
+    public TimeBlock save(TimeBlock timeBlock) {
+        int shard = shardRouter.shardForStudent(timeBlock.getStudentId());
+        if (timeBlock.getTimeBlockId() != null && shard != shardRouter.shardForTimeBlock(timeBlock.getTimeBlockId())) {
+            throw new IllegalArgumentException("Time blocks cannot be moved to a student on another shard");
+        }
+        return shardRouter.onShard(shard, () -> timeBlockRepository.saveAndFlush(timeBlock));
+    }
+    
+    @Override
+    public void delete(TimeBlock timeBlock) {
+        shardRouter.onShard(shardRouter.shardForTimeBlock(timeBlock.getTimeBlockId()), () -> {
+            timeBlockRepository.delete(timeBlock);
+            timeBlockRepository.flush();
+            return null;
+        });
+    }
+    
+    // The statement touches one row, so only that block's second-level cache entry is evicted (see SINGLE_ROW_SPACE)
+    @Override
+    public int updateInPlace(Long id, TimeBlock details, Long version) {
+        int shard = shardRouter.shardForTimeBlock(id);
+        if (shard != shardRouter.shardForStudent(details.getStudentId())) {
+            throw new IllegalArgumentException("Time blocks cannot be moved to a student on another shard");
+        }
+        int updated = shardRouter.onShard(shard, () -> timeBlockRepository.updateInPlace(id, details, version));
+        evictCached(id);
+        return updated;
+    }
+    
+    @Override
+    public int deleteInPlace(Long id, Long version) {
+        int deleted = shardRouter.onShard(shardRouter.shardForTimeBlock(id),
+                () -> timeBlockRepository.deleteInPlace(id, version));
+        evictCached(id);
+        return deleted;
+    }
+    
+    /**
+     * Copies run per target shard, each in one transaction. When the source student is on the same shard,
+     * the rows are copied by INSERT ... SELECT statements covering many targets each; with sharding the statement
+     * numbers its rows from a reserved Snowflake id range, and the copies are read back by that range. Sources on
+     * another shard are read up front and inserted as a JDBC batch.
+     *
+     * With a filter, each shard's transaction first locks the targets' current blocks and lets the filter drop
+     * targets; a copy racing for the same targets waits for the lock instead of passing a stale check.
+     *
+     * Each shard's transaction runs the next shard's inside it, so all of them stay open until every shard has
+     * been checked and copied. A filter that throws on any shard rolls all of them back; only a failure while
+     * committing, which happens innermost first, can leave some shards copied.
+     */
+    @Override
+    public List<TimeBlock> copySchedules(Map<Long, Long> sourceByTarget, Integer weeks, Map<String, String> colorsByType,
+                                         CopyFilter filter) {
+        Map<Integer, Map<Long, Long>> pairsByShard = new TreeMap<>();
+        List<Long> remoteSources = new ArrayList<>();
+        sourceByTarget.forEach((target, source) -> {
+            int shard = shardRouter.shardForStudent(target);
+            pairsByShard.computeIfAbsent(shard, key -> new LinkedHashMap<>()).put(target, source);
+            if (shard != shardRouter.shardForStudent(source)) {
+                remoteSources.add(source);
+            }
+        });
+        // Read before any copy transaction starts: a transaction stays on the shard of its first statement
+        Map<Long, List<TimeBlock>> remoteTemplates = remoteSources.isEmpty() ? Map.of()
+                : findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(remoteSources.stream().distinct().toList())
+                        .stream().collect(Collectors.groupingBy(TimeBlock::getStudentId));
+        
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return copyOnShards(pairsByShard.entrySet().iterator(), transaction, (shard, pairs) -> {
+            Map<Long, Long> included = pairs;
+            if (filter != null) {
+                included = new LinkedHashMap<>(pairs);
+                included.keySet().removeAll(filter.excludedTargets(pairs,
+                        sourceSchedules(shard, pairs, remoteTemplates), lockedSchedules(pairs.keySet())));
+            }
+            List<TimeBlock> copied = new ArrayList<>();
+            Map<Long, Long> local = new LinkedHashMap<>();
+            List<TimeBlock> remoteCopies = new ArrayList<>();
+            included.forEach((target, source) -> {
+                if (shardRouter.shardForStudent(source) == shard) {
+                    local.put(target, source);
+                    return;
+                }
+                for (TimeBlock template : remoteTemplates.getOrDefault(source, List.of())) {
+                    remoteCopies.add(copyOf(template, target, weeks, colorsByType));
+                }
+            });
+            if (!local.isEmpty()) {
+                copied.addAll(insertSelect(shard, local, weeks, colorsByType));
+            }
+            if (!remoteCopies.isEmpty()) {
+                copied.addAll(timeBlockRepository.saveAll(remoteCopies));
+                timeBlockRepository.flush();
+            }
+            return copied;
+        });
+    }
+    
+    // Copies to the next shard in a new transaction, and to the remaining shards before that transaction ends
+    private List<TimeBlock> copyOnShards(Iterator<Map.Entry<Integer, Map<Long, Long>>> shards, TransactionTemplate transaction,
+                                         BiFunction<Integer, Map<Long, Long>, List<TimeBlock>> copyToShard) {
+        if (!shards.hasNext()) {
+            return new ArrayList<>();
+        }
+        Map.Entry<Integer, Map<Long, Long>> next = shards.next();
+        return shardRouter.onShard(next.getKey(), () -> transaction.execute(status -> {
+            List<TimeBlock> copies = new ArrayList<>(copyToShard.apply(next.getKey(), next.getValue()));
+            copies.addAll(copyOnShards(shards, transaction, copyToShard));
+            return copies;
+        }));
+    }
+    
+    // Inside a shard's copy transaction: sources on this shard are read here, the others were read up front
+    private Map<Long, List<TimeBlock>> sourceSchedules(int shard, Map<Long, Long> pairs, Map<Long, List<TimeBlock>> remoteTemplates) {
+        List<Long> local = pairs.values().stream()
+                .filter(source -> shardRouter.shardForStudent(source) == shard)
+                .distinct()
+                .toList();
+        Map<Long, List<TimeBlock>> schedules = new HashMap<>(remoteTemplates);
+        schedules.putAll(inChunks(local, timeBlockRepository::findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc));
+        return schedules;
+    }
+    
+    private Map<Long, List<TimeBlock>> lockedSchedules(Collection<Long> studentIds) {
+        return inChunks(new ArrayList<>(studentIds), timeBlockRepository::findByStudentIdInForUpdate);
+    }
+    
+    private Map<Long, List<TimeBlock>> inChunks(List<Long> studentIds, Function<List<Long>, List<TimeBlock>> query) {
+        Map<Long, List<TimeBlock>> schedules = new HashMap<>();
+        for (int from = 0; from < studentIds.size(); from += copyChunkSize) {
+            for (TimeBlock timeBlock : query.apply(studentIds.subList(from, Math.min(from + copyChunkSize, studentIds.size())))) {
+                schedules.computeIfAbsent(timeBlock.getStudentId(), key -> new ArrayList<>()).add(timeBlock);
+            }
+        }
+        return schedules;
+    }
+    
+    private List<TimeBlock> insertSelect(int shard, Map<Long, Long> sourceByTarget, Integer weeks,
+                                         Map<String, String> colorsByType) {
+        Map<Long, Long> rowsPerSource = new HashMap<>();
+        for (Object[] row : timeBlockRepository.countByStudentIds(sourceByTarget.values().stream().distinct().toList())) {
+            rowsPerSource.put((Long) row[0], (Long) row[1]);
+        }
+        
+        List<TimeBlock> copies = new ArrayList<>();
+        List<Map.Entry<Long, Long>> statement = new ArrayList<>();
+        int statementRows = 0;
+        for (Map.Entry<Long, Long> pair : sourceByTarget.entrySet()) {
+            int rows = rowsPerSource.getOrDefault(pair.getValue(), 0L).intValue();
+            if (rows == 0) {
+                continue;
+            }
+            if (!statement.isEmpty() && (statement.size() == copyStatementStudents
+                    || (snowflakeIds != null && statementRows + rows > SnowflakeIds.getMaxReservation()))) {
+                copies.addAll(insertSelectStatement(shard, statement, statementRows, weeks, colorsByType));
+                statement.clear();
+                statementRows = 0;
+            }
+            statement.add(pair);
+            statementRows += rows;
+        }
+        if (!statement.isEmpty()) {
+            copies.addAll(insertSelectStatement(shard, statement, statementRows, weeks, colorsByType));
+        }
+        return copies;
+    }
+    
+    private List<TimeBlock> insertSelectStatement(int shard, List<Map.Entry<Long, Long>> pairs, int rows,
+                                                  Integer weeks, Map<String, String> colorsByType) {
+        List<Object> colorArgs = new ArrayList<>();
+        StringBuilder color = new StringBuilder("tb.color");
+        if (!colorsByType.isEmpty()) {
+            color.setLength(0);
+            color.append("CASE tb.type");
+            colorsByType.forEach((type, replacement) -> {
+                color.append(" WHEN ? THEN ?");
+                colorArgs.add(type);
+                colorArgs.add(replacement);
+            });
+            color.append(" ELSE tb.color END");
+        }
+        // Ids are Longs from the request and the reservation, so they are written as literals
+        String mapping = pairs.stream()
+                .map(pair -> "SELECT " + pair.getValue() + " AS source_id, " + pair.getKey() + " AS target_id")
+                .collect(Collectors.joining(" UNION ALL "));
+        String columns = "tb.title, tb.start_time, tb.end_time, tb.day, tb.type, " +
+                (weeks != null ? weeks : "tb.weeks") + " AS weeks, tb.description, " + color + " AS color, m.target_id";
+        String from = " FROM time_blocks tb JOIN (" + mapping + ") m ON tb.student_id = m.source_id";
+        
+        if (snowflakeIds == null) {
+            // IDENTITY ids: every id the statement gets is at least LAST_INSERT_ID(). Other writers' rows with such
+            // ids are not visible here, since this transaction's snapshot was taken by the count before the statement.
+            int inserted = jdbcTemplate.update("INSERT INTO time_blocks (title, start_time, end_time, day, type, " +
+                    "weeks, description, color, student_id, version) SELECT " + columns + ", 0" + from, colorArgs.toArray());
+            if (inserted == 0) {
+                return List.of();
+            }
+            Long firstId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            return timeBlockRepository.findByStudentIdInAndTimeBlockIdGreaterThanEqualOrderByTimeBlockId(
+                    pairs.stream().map(Map.Entry::getKey).toList(), firstId);
+        }
+        
+        long firstId = snowflakeIds.reserve(shard, rows);
+        // Rows added to a source since they were counted are left out rather than run past the reserved range
+        String sql = "INSERT INTO time_blocks (time_block_id, title, start_time, end_time, day, type, weeks, " +
+                "description, color, student_id, version) " +
+                "SELECT " + firstId + " + c.rn - 1, c.title, c.start_time, c.end_time, c.day, c.type, c.weeks, " +
+                "c.description, c.color, c.target_id, 0 FROM (" +
+                "SELECT ROW_NUMBER() OVER (ORDER BY m.target_id, tb.time_block_id) AS rn, " + columns + from + ") c " +
+                "WHERE c.rn <= " + rows;
+        int inserted = jdbcTemplate.update(sql, colorArgs.toArray());
+        return timeBlockRepository.findByTimeBlockIdBetweenOrderByTimeBlockId(firstId, firstId + inserted - 1);
+    }
+    
+    private static TimeBlock copyOf(TimeBlock template, Long studentId, Integer weeks, Map<String, String> colorsByType) {
+        return new TimeBlock(template.getTitle(), template.getStartTime(), template.getEndTime(), template.getDay(),
+                template.getType(), weeks != null ? weeks : template.getWeeks(), template.getDescription(),
+                colorsByType.getOrDefault(template.getType(), template.getColor()), studentId);
+    }
+    
+    // Evicted again after the transaction ends: until then another transaction can still load the old row
+    // and put it back into the cache
+    private void evictCached(Long id) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(TimeBlock.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictEntityData(TimeBlock.class, id);
+                }
+            });
+        }
+    }
+    
+    private <T> T onStudentShard(Long studentId, Supplier<T> query) {
+        return shardRouter.onShard(shardRouter.shardForStudent(studentId), query);
+    }
+}
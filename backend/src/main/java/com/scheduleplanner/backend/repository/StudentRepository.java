@@ -1,19 +1,42 @@
 package com.scheduleplanner.backend.repository;
 
 import com.scheduleplanner.backend.model.Student;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentRepositoryCustom {
     
     Optional<Student> findByEmail(String email);
     
+    // Username is not the natural id, so repeated lookups are served by the query cache instead
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Student> findByUsername(String username);
     
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     boolean existsByEmail(String email);
     
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     boolean existsByUsername(String username);
-} 
\ No newline at end of file
+    
+    // Keyset-paged scan of the unique handles only, for building the availability filters
+    @Query("SELECT s.studentId AS studentId, s.email AS email, s.username AS username FROM Student s " +
+           "WHERE s.studentId > :afterStudentId ORDER BY s.studentId")
+    List<Handles> findHandlesAfter(@Param("afterStudentId") Long afterStudentId, Pageable pageable);
+    
+    interface Handles {
+        Long getStudentId();
+        
+        String getEmail();
+        
+        String getUsername();
+    }
+}
\ No newline at end of file
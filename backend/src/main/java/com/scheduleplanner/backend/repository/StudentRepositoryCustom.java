@@ -0,0 +1,14 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.Student;
+
+import java.util.Optional;
+
+public interface StudentRepositoryCustom {
+    
+    /**
+     * Looks a student up by email through Hibernate's natural-id API, so repeated logins and token
+     * checks resolve from the second-level cache without a query.
+     */
+    Optional<Student> findByNaturalEmail(String email);
+}
@@ -0,0 +1,21 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class StudentRepositoryCustomImpl implements StudentRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Student> findByNaturalEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Student.class)
+                .loadOptional(email);
+    }
+}
@@ -0,0 +1,28 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.Student;
+import com.scheduleplanner.backend.repository.StudentRepository.Handles;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Student storage as the services see it. Backed by MySQL through JPA ({@link JpaStudentStore})
+ * or by the embedded engine ({@link EmbeddedStudentStore}), selected with {@code timeblocks.storage.engine}.
+ */
+public interface StudentStore {
+    
+    Optional<Student> findByEmail(String email);
+    
+    Optional<Student> findByUsername(String username);
+    
+    boolean existsByEmail(String email);
+    
+    boolean existsByUsername(String username);
+    
+    // Inserts immediately; a taken email or username fails with DataIntegrityViolationException
+    Student insert(Student student);
+    
+    // Keyset page of the unique handles in ascending id order
+    List<Handles> findHandlesAfter(Long afterStudentId, int limit);
+}
@@ -2,17 +2,29 @@ package com.scheduleplanner.backend.repository;
 
 import com.scheduleplanner.backend.model.TimeBlock;
 import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TimeBlockRepository extends JpaRepository<TimeBlock, Long> {
     
+    // Query space of the single-row statements below. HQL bulk statements, and native ones without a space,
+    // make Hibernate evict the whole time-block cache region; naming a space no entity maps leaves it alone,
+    // and the caller evicts the one entry the statement changed. No time block query uses the query cache.
+    String SINGLE_ROW_SPACE = "time_blocks_single_row";
+    
     // Find time blocks by day
     List<TimeBlock> findByDay(DayOfWeek day);
     
@@ -53,4 +65,43 @@ public interface TimeBlockRepository extends JpaRepository<TimeBlock, Long> {
     // Query to get all time blocks for schedule view (matching your SQL query)
     @Query("SELECT tb FROM TimeBlock tb WHERE tb.studentId = :studentId ORDER BY tb.day, tb.startTime")
     List<TimeBlock> findTimeBlocksForScheduleView(@Param("studentId") Long studentId);
-}
+    
+    // Keyset paging over the students that own time blocks (for batch jobs that scan the whole table)
+    @Query("SELECT DISTINCT tb.studentId FROM TimeBlock tb WHERE tb.studentId > :afterStudentId ORDER BY tb.studentId")
+    List<Long> findStudentIdsAfter(@Param("afterStudentId") Long afterStudentId, Pageable pageable);
+    
+    // All time blocks of a chunk of students, grouped by student and day in sweep order
+    List<TimeBlock> findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(Collection<Long> studentIds);
+    
+    // Locks the current blocks of a chunk of students, so a copy's conflict check holds until it commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT tb FROM TimeBlock tb WHERE tb.studentId IN :studentIds ORDER BY tb.studentId, tb.day, tb.startTime")
+    List<TimeBlock> findByStudentIdInForUpdate(@Param("studentIds") Collection<Long> studentIds);
+    
+    // Row count per student, to size set-based copies
+    @Query("SELECT tb.studentId, COUNT(tb) FROM TimeBlock tb WHERE tb.studentId IN :studentIds GROUP BY tb.studentId")
+    List<Object[]> countByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+    
+    // Rows written by a set-based copy, which occupy one reserved id range
+    List<TimeBlock> findByTimeBlockIdBetweenOrderByTimeBlockId(Long firstId, Long lastId);
+    
+    // Rows written by a set-based copy with IDENTITY ids, from the first id the database gave it
+    List<TimeBlock> findByStudentIdInAndTimeBlockIdGreaterThanEqualOrderByTimeBlockId(Collection<Long> studentIds, Long firstId);
+    
+    // Single-statement update of a block still at the given version, which it bumps.
+    // Returns 0 when the block is missing or has a different version.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = SINGLE_ROW_SPACE))
+    @Query(value = "UPDATE time_blocks SET title = :#{#details.title}, start_time = :#{#details.startTime}, " +
+           "end_time = :#{#details.endTime}, day = :#{#details.day.name()}, type = :#{#details.type}, " +
+           "weeks = :#{#details.weeks}, description = :#{#details.description}, color = :#{#details.color}, " +
+           "student_id = :#{#details.studentId}, version = version + 1 " +
+           "WHERE time_block_id = :id AND version = :version", nativeQuery = true)
+    int updateInPlace(@Param("id") Long id, @Param("details") TimeBlock details, @Param("version") Long version);
+    
+    // Single-statement delete with the same matching rules as updateInPlace
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = SINGLE_ROW_SPACE))
+    @Query(value = "DELETE FROM time_blocks WHERE time_block_id = :id AND version = :version", nativeQuery = true)
+    int deleteInPlace(@Param("id") Long id, @Param("version") Long version);
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Time block storage as the services see it. Backed by MySQL through JPA ({@link ShardedTimeBlockRepository})
+ * or by the embedded engine ({@link EmbeddedTimeBlockStore}), selected with {@code timeblocks.storage.engine}.
+ */
+public interface TimeBlockStore {
+    
+    List<TimeBlock> findAll();
+    
+    Optional<TimeBlock> findById(Long id);
+    
+    // Like findById, but always reads the stored row rather than a cached copy
+    Optional<TimeBlock> findCurrentById(Long id);
+    
+    List<TimeBlock> findByDay(DayOfWeek day);
+    
+    List<TimeBlock> findByType(String type);
+    
+    List<TimeBlock> findByStudentId(Long studentId);
+    
+    List<TimeBlock> findByStudentIdAndDay(Long studentId, DayOfWeek day);
+    
+    List<TimeBlock> findByStudentIdAndType(Long studentId, String type);
+    
+    // Ordered by day and start time
+    List<TimeBlock> findTimeBlocksForScheduleView(Long studentId);
+    
+    List<TimeBlock> findOverlappingTimeBlocksForStudent(Long studentId, DayOfWeek day, LocalTime startTime, LocalTime endTime);
+    
+    List<TimeBlock> findOverlappingTimeBlocks(DayOfWeek day, LocalTime startTime, LocalTime endTime);
+    
+    // Ascending ids of students owning time blocks, after the given id (keyset paging)
+    List<Long> findStudentIdsAfter(Long afterStudentId, int limit);
+    
+    List<TimeBlock> findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(Collection<Long> studentIds);
+    
+    // Inserts or updates and makes the write visible to the next read; returns the stored block
+    TimeBlock save(TimeBlock timeBlock);
+    
+    void delete(TimeBlock timeBlock);
+    
+    // Single-statement update of a block still at the given version, which it bumps.
+    // Returns 0 when the block is missing or has a different version.
+    int updateInPlace(Long id, TimeBlock details, Long version);
+    
+    // Single-statement delete with the same matching rules as updateInPlace
+    int deleteInPlace(Long id, Long version);
+    
+    // Copies each source student's blocks to the target student mapped to it (target -> source), optionally with new
+    // weeks and with colors replaced per type (type -> color); returns the copies. A non-null filter is consulted in
+    // the copy transaction, with the targets' current blocks locked, before anything is written.
+    List<TimeBlock> copySchedules(Map<Long, Long> sourceByTarget, Integer weeks, Map<String, String> colorsByType,
+                                  CopyFilter filter);
+    
+    @FunctionalInterface
+    interface CopyFilter {
+        // Given the pairs about to be copied, the source schedules and the targets' current schedules (by student id),
+        // returns the targets to leave out; throwing rolls the copy transaction back
+        Set<Long> excludedTargets(Map<Long, Long> sourceByTarget, Map<Long, List<TimeBlock>> sources,
+                                  Map<Long, List<TimeBlock>> targets);
+    }
+}
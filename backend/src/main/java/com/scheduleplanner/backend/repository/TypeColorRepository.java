@@ -0,0 +1,21 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.TypeColor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TypeColorRepository extends JpaRepository<TypeColor, Long> {
+    
+    List<TypeColor> findByStudentId(Long studentId);
+    
+    Optional<TypeColor> findByStudentIdAndType(Long studentId, String type);
+    
+    boolean existsByStudentId(Long studentId);
+    
+    // Defaults written before they moved to student 0
+    List<TypeColor> findByStudentIdIsNullOrderByIdAsc();
+}
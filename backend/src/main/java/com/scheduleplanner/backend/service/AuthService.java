@@ -1,19 +1,27 @@
 package com.scheduleplanner.backend.service;
 
 import com.scheduleplanner.backend.config.JwtUtil;
+import com.scheduleplanner.backend.diagnostics.PasswordHashEvent;
 import com.scheduleplanner.backend.model.*;
-import com.scheduleplanner.backend.repository.StudentRepository;
+import com.scheduleplanner.backend.repository.StudentStore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 public class AuthService {
     
     @Autowired
-    private StudentRepository studentRepository;
+    private StudentStore studentStore;
     
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -21,8 +29,18 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+    
+    @Autowired
+    private StudentAvailabilityIndex availabilityIndex;
+    
+    @Autowired
+    private TokenDenylist tokenDenylist;
+    
+    @Transactional(readOnly = true)
     public AuthResponse login(LoginRequest loginRequest) throws Exception {
-        Optional<Student> studentOpt = studentRepository.findByEmail(loginRequest.getEmail());
+        Optional<Student> studentOpt = studentStore.findByEmail(loginRequest.getEmail());
         
         if (studentOpt.isEmpty()) {
             throw new Exception("Invalid email or password");
@@ -30,23 +48,24 @@ public class AuthService {
         
         Student student = studentOpt.get();
         
-        if (!passwordEncoder.matches(loginRequest.getPassword(), student.getPasswordHash())) {
+        if (!passwordMatches(loginRequest.getPassword(), student.getPasswordHash())) {
             throw new Exception("Invalid email or password");
         }
         
-        String token = jwtUtil.generateToken(student.getEmail(), student.getStudentId());
-        
-        return new AuthResponse(token, student);
+        return issueTokens(student);
     }
     
+    @Transactional(rollbackFor = Exception.class)
     public AuthResponse register(RegisterRequest registerRequest) throws Exception {
-        // Check if email already exists
-        if (studentRepository.existsByEmail(registerRequest.getEmail())) {
+        // Check if email already exists (the filter rules out most new emails without a query)
+        if (availabilityIndex.mightContainEmail(registerRequest.getEmail())
+                && studentStore.existsByEmail(registerRequest.getEmail())) {
             throw new Exception("Email is already registered");
         }
         
         // Check if username already exists
-        if (studentRepository.existsByUsername(registerRequest.getUsername())) {
+        if (availabilityIndex.mightContainUsername(registerRequest.getUsername())
+                && studentStore.existsByUsername(registerRequest.getUsername())) {
             throw new Exception("Username is already taken");
         }
         
@@ -55,18 +74,105 @@ public class AuthService {
         student.setFullName(registerRequest.getFullName());
         student.setUsername(registerRequest.getUsername());
         student.setEmail(registerRequest.getEmail());
-        student.setPasswordHash(passwordEncoder.encode(registerRequest.getPassword()));
+        student.setPasswordHash(hashPassword(registerRequest.getPassword()));
         
         // Save student to database
-        Student savedStudent = studentRepository.save(student);
-        
-        // Generate JWT token
-        String token = jwtUtil.generateToken(savedStudent.getEmail(), savedStudent.getStudentId());
+        // The unique indexes still decide races between concurrent registrations
+        Student savedStudent;
+        try {
+            savedStudent = studentStore.insert(student);
+        } catch (DataIntegrityViolationException e) {
+            throw new Exception("Email or username is already taken");
+        }
+        availabilityIndex.registered(savedStudent.getEmail(), savedStudent.getUsername());
+        secondLevelCacheInvalidator.studentsChanged();
         
-        return new AuthResponse(token, savedStudent);
+        // Generate JWT tokens
+        return issueTokens(savedStudent);
+    }
+    
+    // Refresh tokens are single use: the old one is revoked before a new pair is issued, and the
+    // unique jti in revoked_tokens decides between concurrent refreshes on different nodes
+    public AuthResponse refresh(String refreshToken) throws Exception {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseRefreshToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new Exception("Invalid or expired refresh token");
+        }
+        if (!tokenDenylist.revoke(claims.getId(), claims.getExpiration().toInstant())) {
+            throw new Exception("Invalid or expired refresh token");
+        }
+        Student student = studentStore.findByEmail(claims.getSubject())
+                .orElseThrow(() -> new Exception("Invalid or expired refresh token"));
+        return issueTokens(student);
     }
     
+    // Tokens that no longer verify need no revocation and are ignored
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            revoke(() -> jwtUtil.parseAccessToken(accessToken));
+        }
+        if (refreshToken != null) {
+            revoke(() -> jwtUtil.parseRefreshToken(refreshToken));
+        }
+    }
+    
+    // Live sign-up form feedback; only values that might be taken cost a query
+    @Transactional(readOnly = true)
+    public Map<String, Boolean> checkAvailability(String email, String username) {
+        Map<String, Boolean> availability = new LinkedHashMap<>();
+        if (email != null) {
+            availability.put("emailAvailable", !availabilityIndex.mightContainEmail(email)
+                    || !studentStore.existsByEmail(email));
+        }
+        if (username != null) {
+            availability.put("usernameAvailable", !availabilityIndex.mightContainUsername(username)
+                    || !studentStore.existsByUsername(username));
+        }
+        return availability;
+    }
+    
+    @Transactional(readOnly = true)
     public Student getCurrentUser(String email) {
-        return studentRepository.findByEmail(email).orElse(null);
+        return studentStore.findByEmail(email).orElse(null);
+    }
+    
+    private AuthResponse issueTokens(Student student) {
+        String token = jwtUtil.generateToken(student.getEmail(), student.getStudentId());
+        String refreshToken = jwtUtil.generateRefreshToken(student.getEmail(), student.getStudentId());
+        return new AuthResponse(token, refreshToken, jwtUtil.getExpirationMs() / 1000, student);
+    }
+    
+    private void revoke(Supplier<Claims> parser) {
+        Claims claims;
+        try {
+            claims = parser.get();
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        if (claims.getId() != null) {
+            tokenDenylist.revoke(claims.getId(), claims.getExpiration().toInstant());
+        }
+    }
+    
+    // bcrypt is deliberately slow and dominates login and registration latency, so each call is recorded
+    private boolean passwordMatches(String password, String passwordHash) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean matched = passwordEncoder.matches(password, passwordHash);
+        event.operation = "match";
+        event.matched = matched;
+        event.commit();
+        return matched;
+    }
+    
+    private String hashPassword(String password) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String hash = passwordEncoder.encode(password);
+        event.operation = "encode";
+        event.commit();
+        return hash;
     }
 } 
\ No newline at end of file
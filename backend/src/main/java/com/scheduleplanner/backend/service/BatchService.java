@@ -0,0 +1,186 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.config.JwtUtil;
+import com.scheduleplanner.backend.config.ReplicaRoutingDataSource;
+import com.scheduleplanner.backend.model.BatchRequest;
+import com.scheduleplanner.backend.model.BatchResponse;
+import com.scheduleplanner.backend.model.Student;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Answers several page-load reads in one round trip. Sub-requests run in parallel on a bounded pool;
+ * within one batch the bearer token is verified at most once and each student's schedule is loaded at
+ * most once, with the per-day and per-student views derived from that single load.
+ */
+@Service
+public class BatchService {
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    @Autowired
+    private TimeBlockService timeBlockService;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private TypeColorRegistry typeColorRegistry;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private final ExecutorService executor;
+    
+    public BatchService(@Value("${timeblocks.batch.threads:16}") int threads) {
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+    
+    public BatchResponse execute(BatchRequest batchRequest, String authHeader) {
+        BatchContext context = new BatchContext(authHeader);
+        // Sub-requests run on pool threads, so carry over a pending read-your-writes window
+        boolean primaryForced = ReplicaRoutingDataSource.isPrimaryForced();
+        
+        List<CompletableFuture<BatchResponse.Result>> futures = new ArrayList<>();
+        for (BatchRequest.Item item : batchRequest.getRequests()) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                if (primaryForced) {
+                    ReplicaRoutingDataSource.forcePrimary();
+                }
+                try {
+                    return new BatchResponse.Result(item.getId(), HttpStatus.OK.value(), dispatch(item.getPath(), context));
+                } catch (BatchException e) {
+                    return new BatchResponse.Result(item.getId(), e.status.value(), Map.of("message", e.getMessage()));
+                } catch (RuntimeException e) {
+                    return new BatchResponse.Result(item.getId(), HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                            Map.of("message", "Request failed"));
+                } finally {
+                    ReplicaRoutingDataSource.clearForcePrimary();
+                }
+            }, executor));
+        }
+        
+        return new BatchResponse(futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+    
+    private Object dispatch(String path, BatchContext context) {
+        Map<String, String> variables;
+        if ((variables = match("/api/timeblocks/student/{studentId}/schedule", path)) != null) {
+            return toDTOs(context.schedule(studentId(variables)));
+        }
+        if ((variables = match("/api/timeblocks/student/{studentId}/day/{day}", path)) != null) {
+            DayOfWeek day = parseDay(variables.get("day"));
+            return toDTOs(context.schedule(studentId(variables)).stream()
+                    .filter(timeBlock -> timeBlock.getDay() == day)
+                    .collect(Collectors.toList()));
+        }
+        if ((variables = match("/api/timeblocks/student/{studentId}", path)) != null) {
+            return toDTOs(context.schedule(studentId(variables)));
+        }
+        if ((variables = match("/api/timeblocks/student/{studentId}/type-colors", path)) != null) {
+            return typeColorRegistry.getView(studentId(variables)).getColors();
+        }
+        if (match("/api/timeblocks/type-colors", path) != null) {
+            return timeBlockService.getTypeColors();
+        }
+        if (match("/api/auth/me", path) != null) {
+            return context.currentUser();
+        }
+        throw new BatchException(HttpStatus.NOT_FOUND, "Unsupported batch path: " + path);
+    }
+    
+    private static Map<String, String> match(String pattern, String path) {
+        return PATH_MATCHER.match(pattern, path) ? PATH_MATCHER.extractUriTemplateVariables(pattern, path) : null;
+    }
+    
+    private static Long studentId(Map<String, String> variables) {
+        try {
+            return Long.valueOf(variables.get("studentId"));
+        } catch (NumberFormatException e) {
+            throw new BatchException(HttpStatus.BAD_REQUEST, "Invalid studentId");
+        }
+    }
+    
+    private static DayOfWeek parseDay(String day) {
+        try {
+            return DayOfWeek.valueOf(day);
+        } catch (IllegalArgumentException e) {
+            throw new BatchException(HttpStatus.BAD_REQUEST, "Invalid day: " + day);
+        }
+    }
+    
+    private static List<TimeBlockDTO> toDTOs(List<TimeBlock> timeBlocks) {
+        return timeBlocks.stream().map(TimeBlockDTO::new).collect(Collectors.toList());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    // Work shared by the sub-requests of one batch; concurrent callers wait for the first load instead of repeating it
+    private class BatchContext {
+        private final String authHeader;
+        private final Map<Long, List<TimeBlock>> schedules = new ConcurrentHashMap<>();
+        private Map<String, Object> currentUser;
+        
+        private BatchContext(String authHeader) {
+            this.authHeader = authHeader;
+        }
+        
+        private List<TimeBlock> schedule(Long studentId) {
+            return schedules.computeIfAbsent(studentId, timeBlockService::getTimeBlocksForScheduleView);
+        }
+        
+        private synchronized Map<String, Object> currentUser() {
+            if (currentUser == null) {
+                currentUser = verifyToken();
+            }
+            return currentUser;
+        }
+        
+        private Map<String, Object> verifyToken() {
+            if (authHeader == null || !authHeader.startsWith("Bearer ")
+                    || !jwtUtil.validateToken(authHeader.substring(7))) {
+                throw new BatchException(HttpStatus.UNAUTHORIZED, "Invalid token");
+            }
+            Student student = authService.getCurrentUser(jwtUtil.getEmailFromToken(authHeader.substring(7)));
+            if (student == null) {
+                throw new BatchException(HttpStatus.UNAUTHORIZED, "Invalid token");
+            }
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("message", "User authenticated");
+            user.put("studentId", student.getStudentId());
+            user.put("email", student.getEmail());
+            user.put("fullName", student.getFullName());
+            user.put("username", student.getUsername());
+            return user;
+        }
+    }
+    
+    private static class BatchException extends RuntimeException {
+        private final HttpStatus status;
+        
+        private BatchException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.scheduleplanner.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduleplanner.backend.model.JournalEntry;
+import com.scheduleplanner.backend.model.JournalPage;
+import com.scheduleplanner.backend.model.ScheduleEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of this node's time block changes, for support investigations and downstream feeds.
+ *
+ * Events are taken from {@link ScheduleEventBus} after commit and queued on the request thread; they
+ * carry the before image of updates and deletes (the service reads the row before writing it). When
+ * the queue is full the publisher waits for the writer instead of losing the record. A single writer drains the queue in batches, appends each event as a CRC-checked record to a
+ * memory-mapped segment file and forces the batch to disk once (group commit) before making it visible
+ * to readers. Segments are named after the offset they start at and roll over when full; the oldest
+ * are deleted beyond {@code max-segments}.
+ *
+ * Record layout: {@code int length | int crc32(payload) | payload (ScheduleEvent JSON)}. Offsets are byte
+ * positions in the journal as a whole, so a consumer can replay from any offset it has stored. Events
+ * from other nodes are not journaled here; each node keeps the journal of the writes it served.
+ */
+@Service
+public class ChangeJournal {
+    
+    private static final Logger log = LoggerFactory.getLogger(ChangeJournal.class);
+    
+    private static final int HEADER_BYTES = 8;
+    
+    // Written where a segment was closed, so recovery knows the next segment was started
+    private static final int ROLL_MARKER = -1;
+    
+    private static final String SEGMENT_SUFFIX = ".journal";
+    
+    private static final int MAX_BATCH = 1024;
+    
+    @Autowired
+    private ScheduleEventBus scheduleEventBus;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${timeblocks.journal.dir:journal}")
+    private String directory;
+    
+    @Value("${timeblocks.journal.segment-size-bytes:67108864}")
+    private int segmentSize;
+    
+    @Value("${timeblocks.journal.max-segments:32}")
+    private int maxSegments;
+    
+    @Value("${timeblocks.journal.fsync:true}")
+    private boolean fsync;
+    
+    @Value("${timeblocks.journal.queue-capacity:65536}")
+    private int queueCapacity;
+    
+    // Upper bound on how long a publisher waits for queue space; only reached when the disk has stopped
+    @Value("${timeblocks.journal.enqueue-timeout-ms:30000}")
+    private long enqueueTimeoutMs;
+    
+    private BlockingQueue<ScheduleEvent> queue;
+    
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    
+    // Segment start offset -> file
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    
+    // Read-only mappings shared by all readers; they see the writer's pages through the page cache
+    private final Map<Long, MappedByteBuffer> readMappings = new ConcurrentHashMap<>();
+    
+    private final LongAdder dropped = new LongAdder();
+    
+    private final Object commitMonitor = new Object();
+    
+    // End of the records that have been forced to disk; readers never go past it
+    private volatile long committedOffset;
+    
+    private volatile boolean running;
+    
+    // Writer thread only
+    private long activeBase;
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    
+    @PostConstruct
+    public void open() throws IOException {
+        Path dir = Path.of(directory);
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(file -> segments.put(baseOffsetOf(file), file));
+        }
+        
+        if (segments.isEmpty()) {
+            openActive(0L);
+        } else {
+            openActive(segments.lastKey());
+            recoverActive();
+        }
+        committedOffset = activeBase + active.position();
+        log.info("Change journal open at {} (offset {}, {} segments)", dir.toAbsolutePath(), committedOffset, segments.size());
+        
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer.execute(this::writeLoop);
+        scheduleEventBus.addListener(this::append);
+    }
+    
+    private void append(ScheduleEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        // Backpressure: a full queue slows publishers down to the writer's pace rather than dropping audit records
+        try {
+            if (!queue.offer(event, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                dropped.increment();
+                log.error("Change journal writer stalled for {} ms; lost event for time block {}",
+                        enqueueTimeoutMs, event.getTimeBlockId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+            log.warn("Interrupted while journaling event for time block {}", event.getTimeBlockId());
+        }
+    }
+    
+    public long getEndOffset() {
+        return committedOffset;
+    }
+    
+    public long getStartOffset() {
+        return segments.isEmpty() ? 0L : segments.firstKey();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    /**
+     * Reads up to {@code limit} records starting at {@code fromOffset}. An offset older than the retained
+     * segments starts at the oldest record still on disk.
+     */
+    public JournalPage read(long fromOffset, int limit) {
+        long end = committedOffset;
+        long offset = Math.max(fromOffset, getStartOffset());
+        List<JournalEntry> entries = new ArrayList<>();
+        
+        while (entries.size() < limit && offset < end) {
+            Map.Entry<Long, Path> segment = segments.floorEntry(offset);
+            if (segment == null) {
+                break;
+            }
+            MappedByteBuffer buffer = readMapping(segment.getKey(), segment.getValue());
+            int position = (int) (offset - segment.getKey());
+            int length = position + HEADER_BYTES <= buffer.limit() ? buffer.getInt(position) : 0;
+            if (length <= 0) {
+                // End of a closed segment: continue in the next one
+                Long next = segments.higherKey(segment.getKey());
+                if (next == null) {
+                    break;
+                }
+                offset = next;
+                continue;
+            }
+            if (position + HEADER_BYTES + length > buffer.limit()) {
+                throw new CorruptRecordException(offset, "Corrupt change journal record at offset " + offset, null);
+            }
+            
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                throw new CorruptRecordException(offset, "Checksum mismatch in change journal at offset " + offset, null);
+            }
+            
+            long next = offset + HEADER_BYTES + length;
+            try {
+                entries.add(new JournalEntry(offset, next, objectMapper.readValue(payload, ScheduleEvent.class)));
+            } catch (IOException e) {
+                throw new CorruptRecordException(offset, "Unreadable change journal record at offset " + offset, e);
+            }
+            offset = next;
+        }
+        return new JournalPage(entries, offset, end);
+    }
+    
+    /**
+     * Tailing read: like {@link #read}, but when the reader is caught up it waits up to {@code waitMs}
+     * for new records to be committed.
+     */
+    public JournalPage poll(long fromOffset, int limit, long waitMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + waitMs;
+        synchronized (commitMonitor) {
+            long remaining;
+            while (committedOffset <= fromOffset && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                commitMonitor.wait(remaining);
+            }
+        }
+        return read(fromOffset, limit);
+    }
+    
+    /**
+     * Feeds every record from {@code fromOffset} to the current end to {@code consumer} and returns the
+     * offset to continue from.
+     */
+    public long replay(long fromOffset, Consumer<JournalEntry> consumer) {
+        long offset = fromOffset;
+        while (true) {
+            JournalPage page = read(offset, 1000);
+            page.getEntries().forEach(consumer);
+            if (page.getEntries().isEmpty() || page.getNextOffset() >= page.getEndOffset()) {
+                return page.getNextOffset();
+            }
+            offset = page.getNextOffset();
+        }
+    }
+    
+    private void writeLoop() {
+        List<ScheduleEvent> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                ScheduleEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                
+                for (ScheduleEvent event : batch) {
+                    write(objectMapper.writeValueAsBytes(event));
+                }
+                if (fsync) {
+                    active.force();
+                }
+                committedOffset = activeBase + active.position();
+                synchronized (commitMonitor) {
+                    commitMonitor.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Change journal write failed; {} events lost", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void write(byte[] payload) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes + HEADER_BYTES > segmentSize) {
+            log.warn("Skipping {}-byte change journal record larger than a segment", recordBytes);
+            return;
+        }
+        // Keep room for the roll marker at the end of every segment
+        if (active.remaining() < recordBytes + HEADER_BYTES) {
+            roll();
+        }
+        
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int position = active.position();
+        active.put(position + HEADER_BYTES, payload);
+        active.putInt(position + 4, (int) crc.getValue());
+        // Length last: a record whose length is still zero does not exist yet
+        active.putInt(position, payload.length);
+        active.position(position + recordBytes);
+    }
+    
+    private void roll() throws IOException {
+        active.putInt(active.position(), ROLL_MARKER);
+        active.force();
+        activeChannel.close();
+        openActive(activeBase + active.position());
+        
+        while (segments.size() > maxSegments) {
+            Map.Entry<Long, Path> oldest = segments.pollFirstEntry();
+            readMappings.remove(oldest.getKey());
+            Files.deleteIfExists(oldest.getValue());
+        }
+    }
+    
+    private void openActive(long baseOffset) throws IOException {
+        Path file = Path.of(directory, String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        activeBase = baseOffset;
+        segments.put(baseOffset, file);
+    }
+    
+    // Positions the writer after the last intact record and wipes a record torn by a crash
+    private void recoverActive() throws IOException {
+        int position = 0;
+        while (position + HEADER_BYTES <= active.limit()) {
+            int length = active.getInt(position);
+            if (length == ROLL_MARKER) {
+                activeChannel.close();
+                openActive(activeBase + position);
+                return;
+            }
+            if (length <= 0 || position + HEADER_BYTES + length > active.limit()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            active.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != active.getInt(position + 4)) {
+                log.warn("Truncating change journal at offset {} after a torn record", activeBase + position);
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        for (int i = position; i < active.limit(); i++) {
+            if (active.get(i) != 0) {
+                active.put(i, (byte) 0);
+            }
+        }
+        active.position(position);
+    }
+    
+    private MappedByteBuffer readMapping(long baseOffset, Path file) {
+        return readMappings.computeIfAbsent(baseOffset, key -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map change journal segment " + file, e);
+            }
+        });
+    }
+    
+    private static long baseOffsetOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        running = false;
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+        active.force();
+        activeChannel.close();
+    }
+    
+    // A record that fails its length or checksum check, or does not parse; also raised for a misaligned offset
+    public static class CorruptRecordException extends IllegalStateException {
+        private final long offset;
+        
+        public CorruptRecordException(long offset, String message, Throwable cause) {
+            super(message, cause);
+            this.offset = offset;
+        }
+        
+        public long getOffset() {
+            return offset;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.scheduleplanner.backend.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Fire-and-forget messaging between backend instances, used to keep in-process caches and
+ * push streams consistent when several nodes serve the same database.
+ *
+ * A message published on one node is delivered to the channel's subscribers on every other
+ * node; the publishing node is expected to have already applied the change locally.
+ */
+public interface ClusterBroadcast {
+    
+    void publish(String channel, String payload);
+    
+    void subscribe(String channel, Consumer<String> listener);
+    
+    String getNodeId();
+}
@@ -0,0 +1,191 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.ConflictAuditReport;
+import com.scheduleplanner.backend.model.ConflictAuditReport.Status;
+import com.scheduleplanner.backend.model.ConflictPair;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.repository.TimeBlockStore;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds double bookings that slipped past the per-request overlap checks (old imports, races).
+ *
+ * The job walks the students owning time blocks with keyset-paged queries, loads each chunk's
+ * blocks in one query already ordered by student, day and start time, and sweeps every
+ * (student, day) group in parallel on a dedicated fork-join pool. Before each chunk it backs off
+ * while the connection pool is under pressure, so online requests keep priority. A cancelled or
+ * failed run can be resumed from the last completed chunk.
+ */
+@Service
+public class ConflictAuditService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ConflictAuditService.class);
+    
+    @Autowired
+    private TimeBlockStore timeBlockRepository;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Value("${timeblocks.audit.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${timeblocks.audit.min-idle-connections:2}")
+    private int minIdleConnections;
+    
+    @Value("${timeblocks.audit.throttle-ms:200}")
+    private long throttleMs;
+    
+    private final ForkJoinPool sweepPool;
+    
+    private final ExecutorService runner = Executors.newSingleThreadExecutor();
+    
+    private volatile ConflictAuditReport currentReport;
+    
+    private volatile boolean cancelRequested;
+    
+    public ConflictAuditService(@Value("${timeblocks.audit.parallelism:2}") int parallelism) {
+        this.sweepPool = new ForkJoinPool(parallelism);
+    }
+    
+    public synchronized ConflictAuditReport start(boolean resume) {
+        ConflictAuditReport previous = currentReport;
+        if (previous != null && previous.isRunning()) {
+            throw new IllegalStateException("A conflict audit is already running");
+        }
+        
+        ConflictAuditReport report = resume && previous != null && previous.getStatus() != Status.COMPLETED
+                ? new ConflictAuditReport(previous)
+                : new ConflictAuditReport();
+        currentReport = report;
+        cancelRequested = false;
+        runner.execute(() -> run(report));
+        return report;
+    }
+    
+    public void cancel() {
+        cancelRequested = true;
+    }
+    
+    public Optional<ConflictAuditReport> getCurrentReport() {
+        return Optional.ofNullable(currentReport);
+    }
+    
+    private void run(ConflictAuditReport report) {
+        Long cursor = report.getLastStudentId() != null ? report.getLastStudentId() : Long.MIN_VALUE;
+        try {
+            while (true) {
+                if (cancelRequested) {
+                    report.finish(Status.CANCELLED, "Cancelled; resume to continue after student " + cursor);
+                    return;
+                }
+                waitForPoolCapacity();
+                
+                List<Long> studentIds = timeBlockRepository.findStudentIdsAfter(cursor, chunkSize);
+                if (studentIds.isEmpty()) {
+                    report.finish(Status.COMPLETED, null);
+                    return;
+                }
+                
+                List<TimeBlock> timeBlocks =
+                        timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(studentIds);
+                List<List<TimeBlock>> groups = groupByStudentAndDay(timeBlocks);
+                List<ConflictPair> found = sweepPool.submit(() -> groups.parallelStream()
+                        .flatMap(group -> sweep(group).stream())
+                        .toList()).join();
+                
+                cursor = studentIds.get(studentIds.size() - 1);
+                report.recordChunk(found, studentIds.size(), timeBlocks.size(), cursor);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Conflict audit failed after student {}", cursor, e);
+            report.finish(Status.FAILED, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.finish(Status.CANCELLED, "Interrupted");
+        }
+    }
+    
+    private List<List<TimeBlock>> groupByStudentAndDay(List<TimeBlock> sorted) {
+        List<List<TimeBlock>> groups = new ArrayList<>();
+        List<TimeBlock> current = new ArrayList<>();
+        for (TimeBlock timeBlock : sorted) {
+            if (!current.isEmpty()) {
+                TimeBlock previous = current.get(0);
+                if (!previous.getStudentId().equals(timeBlock.getStudentId()) || previous.getDay() != timeBlock.getDay()) {
+                    groups.add(current);
+                    current = new ArrayList<>();
+                }
+            }
+            current.add(timeBlock);
+        }
+        groups.add(current);
+        // A day with a single block cannot conflict
+        groups.removeIf(group -> group.size() < 2);
+        return groups;
+    }
+    
+    // Sort-and-sweep over one student's day; the blocks arrive ordered by start time
+    static List<ConflictPair> sweep(List<TimeBlock> dayBlocks) {
+        List<ConflictPair> conflicts = new ArrayList<>();
+        PriorityQueue<TimeBlock> active = new PriorityQueue<>(Comparator.comparing(TimeBlock::getEndTime));
+        for (TimeBlock timeBlock : dayBlocks) {
+            while (!active.isEmpty() && !active.peek().getEndTime().isAfter(timeBlock.getStartTime())) {
+                active.poll();
+            }
+            for (TimeBlock open : active) {
+                conflicts.add(new ConflictPair(open, timeBlock));
+            }
+            active.add(timeBlock);
+        }
+        return conflicts;
+    }
+    
+    // Backs off while requests are queueing for connections or the pool is nearly exhausted
+    private void waitForPoolCapacity() throws InterruptedException {
+        HikariPoolMXBean pool = hikariPool();
+        if (pool == null) {
+            return;
+        }
+        while (!cancelRequested
+                && (pool.getThreadsAwaitingConnection() > 0 || pool.getIdleConnections() < minIdleConnections)) {
+            Thread.sleep(throttleMs);
+        }
+    }
+    
+    private HikariPoolMXBean hikariPool() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException e) {
+            log.debug("Connection pool metrics unavailable; auditing without throttling", e);
+        }
+        return null;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        cancelRequested = true;
+        runner.shutdownNow();
+        sweepPool.shutdownNow();
+    }
+}
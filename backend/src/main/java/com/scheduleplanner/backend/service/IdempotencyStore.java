@@ -0,0 +1,20 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.IdempotencyRecord;
+
+import java.util.Optional;
+
+/**
+ * Bounded, expiring store of responses to requests sent with an {@code Idempotency-Key}.
+ * Selected with {@code timeblocks.idempotency.store}: {@code memory} (default) or {@code jdbc} for multi-node use.
+ */
+public interface IdempotencyStore {
+    
+    // Claims the key for a first attempt; returns the existing record (finished or still running) if already claimed
+    Optional<IdempotencyRecord> claim(String key, String requestHash);
+    
+    void complete(String key, int status, String contentType, String location, byte[] body);
+    
+    // Gives the key up after a failure, so a retry runs the request again
+    void release(String key);
+}
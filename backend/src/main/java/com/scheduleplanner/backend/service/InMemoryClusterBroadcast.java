@@ -0,0 +1,71 @@
+package com.scheduleplanner.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-JVM broadcast. The bean gets a hub of its own, so there are no peers and publishing is a no-op,
+ * and application contexts in the same JVM stay apart. Tests can simulate a cluster by creating several
+ * instances on a shared {@link Hub}.
+ */
+@Service
+@ConditionalOnProperty(name = "cluster.broadcast.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryClusterBroadcast implements ClusterBroadcast {
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    private final Hub hub;
+    
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    
+    public InMemoryClusterBroadcast() {
+        this(new Hub());
+    }
+    
+    public InMemoryClusterBroadcast(Hub hub) {
+        this.hub = hub;
+        hub.members.add(this);
+    }
+    
+    @Override
+    public void publish(String channel, String payload) {
+        for (InMemoryClusterBroadcast member : hub.members) {
+            if (member != this) {
+                member.deliver(channel, payload);
+            }
+        }
+    }
+    
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+    
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    // Leaves the hub, so a shared hub does not keep a closed context's listeners reachable
+    @PreDestroy
+    public void close() {
+        hub.members.remove(this);
+        listeners.clear();
+    }
+    
+    private void deliver(String channel, String payload) {
+        listeners.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(payload));
+    }
+    
+    public static class Hub {
+        private final List<InMemoryClusterBroadcast> members = new CopyOnWriteArrayList<>();
+    }
+}
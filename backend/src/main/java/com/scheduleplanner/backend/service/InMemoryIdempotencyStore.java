@@ -0,0 +1,73 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-node store. Records are kept in claim order, so expired and excess entries are always at the head.
+ */
+@Service
+@ConditionalOnProperty(name = "timeblocks.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    
+    @Value("${timeblocks.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+    
+    @Value("${timeblocks.idempotency.max-entries:100000}")
+    private int maxEntries;
+    
+    @Value("${timeblocks.idempotency.in-progress-timeout-ms:30000}")
+    private long inProgressTimeoutMs;
+    
+    private final Map<String, IdempotencyRecord> records = new LinkedHashMap<>();
+    
+    @Override
+    public synchronized Optional<IdempotencyRecord> claim(String key, String requestHash) {
+        evictExpired();
+        IdempotencyRecord existing = records.get(key);
+        if (existing != null && (existing.isCompleted() || !isAbandoned(existing))) {
+            return Optional.of(existing);
+        }
+        records.remove(key);
+        records.put(key, new IdempotencyRecord(key, requestHash));
+        while (records.size() > maxEntries) {
+            Iterator<IdempotencyRecord> oldest = records.values().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        return Optional.empty();
+    }
+    
+    @Override
+    public synchronized void complete(String key, int status, String contentType, String location, byte[] body) {
+        IdempotencyRecord record = records.get(key);
+        if (record != null) {
+            record.complete(status, contentType, location, body);
+        }
+    }
+    
+    @Override
+    public synchronized void release(String key) {
+        records.remove(key);
+    }
+    
+    private boolean isAbandoned(IdempotencyRecord record) {
+        return record.getCreatedAt().isBefore(Instant.now().minusMillis(inProgressTimeoutMs));
+    }
+    
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minusMillis(ttlMs);
+        Iterator<IdempotencyRecord> iterator = records.values().iterator();
+        while (iterator.hasNext() && iterator.next().getCreatedAt().isBefore(cutoff)) {
+            iterator.remove();
+        }
+    }
+}
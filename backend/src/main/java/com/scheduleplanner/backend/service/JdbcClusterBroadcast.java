@@ -0,0 +1,176 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.ClusterMessage;
+import com.scheduleplanner.backend.repository.ClusterMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Broadcast through a shared {@code cluster_messages} table that every node polls incrementally.
+ * Needs nothing beyond the MySQL database the nodes already share, so it works on any LAN.
+ *
+ * IDENTITY values can commit out of order: an id can show up after higher ones. Each poll reads what
+ * follows the highest id seen and re-reads only the ids it skipped, until they appear or
+ * {@code gap-timeout-ms} passes (a rolled-back insert leaves a gap that never fills). Polling runs on
+ * its own thread every {@code poll-interval-ms}, so it never waits behind the shared scheduler's jobs.
+ */
+@Service
+@ConditionalOnProperty(name = "cluster.broadcast.type", havingValue = "jdbc")
+public class JdbcClusterBroadcast implements ClusterBroadcast {
+    
+    private static final Logger log = LoggerFactory.getLogger(JdbcClusterBroadcast.class);
+    
+    // Upper bound on tracked gaps, so a large jump in the id sequence cannot exhaust memory
+    private static final int MAX_GAPS = 10000;
+    
+    @Autowired
+    private ClusterMessageRepository clusterMessageRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${cluster.broadcast.retention-ms:3600000}")
+    private long retentionMs;
+    
+    @Value("${cluster.broadcast.poll-interval-ms:50}")
+    private long pollIntervalMs;
+    
+    @Value("${cluster.broadcast.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    
+    // Skipped ids still expected to commit, in id order, with the time after which they are given up
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "cluster-broadcast-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Messages that already existed when this node started are history, not news
+    private long highestSeenId;
+    
+    private TransactionTemplate requiresNew;
+    
+    @PostConstruct
+    public void init() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        // Publishing often happens in afterCommit callbacks, where the finished transaction is still bound
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        highestSeenId = clusterMessageRepository.findTopByOrderByIdDesc()
+                .map(ClusterMessage::getId)
+                .orElse(0L);
+    }
+    
+    // Once every listener has subscribed; messages published meanwhile are picked up by the first poll
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPolling() {
+        poller.scheduleWithFixedDelay(this::pollSafely, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+    
+    @Override
+    public void publish(String channel, String payload) {
+        requiresNew.executeWithoutResult(status ->
+                clusterMessageRepository.save(new ClusterMessage(nodeId, channel, payload)));
+    }
+    
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+    
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            log.warn("Cluster broadcast poll failed", e);
+        }
+    }
+    
+    synchronized void poll() {
+        List<ClusterMessage> messages = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            messages.addAll(clusterMessageRepository.findByIdIn(gaps.keySet()));
+        }
+        messages.addAll(clusterMessageRepository.findTop500ByIdGreaterThanOrderByIdAsc(highestSeenId));
+        
+        long now = System.currentTimeMillis();
+        for (ClusterMessage message : messages) {
+            long id = message.getId();
+            if (id > highestSeenId) {
+                for (long missing = Math.max(highestSeenId + 1, id - MAX_GAPS); missing < id; missing++) {
+                    gaps.put(missing, now + gapTimeoutMs);
+                }
+                highestSeenId = id;
+            } else {
+                gaps.remove(id);
+            }
+            if (!nodeId.equals(message.getNodeId())) {
+                deliver(message);
+            }
+        }
+        
+        gaps.values().removeIf(deadline -> deadline < now);
+        Iterator<Long> oldest = gaps.keySet().iterator();
+        while (gaps.size() > MAX_GAPS) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+    
+    private void deliver(ClusterMessage message) {
+        for (Consumer<String> listener : listeners.getOrDefault(message.getChannel(), List.of())) {
+            try {
+                listener.accept(message.getPayload());
+            } catch (RuntimeException e) {
+                log.warn("Cluster listener failed for channel {}", message.getChannel(), e);
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${cluster.broadcast.cleanup-interval-ms:300000}")
+    public void purgeExpiredMessages() {
+        clusterMessageRepository.deleteByCreatedAtBefore(Instant.now().minusMillis(retentionMs));
+    }
+}
@@ -0,0 +1,94 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.IdempotencyRecord;
+import com.scheduleplanner.backend.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Store shared by all nodes through the {@code idempotency_keys} table. The primary key makes the
+ * claim atomic: of two concurrent first attempts on different nodes, only one insert succeeds.
+ */
+@Service
+@ConditionalOnProperty(name = "timeblocks.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${timeblocks.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+    
+    @Value("${timeblocks.idempotency.in-progress-timeout-ms:30000}")
+    private long inProgressTimeoutMs;
+    
+    private TransactionTemplate requiresNew;
+    
+    @PostConstruct
+    public void init() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String requestHash) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            try {
+                requiresNew.executeWithoutResult(status ->
+                        idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(key, requestHash)));
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                // Already claimed
+            }
+            
+            Optional<IdempotencyRecord> existing = requiresNew.execute(status -> idempotencyRecordRepository.findById(key));
+            if (existing.isEmpty()) {
+                // Released or purged in between; try the claim again
+                continue;
+            }
+            IdempotencyRecord record = existing.get();
+            if (!record.isCompleted() && record.getCreatedAt().isBefore(Instant.now().minusMillis(inProgressTimeoutMs))) {
+                // The node handling the first attempt gave up or died; take the key over
+                release(key);
+                continue;
+            }
+            return existing;
+        }
+        // Other attempts keep claiming and releasing the key: answer as if one of them were still running
+        return Optional.of(new IdempotencyRecord(key, requestHash));
+    }
+    
+    @Override
+    public void complete(String key, int status, String contentType, String location, byte[] body) {
+        requiresNew.executeWithoutResult(tx -> idempotencyRecordRepository.findById(key).ifPresent(record -> {
+            record.complete(status, contentType, location, body);
+            idempotencyRecordRepository.save(record);
+        }));
+    }
+    
+    @Override
+    public void release(String key) {
+        requiresNew.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(key));
+    }
+    
+    @Scheduled(fixedDelayString = "${timeblocks.idempotency.cleanup-interval-ms:300000}")
+    public void purgeExpiredRecords() {
+        idempotencyRecordRepository.deleteByCreatedAtBefore(Instant.now().minusMillis(ttlMs));
+    }
+}
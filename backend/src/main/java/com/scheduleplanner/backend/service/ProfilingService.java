@@ -0,0 +1,115 @@
+package com.scheduleplanner.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * On-demand Flight Recorder recordings for diagnosing slow requests in production. At most one
+ * recording runs at a time, and every recording is bounded in duration and size, so a forgotten
+ * recording stops on its own. The custom events in the diagnostics package are recorded alongside
+ * the JDK's own; while no recording runs they cost an enabled check per call site.
+ *
+ * Off unless {@code timeblocks.profiling.enabled} is set, since a recording exposes stack traces and
+ * request paths; the endpoints are admin-only in any case.
+ */
+@Service
+@ConditionalOnProperty(name = "timeblocks.profiling.enabled", havingValue = "true")
+public class ProfilingService {
+    
+    @Value("${timeblocks.profiling.max-duration-seconds:300}")
+    private long maxDurationSeconds;
+    
+    @Value("${timeblocks.profiling.max-size-mb:100}")
+    private long maxSizeMb;
+    
+    private Recording recording;
+    
+    private Path destination;
+    
+    public synchronized Map<String, Object> start(long durationSeconds, String settings) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        if (durationSeconds <= 0 || durationSeconds > maxDurationSeconds) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDurationSeconds + " seconds");
+        }
+        if (!"default".equals(settings) && !"profile".equals(settings)) {
+            throw new IllegalArgumentException("Settings must be \"default\" or \"profile\"");
+        }
+        discard();
+        
+        Path file = Files.createTempFile("scheduleplanner-", ".jfr");
+        Recording started = new Recording(Configuration.getConfiguration(settings));
+        started.setName("scheduleplanner-on-demand");
+        started.setToDisk(true);
+        started.setMaxSize(maxSizeMb * 1024 * 1024);
+        started.setDuration(Duration.ofSeconds(durationSeconds));
+        started.setDestination(file);
+        started.start();
+        recording = started;
+        destination = file;
+        return status();
+    }
+    
+    // Stops the recording if it is still running; the caller owns the returned file and must delete it
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording was started");
+        }
+        if (recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED) {
+            recording.stop();
+        }
+        Path file = destination;
+        recording.close();
+        recording = null;
+        destination = null;
+        if (file == null || !Files.exists(file)) {
+            throw new IllegalStateException("The recording produced no data");
+        }
+        return file;
+    }
+    
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        Instant stopTime = recording.getStopTime();
+        if (stopTime == null && recording.getStartTime() != null && recording.getDuration() != null) {
+            stopTime = recording.getStartTime().plus(recording.getDuration());
+        }
+        status.put("stopTime", stopTime);
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+    
+    @PreDestroy
+    public synchronized void discard() throws IOException {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (destination != null) {
+            Files.deleteIfExists(destination);
+            destination = null;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.ScheduleEvent;
+import com.scheduleplanner.backend.model.SlotLoad;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import com.scheduleplanner.backend.repository.TimeBlockStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory rollups for schedule dashboards: weekly minutes per (student, type) and the number of
+ * blocks covering each (day, 15-minute slot) campus-wide.
+ *
+ * The rollup is maintained from {@link ScheduleEventBus} events (local and from other nodes) and
+ * keeps the contribution of every block it has counted, so an update or delete subtracts exactly
+ * what was added. A reconciliation job periodically rebuilds it from {@code time_blocks} in
+ * parallel and swaps it in, replaying the events that arrived during the rebuild.
+ */
+@Service
+public class ScheduleAnalyticsService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ScheduleAnalyticsService.class);
+    
+    private static final int SLOT_MINUTES = 15;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    
+    @Autowired
+    private TimeBlockStore timeBlockRepository;
+    
+    @Autowired
+    private ScheduleEventBus scheduleEventBus;
+    
+    @Value("${timeblocks.analytics.reconcile-chunk-size:1000}")
+    private int chunkSize;
+    
+    private final ExecutorService reconcilePool;
+    
+    private final ExecutorService runner = Executors.newSingleThreadExecutor();
+    
+    private volatile Rollup rollup = new Rollup();
+    
+    // Events seen while a rebuild is running; replayed onto the rebuilt rollup before it is swapped in
+    private List<ScheduleEvent> eventsDuringRebuild;
+    
+    // Events seen while copied schedules are loaded; replayed over the loaded rows
+    private List<ScheduleEvent> eventsDuringRefresh;
+    
+    public ScheduleAnalyticsService(@Value("${timeblocks.analytics.reconcile-parallelism:2}") int parallelism) {
+        this.reconcilePool = Executors.newFixedThreadPool(parallelism);
+    }
+    
+    @PostConstruct
+    public void subscribe() {
+        scheduleEventBus.addListener(this::apply);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialBuild() {
+        reconcileInBackground();
+    }
+    
+    // Also the nightly job: the scheduler thread only hands the rebuild to the runner and returns
+    @Scheduled(cron = "${timeblocks.analytics.reconcile-cron:0 0 3 * * *}")
+    public void reconcileInBackground() {
+        runner.execute(this::reconcile);
+    }
+    
+    public Map<String, Double> getHoursByType(Long studentId) {
+        Map<String, LongAdder> minutesByType = rollup.minutesByStudentType.get(studentId);
+        Map<String, Double> hoursByType = new LinkedHashMap<>();
+        if (minutesByType != null) {
+            minutesByType.forEach((type, minutes) -> hoursByType.put(type, minutes.sum() / 60.0));
+        }
+        return hoursByType;
+    }
+    
+    public List<SlotLoad> getBusiestSlots(int limit) {
+        AtomicLongArray load = rollup.slotLoad;
+        PriorityQueue<Integer> top = new PriorityQueue<>((a, b) -> Long.compare(load.get(a), load.get(b)));
+        for (int slot = 0; slot < load.length(); slot++) {
+            if (load.get(slot) == 0) {
+                continue;
+            }
+            top.add(slot);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<SlotLoad> busiest = new ArrayList<>();
+        while (!top.isEmpty()) {
+            int slot = top.poll();
+            busiest.add(0, toSlotLoad(slot, load.get(slot)));
+        }
+        return busiest;
+    }
+    
+    // Day name -> number of blocks in each 15-minute slot from 00:00
+    public Map<String, long[]> getHeatmap() {
+        AtomicLongArray load = rollup.slotLoad;
+        Map<String, long[]> heatmap = new LinkedHashMap<>();
+        for (DayOfWeek day : DAYS) {
+            long[] slots = new long[SLOTS_PER_DAY];
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                slots[slot] = load.get(day.ordinal() * SLOTS_PER_DAY + slot);
+            }
+            heatmap.put(day.name(), slots);
+        }
+        return heatmap;
+    }
+    
+    private synchronized void apply(ScheduleEvent event) {
+        if (eventsDuringRebuild != null) {
+            eventsDuringRebuild.add(event);
+        }
+        if (eventsDuringRefresh != null) {
+            eventsDuringRefresh.add(event);
+        }
+        if (event.getType() == ScheduleEvent.Type.COPIED) {
+            refreshInBackground(event.getAffectedStudentIds());
+            return;
+        }
+        applyTo(rollup, event);
+    }
+    
+    private void refreshInBackground(List<Long> studentIds) {
+        runner.execute(() -> refresh(studentIds));
+    }
+    
+    // Adds the blocks of students a schedule was copied to
+    private void refresh(List<Long> studentIds) {
+        synchronized (this) {
+            eventsDuringRefresh = new ArrayList<>();
+        }
+        List<TimeBlock> loaded = new ArrayList<>();
+        try {
+            for (int from = 0; from < studentIds.size(); from += chunkSize) {
+                loaded.addAll(timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(
+                        studentIds.subList(from, Math.min(from + chunkSize, studentIds.size()))));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Loading copied schedules of {} students failed; the next reconciliation picks them up", studentIds.size(), e);
+        }
+        
+        synchronized (this) {
+            for (TimeBlock timeBlock : loaded) {
+                rollup.put(timeBlock.getTimeBlockId(), Contribution.of(new TimeBlockDTO(timeBlock)));
+            }
+            // Rows loaded may be older than events that arrived meanwhile
+            for (ScheduleEvent event : eventsDuringRefresh) {
+                applyTo(rollup, event);
+            }
+            eventsDuringRefresh = null;
+        }
+    }
+    
+    private static void applyTo(Rollup target, ScheduleEvent event) {
+        if (event.getType() == ScheduleEvent.Type.COPIED) {
+            return;
+        }
+        if (event.getType() == ScheduleEvent.Type.DELETED) {
+            target.remove(event.getTimeBlockId());
+        } else {
+            target.put(event.getTimeBlockId(), Contribution.of(event.getAfter()));
+        }
+    }
+    
+    // Runs on the runner, after any copied-schedule refresh queued before it
+    private void reconcile() {
+        synchronized (this) {
+            if (eventsDuringRebuild != null) {
+                return;
+            }
+            eventsDuringRebuild = new ArrayList<>();
+        }
+        
+        Rollup rebuilt = new Rollup();
+        try {
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            Long cursor = Long.MIN_VALUE;
+            while (true) {
+                List<Long> studentIds = timeBlockRepository.findStudentIdsAfter(cursor, chunkSize);
+                if (studentIds.isEmpty()) {
+                    break;
+                }
+                cursor = studentIds.get(studentIds.size() - 1);
+                chunks.add(CompletableFuture.runAsync(() -> {
+                    for (TimeBlock timeBlock : timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(studentIds)) {
+                        rebuilt.put(timeBlock.getTimeBlockId(), Contribution.of(new TimeBlockDTO(timeBlock)));
+                    }
+                }, reconcilePool));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+        } catch (RuntimeException e) {
+            log.warn("Schedule analytics reconciliation failed; keeping the incremental rollup", e);
+            synchronized (this) {
+                eventsDuringRebuild = null;
+            }
+            return;
+        }
+        
+        synchronized (this) {
+            for (ScheduleEvent event : eventsDuringRebuild) {
+                applyTo(rebuilt, event);
+                // The scan may have passed these students before their copies committed
+                if (event.getType() == ScheduleEvent.Type.COPIED) {
+                    refreshInBackground(event.getAffectedStudentIds());
+                }
+            }
+            eventsDuringRebuild = null;
+            rollup = rebuilt;
+        }
+    }
+    
+    private static SlotLoad toSlotLoad(int slot, long timeBlocks) {
+        int slotOfDay = slot % SLOTS_PER_DAY;
+        LocalTime start = LocalTime.of(0, 0).plusMinutes((long) slotOfDay * SLOT_MINUTES);
+        return new SlotLoad(DAYS[slot / SLOTS_PER_DAY].name(), start, start.plusMinutes(SLOT_MINUTES), timeBlocks);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        reconcilePool.shutdownNow();
+    }
+    
+    private static class Rollup {
+        private final Map<Long, Contribution> contributions = new ConcurrentHashMap<>();
+        private final Map<Long, Map<String, LongAdder>> minutesByStudentType = new ConcurrentHashMap<>();
+        private final AtomicLongArray slotLoad = new AtomicLongArray(DAYS.length * SLOTS_PER_DAY);
+        
+        private void put(Long timeBlockId, Contribution contribution) {
+            Contribution previous = contributions.put(timeBlockId, contribution);
+            if (previous != null) {
+                add(previous, -1);
+            }
+            add(contribution, 1);
+        }
+        
+        private void remove(Long timeBlockId) {
+            Contribution previous = contributions.remove(timeBlockId);
+            if (previous != null) {
+                add(previous, -1);
+            }
+        }
+        
+        private void add(Contribution contribution, int sign) {
+            if (contribution.studentId != null) {
+                minutesByStudentType
+                        .computeIfAbsent(contribution.studentId, key -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(contribution.type, key -> new LongAdder())
+                        .add(sign * contribution.minutes);
+            }
+            int base = contribution.day * SLOTS_PER_DAY;
+            for (int slot = contribution.firstSlot; slot < contribution.endSlot; slot++) {
+                slotLoad.addAndGet(base + slot, sign);
+            }
+        }
+    }
+    
+    private static class Contribution {
+        private final Long studentId;
+        private final String type;
+        private final int day;
+        private final int firstSlot;
+        private final int endSlot;
+        private final long minutes;
+        
+        private Contribution(Long studentId, String type, int day, int firstSlot, int endSlot, long minutes) {
+            this.studentId = studentId;
+            this.type = type;
+            this.day = day;
+            this.firstSlot = firstSlot;
+            this.endSlot = endSlot;
+            this.minutes = minutes;
+        }
+        
+        private static Contribution of(TimeBlockDTO timeBlock) {
+            int start = timeBlock.getStartTime().toSecondOfDay() / 60;
+            int end = timeBlock.getEndTime().toSecondOfDay() / 60;
+            return new Contribution(timeBlock.getStudentId(), timeBlock.getType(),
+                    DayOfWeek.valueOf(timeBlock.getDay()).ordinal(),
+                    start / SLOT_MINUTES, (end + SLOT_MINUTES - 1) / SLOT_MINUTES,
+                    Math.max(0, end - start));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.ConflictPair;
+import com.scheduleplanner.backend.model.ScheduleCopyRequest;
+import com.scheduleplanner.backend.model.ScheduleCopyRequest.ConflictPolicy;
+import com.scheduleplanner.backend.model.ScheduleCopyResult;
+import com.scheduleplanner.backend.model.ScheduleEvent;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.repository.TimeBlockStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Server-side schedule copies: cloning one template student's schedule to many students, and rolling
+ * schedules over from one set of students to another. The copy itself is set-based in the store; the
+ * optional conflict check runs inside the copy transaction against the targets' locked schedules and
+ * compares them with the sources in memory in one pass, instead of one overlap query per copied block.
+ *
+ * A copy raises a single {@link ScheduleEvent.Type#COPIED} event naming the target students rather than
+ * one event per copied row; listeners reload those students' schedules.
+ */
+@Service
+public class ScheduleCopyService {
+    
+    @Autowired
+    private TimeBlockStore timeBlockRepository;
+    
+    @Autowired
+    private ScheduleEventBus scheduleEventBus;
+    
+    @Value("${timeblocks.copy.max-targets:20000}")
+    private int maxTargets;
+    
+    public ScheduleCopyResult cloneSchedule(Long sourceStudentId, ScheduleCopyRequest request) {
+        if (request.getTargetStudentIds() == null || request.getTargetStudentIds().isEmpty()) {
+            throw new IllegalArgumentException("At least one target student is required");
+        }
+        Map<Long, Long> sourceByTarget = new LinkedHashMap<>();
+        for (Long target : new LinkedHashSet<>(request.getTargetStudentIds())) {
+            sourceByTarget.put(target, sourceStudentId);
+        }
+        return copy(sourceByTarget, request);
+    }
+    
+    public ScheduleCopyResult rollover(ScheduleCopyRequest request) {
+        if (request.getStudentMapping() == null || request.getStudentMapping().isEmpty()) {
+            throw new IllegalArgumentException("At least one student mapping is required");
+        }
+        Map<Long, Long> sourceByTarget = new LinkedHashMap<>();
+        request.getStudentMapping().forEach((source, target) -> {
+            if (sourceByTarget.put(target, source) != null) {
+                throw new IllegalArgumentException("Student " + target + " is the target of more than one mapping");
+            }
+        });
+        return copy(sourceByTarget, request);
+    }
+    
+    private ScheduleCopyResult copy(Map<Long, Long> sourceByTarget, ScheduleCopyRequest request) {
+        if (sourceByTarget.size() > maxTargets) {
+            throw new IllegalArgumentException("At most " + maxTargets + " students can be copied to at once");
+        }
+        sourceByTarget.forEach((target, source) -> {
+            if (target == null || source == null || target.equals(source)) {
+                throw new IllegalArgumentException("A schedule can only be copied to another student");
+            }
+        });
+        
+        List<ConflictPair> conflicts = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        ConflictPolicy policy = request.getOnConflict() != null ? request.getOnConflict() : ConflictPolicy.REJECT;
+        TimeBlockStore.CopyFilter filter = null;
+        if (policy != ConflictPolicy.IGNORE) {
+            // Runs in the copy transaction (once per shard), so no write can slip in between check and copy
+            filter = (pairs, sources, targets) -> {
+                List<ConflictPair> found = findConflicts(pairs, sources, targets);
+                if (!found.isEmpty() && policy == ConflictPolicy.REJECT) {
+                    throw new ConflictException(new ScheduleCopyResult(0, 0, List.of(), found));
+                }
+                Set<Long> conflicting = found.stream().map(ConflictPair::getStudentId).collect(Collectors.toCollection(LinkedHashSet::new));
+                conflicts.addAll(found);
+                skipped.addAll(conflicting);
+                return conflicting;
+            };
+        }
+        
+        Map<String, String> colors = request.getColors() != null ? request.getColors() : Map.of();
+        List<TimeBlock> copies = timeBlockRepository.copySchedules(sourceByTarget, request.getWeeks(), colors, filter);
+        Set<Long> copiedTo = copies.stream().map(TimeBlock::getStudentId).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!copiedTo.isEmpty()) {
+            scheduleEventBus.publish(ScheduleEvent.copied(copiedTo, copies.size()));
+        }
+        return new ScheduleCopyResult(copies.size(), sourceByTarget.size() - skipped.size(), skipped, conflicts);
+    }
+    
+    // Existing target blocks that overlap a block of the schedule copied to that target
+    private static List<ConflictPair> findConflicts(Map<Long, Long> sourceByTarget, Map<Long, List<TimeBlock>> sources,
+                                                    Map<Long, List<TimeBlock>> targets) {
+        List<ConflictPair> conflicts = new ArrayList<>();
+        sourceByTarget.forEach((target, source) -> {
+            List<TimeBlock> template = sources.getOrDefault(source, List.of());
+            for (TimeBlock current : targets.getOrDefault(target, List.of())) {
+                for (TimeBlock copied : template) {
+                    if (current.getDay() == copied.getDay() && overlaps(current, copied)) {
+                        conflicts.add(new ConflictPair(current, copied));
+                    }
+                }
+            }
+        });
+        return conflicts;
+    }
+    
+    // Same predicate as the overlap queries
+    private static boolean overlaps(TimeBlock a, TimeBlock b) {
+        return (!a.getStartTime().isAfter(b.getStartTime()) && a.getEndTime().isAfter(b.getStartTime()))
+                || (a.getStartTime().isBefore(b.getEndTime()) && !a.getEndTime().isBefore(b.getEndTime()))
+                || (!a.getStartTime().isBefore(b.getStartTime()) && !a.getEndTime().isAfter(b.getEndTime()));
+    }
+    
+    public static class ConflictException extends RuntimeException {
+        private final ScheduleCopyResult result;
+        
+        public ConflictException(ScheduleCopyResult result) {
+            super("Copied blocks would overlap existing time blocks");
+            this.result = result;
+        }
+        
+        public ScheduleCopyResult getResult() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.scheduleplanner.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduleplanner.backend.model.ScheduleEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of schedule changes.
+ *
+ * Each SSE subscriber owns a bounded buffer; when a slow client falls behind, the oldest pending
+ * events are dropped rather than blocking publishers or growing memory. Idle subscribers hold no
+ * thread: the emitters are async servlet responses and events are written by a small shared pool.
+ *
+ * Local events are also sent to the other nodes through {@link ClusterBroadcast}, and events from
+ * other nodes are delivered here (flagged as remote) without being re-broadcast.
+ */
+@Service
+public class ScheduleEventBus {
+    
+    private static final Logger log = LoggerFactory.getLogger(ScheduleEventBus.class);
+    
+    private static final String CLUSTER_CHANNEL = "schedule-events";
+    
+    @Autowired
+    private ClusterBroadcast clusterBroadcast;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${timeblocks.events.buffer-size:64}")
+    private int bufferSize;
+    
+    @Value("${timeblocks.events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+    
+    private final ExecutorService dispatcher;
+    
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    
+    private final List<Consumer<ScheduleEvent>> listeners = new CopyOnWriteArrayList<>();
+    
+    public ScheduleEventBus(@Value("${timeblocks.events.dispatch-threads:4}") int dispatchThreads) {
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads);
+    }
+    
+    @PostConstruct
+    public void joinCluster() {
+        clusterBroadcast.subscribe(CLUSTER_CHANNEL, this::onRemoteEvent);
+    }
+    
+    /**
+     * Publishes an event to listeners and subscribers. When called inside a transaction the event
+     * is held back until commit, so clients never see a change that is later rolled back.
+     */
+    public void publish(ScheduleEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatchAndBroadcast(event);
+                }
+            });
+        } else {
+            dispatchAndBroadcast(event);
+        }
+    }
+    
+    private void dispatchAndBroadcast(ScheduleEvent event) {
+        dispatch(event);
+        try {
+            clusterBroadcast.publish(CLUSTER_CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not broadcast schedule event for time block {}", event.getTimeBlockId(), e);
+        }
+    }
+    
+    private void onRemoteEvent(String payload) {
+        try {
+            ScheduleEvent event = objectMapper.readValue(payload, ScheduleEvent.class);
+            event.setRemote(true);
+            dispatch(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed schedule event from another node", e);
+        }
+    }
+    
+    // Listeners see local and remote events and run on the publishing thread, so they must be cheap
+    public void addListener(Consumer<ScheduleEvent> listener) {
+        listeners.add(listener);
+    }
+    
+    public SseEmitter subscribe(Long studentId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(studentId, emitter);
+        subscribers.computeIfAbsent(studentId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+    
+    protected void dispatch(ScheduleEvent event) {
+        for (Consumer<ScheduleEvent> listener : listeners) {
+            listener.accept(event);
+        }
+        
+        if (event.getType() == ScheduleEvent.Type.COPIED) {
+            // A subscriber only learns that its own student's schedule was copied to, not who else was
+            for (Long studentId : event.getAffectedStudentIds()) {
+                if (subscribers.containsKey(studentId)) {
+                    ScheduleEvent own = new ScheduleEvent(ScheduleEvent.Type.COPIED, studentId, null, null, null);
+                    own.setStudentIds(List.of(studentId));
+                    own.setOccurredAt(event.getOccurredAt());
+                    deliver(studentId, own);
+                }
+            }
+            return;
+        }
+        deliver(event.getStudentId(), event);
+        // A block moved to another student must also disappear from the previous owner's view
+        if (event.getBefore() != null && event.getBefore().getStudentId() != null
+                && !event.getBefore().getStudentId().equals(event.getStudentId())) {
+            deliver(event.getBefore().getStudentId(), event);
+        }
+    }
+    
+    private void deliver(Long studentId, ScheduleEvent event) {
+        if (studentId == null) {
+            return;
+        }
+        Set<Subscriber> targets = subscribers.get(studentId);
+        if (targets == null) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(event);
+        }
+    }
+    
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.studentId, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+    
+    // Keeps intermediaries from closing idle streams and detects clients that went away
+    @Scheduled(fixedDelayString = "${timeblocks.events.heartbeat-interval-ms:25000}")
+    public void sendHeartbeats() {
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                dispatcher.execute(subscriber::heartbeat);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    private class Subscriber {
+        private final Long studentId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<ScheduleEvent> buffer = new ArrayDeque<>();
+        private boolean flushing;
+        
+        private Subscriber(Long studentId, SseEmitter emitter) {
+            this.studentId = studentId;
+            this.emitter = emitter;
+        }
+        
+        private void offer(ScheduleEvent event) {
+            boolean startFlush;
+            synchronized (this) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                }
+                buffer.addLast(event);
+                startFlush = !flushing;
+                flushing = true;
+            }
+            if (startFlush) {
+                dispatcher.execute(this::flush);
+            }
+        }
+        
+        private void flush() {
+            while (true) {
+                ScheduleEvent event;
+                synchronized (this) {
+                    event = buffer.pollFirst();
+                    if (event == null) {
+                        flushing = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(SseEmitter.event()
+                            .name(event.getType().name())
+                            .data(event));
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                    return;
+                }
+            }
+        }
+        
+        private void heartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+        
+        private void close() {
+            unsubscribe(this);
+            synchronized (this) {
+                buffer.clear();
+            }
+            emitter.completeWithError(new IOException("Subscriber disconnected"));
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.FlexibleTask;
+import com.scheduleplanner.backend.model.OptimizeResponse;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Places flexible tasks into a student's free time around their fixed time blocks.
+ *
+ * The week is modelled as one bitmap of 5-minute slots per day. Tasks are searched most-constrained
+ * first with branch-and-bound: each node forward-checks which remaining tasks still have a free
+ * candidate, and prunes when it cannot beat the best solution found so far (most tasks placed,
+ * then earliest placements). The first task's candidate days are explored in parallel on a
+ * fork-join pool, sharing one incumbent, and the search stops at the configured time limit.
+ */
+@Service
+public class ScheduleOptimizerService {
+    
+    private static final int SLOT_MINUTES = 5;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    
+    @Autowired
+    private TimeBlockService timeBlockService;
+    
+    @Autowired
+    private TypeColorRegistry typeColorRegistry;
+    
+    @Value("${timeblocks.optimizer.time-limit-ms:150}")
+    private long timeLimitMs;
+    
+    @Value("${timeblocks.optimizer.step-minutes:15}")
+    private int stepMinutes;
+    
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    
+    public OptimizeResponse optimize(Long studentId, List<FlexibleTask> flexibleTasks) {
+        long started = System.nanoTime();
+        
+        BitSet[] occupied = new BitSet[DAYS.length];
+        for (int day = 0; day < DAYS.length; day++) {
+            occupied[day] = new BitSet(SLOTS_PER_DAY);
+        }
+        for (TimeBlock fixed : timeBlockService.getTimeBlocksByStudentId(studentId)) {
+            int start = toSlotFloor(fixed.getStartTime());
+            int end = toSlotCeil(fixed.getEndTime());
+            if (end > start) {
+                occupied[fixed.getDay().ordinal()].set(start, end);
+            }
+        }
+        
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < flexibleTasks.size(); i++) {
+            tasks.add(prepare(i, flexibleTasks.get(i), occupied));
+        }
+        // Most constrained first: fewer candidates means earlier failure and tighter bounds
+        tasks.sort(Comparator.comparingInt(task -> task.candidates.length));
+        
+        Search search = new Search(tasks.toArray(new Task[0]), started + timeLimitMs * 1_000_000L);
+        pool.invoke(search.root(occupied));
+        
+        return toResponse(studentId, flexibleTasks, tasks, search, started);
+    }
+    
+    private Task prepare(int index, FlexibleTask flexibleTask, BitSet[] occupied) {
+        int length = (flexibleTask.getDurationMinutes() + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        int step = Math.max(1, stepMinutes / SLOT_MINUTES);
+        int windowStart = flexibleTask.getWindowStart() != null ? toSlotCeil(flexibleTask.getWindowStart()) : 0;
+        int windowEnd = flexibleTask.getWindowEnd() != null ? toSlotFloor(flexibleTask.getWindowEnd()) : SLOTS_PER_DAY;
+        
+        // Align starts to the step so proposals land on "nice" times
+        int firstStart = ((windowStart + step - 1) / step) * step;
+        
+        List<int[]> candidates = new ArrayList<>();
+        for (DayOfWeek day : allowedDays(flexibleTask)) {
+            BitSet dayBits = occupied[day.ordinal()];
+            for (int start = firstStart; start + length <= windowEnd; start += step) {
+                if (isFree(dayBits, start, length)) {
+                    candidates.add(new int[] { start, day.ordinal() });
+                }
+            }
+        }
+        // Cost order: earliest time of day first, then earliest day of the week
+        candidates.sort(Comparator.<int[]>comparingInt(c -> c[0]).thenComparingInt(c -> c[1]));
+        
+        int[] encoded = new int[candidates.size()];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = candidates.get(i)[1] * SLOTS_PER_DAY + candidates.get(i)[0];
+        }
+        return new Task(index, length, encoded);
+    }
+    
+    private List<DayOfWeek> allowedDays(FlexibleTask flexibleTask) {
+        if (flexibleTask.getAllowedDays() == null || flexibleTask.getAllowedDays().isEmpty()) {
+            return Arrays.asList(DAYS);
+        }
+        List<DayOfWeek> days = new ArrayList<>();
+        for (String day : flexibleTask.getAllowedDays()) {
+            days.add(DayOfWeek.valueOf(day));
+        }
+        return days;
+    }
+    
+    private OptimizeResponse toResponse(Long studentId, List<FlexibleTask> flexibleTasks, List<Task> tasks,
+                                        Search search, long started) {
+        Solution best = search.best;
+        List<TimeBlockDTO> placements = new ArrayList<>();
+        List<String> unplaced = new ArrayList<>();
+        
+        for (int i = 0; i < tasks.size(); i++) {
+            FlexibleTask flexibleTask = flexibleTasks.get(tasks.get(i).index);
+            int position = best.assignment[i];
+            if (position < 0) {
+                unplaced.add(flexibleTask.getTitle());
+                continue;
+            }
+            int day = position / SLOTS_PER_DAY;
+            int start = position % SLOTS_PER_DAY;
+            TimeBlock proposal = new TimeBlock(flexibleTask.getTitle(),
+                    toTime(start), toTime(start + tasks.get(i).length), DAYS[day],
+                    flexibleTask.getType(), flexibleTask.getWeeks(), flexibleTask.getDescription(),
+                    typeColorRegistry.colorFor(studentId, flexibleTask.getType()), studentId);
+            placements.add(new TimeBlockDTO(proposal));
+        }
+        
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000L;
+        return new OptimizeResponse(placements, unplaced, !search.timedOut, elapsedMs);
+    }
+    
+    private static boolean isFree(BitSet dayBits, int start, int length) {
+        int next = dayBits.nextSetBit(start);
+        return next < 0 || next >= start + length;
+    }
+    
+    private static int toSlotFloor(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+    
+    private static int toSlotCeil(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute() + (time.getSecond() > 0 ? 1 : 0);
+        return Math.min(SLOTS_PER_DAY, (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+    }
+    
+    private static LocalTime toTime(int slot) {
+        return slot >= SLOTS_PER_DAY ? LocalTime.of(23, 59, 59) : LocalTime.of(0, 0).plusMinutes((long) slot * SLOT_MINUTES);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+    
+    private static class Task {
+        private final int index;
+        private final int length;
+        private final int[] candidates;
+        
+        private Task(int index, int length, int[] candidates) {
+            this.index = index;
+            this.length = length;
+            this.candidates = candidates;
+        }
+    }
+    
+    private static class Solution {
+        private final int placed;
+        private final long cost;
+        private final int[] assignment;
+        
+        private Solution(int placed, long cost, int[] assignment) {
+            this.placed = placed;
+            this.cost = cost;
+            this.assignment = assignment;
+        }
+    }
+    
+    private static class Search {
+        private final Task[] tasks;
+        private final long deadline;
+        private volatile Solution best;
+        private volatile boolean timedOut;
+        
+        private Search(Task[] tasks, long deadline) {
+            this.tasks = tasks;
+            this.deadline = deadline;
+            int[] nothingPlaced = new int[tasks.length];
+            Arrays.fill(nothingPlaced, -1);
+            this.best = new Solution(0, Long.MAX_VALUE, nothingPlaced);
+        }
+        
+        private RecursiveAction root(BitSet[] occupied) {
+            return new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    if (tasks.length == 0) {
+                        return;
+                    }
+                    // One branch per candidate day of the first task, plus the branch that leaves it unplaced
+                    List<RecursiveAction> branches = new ArrayList<>();
+                    for (int day = 0; day < DAYS.length; day++) {
+                        int branchDay = day;
+                        branches.add(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                searchFirstTaskOnDay(branchDay, copy(occupied));
+                            }
+                        });
+                    }
+                    branches.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            int[] assignment = new int[tasks.length];
+                            assignment[0] = -1;
+                            dfs(1, copy(occupied), assignment, 0, 0);
+                        }
+                    });
+                    invokeAll(branches);
+                }
+            };
+        }
+        
+        private void searchFirstTaskOnDay(int day, BitSet[] occupied) {
+            Task first = tasks[0];
+            int[] assignment = new int[tasks.length];
+            for (int rank = 0; rank < first.candidates.length; rank++) {
+                int position = first.candidates[rank];
+                if (position / SLOTS_PER_DAY != day) {
+                    continue;
+                }
+                int start = position % SLOTS_PER_DAY;
+                occupied[day].set(start, start + first.length);
+                assignment[0] = position;
+                dfs(1, occupied, assignment, 1, rank);
+                occupied[day].clear(start, start + first.length);
+                if (timedOut) {
+                    return;
+                }
+            }
+        }
+        
+        private void dfs(int i, BitSet[] occupied, int[] assignment, int placed, long cost) {
+            if (timedOut || System.nanoTime() > deadline) {
+                timedOut = true;
+                return;
+            }
+            if (i == tasks.length) {
+                offer(placed, cost, assignment);
+                return;
+            }
+            
+            // Forward check: remaining tasks with no free candidate left can no longer be placed
+            int upperBound = placed;
+            for (int j = i; j < tasks.length; j++) {
+                if (hasFreeCandidate(tasks[j], occupied)) {
+                    upperBound++;
+                }
+            }
+            Solution incumbent = best;
+            if (upperBound < incumbent.placed || (upperBound == incumbent.placed && cost >= incumbent.cost)) {
+                return;
+            }
+            
+            Task task = tasks[i];
+            for (int rank = 0; rank < task.candidates.length; rank++) {
+                int position = task.candidates[rank];
+                int day = position / SLOTS_PER_DAY;
+                int start = position % SLOTS_PER_DAY;
+                if (!isFree(occupied[day], start, task.length)) {
+                    continue;
+                }
+                occupied[day].set(start, start + task.length);
+                assignment[i] = position;
+                dfs(i + 1, occupied, assignment, placed + 1, cost + rank);
+                occupied[day].clear(start, start + task.length);
+                if (timedOut) {
+                    return;
+                }
+            }
+            
+            assignment[i] = -1;
+            dfs(i + 1, occupied, assignment, placed, cost);
+        }
+        
+        private boolean hasFreeCandidate(Task task, BitSet[] occupied) {
+            for (int position : task.candidates) {
+                if (isFree(occupied[position / SLOTS_PER_DAY], position % SLOTS_PER_DAY, task.length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private synchronized void offer(int placed, long cost, int[] assignment) {
+            if (placed > best.placed || (placed == best.placed && cost < best.cost)) {
+                best = new Solution(placed, cost, assignment.clone());
+            }
+        }
+        
+        private static BitSet[] copy(BitSet[] occupied) {
+            BitSet[] copy = new BitSet[occupied.length];
+            for (int day = 0; day < occupied.length; day++) {
+                copy[day] = (BitSet) occupied[day].clone();
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.ScheduleEvent;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The last schedule read from the database for recently viewed students, served with a staleness
+ * warning while the database circuit is open. Snapshots are kept current from {@link ScheduleEventBus}
+ * events in the meantime; the capture time still reflects the last database read, because events from
+ * other nodes can be missed.
+ */
+@Service
+public class ScheduleSnapshotCache {
+    
+    private static final Comparator<TimeBlockDTO> SCHEDULE_ORDER = Comparator
+            .comparing((TimeBlockDTO timeBlock) -> DayOfWeek.valueOf(timeBlock.getDay()))
+            .thenComparing(TimeBlockDTO::getStartTime);
+    
+    @Autowired
+    private ScheduleEventBus scheduleEventBus;
+    
+    private final Map<Long, Snapshot> snapshots;
+    
+    public ScheduleSnapshotCache(@Value("${timeblocks.resilience.snapshot-students:10000}") int maxStudents) {
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Snapshot> eldest) {
+                return size() > maxStudents;
+            }
+        };
+    }
+    
+    @PostConstruct
+    public void subscribe() {
+        scheduleEventBus.addListener(this::apply);
+    }
+    
+    public synchronized void remember(Long studentId, List<TimeBlock> schedule) {
+        List<TimeBlockDTO> timeBlocks = new ArrayList<>(schedule.size());
+        for (TimeBlock timeBlock : schedule) {
+            timeBlocks.add(new TimeBlockDTO(timeBlock));
+        }
+        timeBlocks.sort(SCHEDULE_ORDER);
+        snapshots.put(studentId, new Snapshot(List.copyOf(timeBlocks), Instant.now()));
+    }
+    
+    public synchronized Optional<Snapshot> get(Long studentId) {
+        return Optional.ofNullable(snapshots.get(studentId));
+    }
+    
+    private synchronized void apply(ScheduleEvent event) {
+        if (event.getType() == ScheduleEvent.Type.COPIED) {
+            // Recaptured on the students' next read
+            event.getAffectedStudentIds().forEach(snapshots::remove);
+            return;
+        }
+        if (event.getBefore() != null && event.getBefore().getStudentId() != null
+                && !event.getBefore().getStudentId().equals(event.getStudentId())) {
+            replace(event.getBefore().getStudentId(), event.getTimeBlockId(), null);
+        }
+        if (event.getStudentId() != null) {
+            replace(event.getStudentId(), event.getTimeBlockId(),
+                    event.getType() == ScheduleEvent.Type.DELETED ? null : event.getAfter());
+        }
+    }
+    
+    // Only students that already have a snapshot are updated; others are captured on their next read
+    private void replace(Long studentId, Long timeBlockId, TimeBlockDTO replacement) {
+        Snapshot snapshot = snapshots.get(studentId);
+        if (snapshot == null) {
+            return;
+        }
+        List<TimeBlockDTO> timeBlocks = new ArrayList<>(snapshot.timeBlocks().size() + 1);
+        for (TimeBlockDTO timeBlock : snapshot.timeBlocks()) {
+            if (!timeBlock.getTimeBlockId().equals(timeBlockId)) {
+                timeBlocks.add(timeBlock);
+            }
+        }
+        if (replacement != null) {
+            timeBlocks.add(replacement);
+            timeBlocks.sort(SCHEDULE_ORDER);
+        }
+        snapshots.put(studentId, new Snapshot(List.copyOf(timeBlocks), snapshot.capturedAt()));
+    }
+    
+    public record Snapshot(List<TimeBlockDTO> timeBlocks, Instant capturedAt) {}
+}
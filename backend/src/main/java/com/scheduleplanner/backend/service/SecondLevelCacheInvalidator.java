@@ -0,0 +1,80 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.ScheduleEvent;
+import com.scheduleplanner.backend.model.Student;
+import com.scheduleplanner.backend.model.TimeBlock;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the Hibernate second-level cache correct when several nodes share the database.
+ *
+ * Writes made through this node's session factory already invalidate its own entity, natural-id
+ * and query regions. Writes made on other nodes do not, so time blocks changed elsewhere are
+ * evicted when their {@link ScheduleEvent} arrives, and a registration on another node drops the
+ * cached student queries (e.g. a stale "email not taken" answer).
+ */
+@Service
+public class SecondLevelCacheInvalidator {
+    
+    private static final String CLUSTER_CHANNEL = "l2-cache";
+    
+    private static final String STUDENTS_CHANGED = "students";
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private ScheduleEventBus scheduleEventBus;
+    
+    @Autowired
+    private ClusterBroadcast clusterBroadcast;
+    
+    @PostConstruct
+    public void subscribe() {
+        scheduleEventBus.addListener(this::onScheduleEvent);
+        clusterBroadcast.subscribe(CLUSTER_CHANNEL, this::onRemoteMessage);
+    }
+    
+    /**
+     * Tells the other nodes that the students table changed; sent after commit when called inside
+     * a transaction, so they never reload the old rows before the change is visible.
+     */
+    public void studentsChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clusterBroadcast.publish(CLUSTER_CHANNEL, STUDENTS_CHANGED);
+                }
+            });
+        } else {
+            clusterBroadcast.publish(CLUSTER_CHANNEL, STUDENTS_CHANGED);
+        }
+    }
+    
+    private void onScheduleEvent(ScheduleEvent event) {
+        // A copy only inserts rows, which no node can have cached yet
+        if (event.isRemote() && event.getTimeBlockId() != null) {
+            cache().evictEntityData(TimeBlock.class, event.getTimeBlockId());
+        }
+    }
+    
+    private void onRemoteMessage(String payload) {
+        if (STUDENTS_CHANGED.equals(payload)) {
+            Cache cache = cache();
+            cache.evictEntityData(Student.class);
+            cache.evictNaturalIdData(Student.class);
+            cache.evictDefaultQueryRegion();
+        }
+    }
+    
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
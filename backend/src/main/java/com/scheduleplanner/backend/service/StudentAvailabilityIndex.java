@@ -0,0 +1,138 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.repository.StudentRepository.Handles;
+import com.scheduleplanner.backend.repository.StudentStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory Bloom filters of every registered email and username, so an availability check for a
+ * value nobody has taken is answered without touching the database. Only a possible match falls
+ * back to a query. Until the filters are built at startup every check goes to the database.
+ *
+ * Values are normalized (trimmed, lower-cased, accents stripped) to match the unique indexes, whose
+ * {@code utf8mb4_0900_ai_ci} collation is case- and accent-insensitive.
+ * Registrations on other nodes arrive through {@link ClusterBroadcast}.
+ */
+@Service
+public class StudentAvailabilityIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(StudentAvailabilityIndex.class);
+    
+    private static final String CLUSTER_CHANNEL = "student-handles";
+    
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    
+    @Autowired
+    private StudentStore studentStore;
+    
+    @Autowired
+    private ClusterBroadcast clusterBroadcast;
+    
+    @Value("${timeblocks.availability.expected-students:200000}")
+    private long expectedStudents;
+    
+    @Value("${timeblocks.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${timeblocks.availability.load-page-size:5000}")
+    private int loadPageSize;
+    
+    private BloomFilter emails;
+    
+    private BloomFilter usernames;
+    
+    private final AtomicLong size = new AtomicLong();
+    
+    private volatile boolean ready;
+    
+    @PostConstruct
+    public void init() {
+        emails = new BloomFilter(expectedStudents, falsePositiveRate);
+        usernames = new BloomFilter(expectedStudents, falsePositiveRate);
+        clusterBroadcast.subscribe(CLUSTER_CHANNEL, this::onRemoteRegistration);
+    }
+    
+    // Registrations during the load are added directly, so nothing is missed once ready flips
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        Long cursor = Long.MIN_VALUE;
+        while (true) {
+            List<Handles> page = studentStore.findHandlesAfter(cursor, loadPageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Handles handles : page) {
+                add(handles.getEmail(), handles.getUsername());
+            }
+            cursor = page.get(page.size() - 1).getStudentId();
+        }
+        ready = true;
+        log.info("Loaded {} students into the availability filters in {} ms", size.get(),
+                System.currentTimeMillis() - started);
+    }
+    
+    public boolean mightContainEmail(String email) {
+        return !ready || emails.mightContain(normalize(email));
+    }
+    
+    public boolean mightContainUsername(String username) {
+        return !ready || usernames.mightContain(normalize(username));
+    }
+    
+    /**
+     * Records a new student here immediately and on the other nodes once the transaction commits.
+     * A rolled-back registration leaves harmless extra bits behind.
+     */
+    public void registered(String email, String username) {
+        add(email, username);
+        String payload = email + "\n" + username;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clusterBroadcast.publish(CLUSTER_CHANNEL, payload);
+                }
+            });
+        } else {
+            clusterBroadcast.publish(CLUSTER_CHANNEL, payload);
+        }
+    }
+    
+    private void onRemoteRegistration(String payload) {
+        int separator = payload.indexOf('\n');
+        if (separator > 0) {
+            add(payload.substring(0, separator), payload.substring(separator + 1));
+        }
+    }
+    
+    private void add(String email, String username) {
+        emails.add(normalize(email));
+        usernames.add(normalize(username));
+        if (size.incrementAndGet() == expectedStudents + 1) {
+            log.warn("More than {} students registered; raise timeblocks.availability.expected-students "
+                    + "to keep the false-positive rate down", expectedStudents);
+        }
+    }
+    
+    // "José" and "jose" are the same value to the collation, so they must set the same bits
+    private static String normalize(String value) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(value.trim(), Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+}
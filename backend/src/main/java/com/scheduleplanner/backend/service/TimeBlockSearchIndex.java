@@ -0,0 +1,413 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.ScheduleEvent;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import com.scheduleplanner.backend.repository.TimeBlockStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Keyword search over time block titles and descriptions, served from an in-memory inverted index.
+ *
+ * The index is partitioned by student: each partition maps its terms (in a sorted dictionary, so a
+ * prefix is a range) to sorted arrays of block ids, and holds the indexed blocks themselves. A query
+ * only touches the partitions of the students it names, so its cost depends on their schedules, not
+ * on the size of {@code time_blocks}. Fuzzy matching compares query terms against a partition's
+ * dictionary within a small edit distance.
+ *
+ * The index is built at startup and then kept current from {@link ScheduleEventBus} events, local
+ * and from other nodes, like the analytics rollup.
+ */
+@Service
+public class TimeBlockSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(TimeBlockSearchIndex.class);
+    
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    
+    private static final long[] NO_POSTINGS = new long[0];
+    
+    // Scores per query term by how it matched; a match in the title counts double
+    private static final int EXACT_SCORE = 4;
+    private static final int PREFIX_SCORE = 2;
+    private static final int FUZZY_SCORE = 1;
+    
+    @Autowired
+    private TimeBlockStore timeBlockRepository;
+    
+    @Autowired
+    private ScheduleEventBus scheduleEventBus;
+    
+    @Value("${timeblocks.search.build-chunk-size:1000}")
+    private int buildChunkSize;
+    
+    private final Map<Long, Partition> partitions = new ConcurrentHashMap<>();
+    
+    // Block id -> owning student, to find the partition when a block is deleted or moved
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+    
+    private final ExecutorService runner = Executors.newSingleThreadExecutor();
+    
+    private volatile boolean ready;
+    
+    // Events seen while the initial build or a reindex runs; replayed over the loaded rows when it finishes
+    private List<ScheduleEvent> eventsDuringBuild = new ArrayList<>();
+    
+    @PostConstruct
+    public void subscribe() {
+        scheduleEventBus.addListener(this::apply);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        runner.execute(this::build);
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public int getIndexedCount() {
+        return owners.size();
+    }
+    
+    /**
+     * Blocks of the given students matching every query term, best matches first. The last term also
+     * matches as a prefix (search-as-you-type), as does any term ending in {@code *}; with {@code fuzzy}
+     * a term also matches dictionary terms one edit away (two for terms of eight or more characters).
+     */
+    public List<TimeBlockDTO> search(String query, Collection<Long> studentIds, boolean fuzzy, int limit) {
+        List<QueryTerm> terms = parse(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Query has no searchable terms");
+        }
+        
+        List<Hit> hits = new ArrayList<>();
+        for (Long studentId : new LinkedHashSet<>(studentIds)) {
+            Partition partition = partitions.get(studentId);
+            if (partition != null) {
+                partition.search(terms, fuzzy, hits);
+            }
+        }
+        
+        hits.sort(Comparator.comparingInt((Hit hit) -> hit.score).reversed()
+                .thenComparing(hit -> DayOfWeek.valueOf(hit.timeBlock.getDay()))
+                .thenComparing(hit -> hit.timeBlock.getStartTime()));
+        return hits.stream().limit(limit).map(hit -> hit.timeBlock).toList();
+    }
+    
+    private void apply(ScheduleEvent event) {
+        synchronized (this) {
+            if (eventsDuringBuild != null) {
+                eventsDuringBuild.add(event);
+            }
+        }
+        if (event.getType() == ScheduleEvent.Type.COPIED) {
+            // Queued behind the initial build on the same thread
+            List<Long> studentIds = event.getAffectedStudentIds();
+            runner.execute(() -> reindex(studentIds));
+            return;
+        }
+        applyToIndex(event);
+    }
+    
+    private void applyToIndex(ScheduleEvent event) {
+        if (event.getType() == ScheduleEvent.Type.COPIED) {
+            return;
+        }
+        if (event.getType() == ScheduleEvent.Type.DELETED) {
+            remove(event.getTimeBlockId());
+        } else {
+            put(event.getAfter());
+        }
+    }
+    
+    private void put(TimeBlockDTO timeBlock) {
+        // Blocks without a student cannot be searched for
+        if (timeBlock.getStudentId() == null) {
+            remove(timeBlock.getTimeBlockId());
+            return;
+        }
+        Long previousOwner = owners.put(timeBlock.getTimeBlockId(), timeBlock.getStudentId());
+        if (previousOwner != null && !previousOwner.equals(timeBlock.getStudentId())) {
+            Partition previous = partitions.get(previousOwner);
+            if (previous != null) {
+                previous.remove(timeBlock.getTimeBlockId());
+            }
+        }
+        partitions.computeIfAbsent(timeBlock.getStudentId(), key -> new Partition()).put(timeBlock);
+    }
+    
+    private void remove(Long timeBlockId) {
+        Long owner = owners.remove(timeBlockId);
+        Partition partition = owner != null ? partitions.get(owner) : null;
+        if (partition != null) {
+            partition.remove(timeBlockId);
+        }
+    }
+    
+    private void build() {
+        long started = System.nanoTime();
+        try {
+            Long cursor = Long.MIN_VALUE;
+            while (true) {
+                List<Long> studentIds = timeBlockRepository.findStudentIdsAfter(cursor, buildChunkSize);
+                if (studentIds.isEmpty()) {
+                    break;
+                }
+                cursor = studentIds.get(studentIds.size() - 1);
+                for (TimeBlock timeBlock : timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(studentIds)) {
+                    put(new TimeBlockDTO(timeBlock));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Building the time block search index failed; only blocks changed from now on are searchable", e);
+        }
+        
+        List<ScheduleEvent> missed;
+        synchronized (this) {
+            missed = eventsDuringBuild;
+            eventsDuringBuild = null;
+        }
+        // Rows loaded by the scan may be older than events that arrived meanwhile
+        missed.forEach(this::applyToIndex);
+        ready = true;
+        log.info("Time block search index built: {} blocks in {} ms", owners.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    // Loads the given students' blocks after a schedule copy; runs on the build thread, never alongside a build
+    private void reindex(List<Long> studentIds) {
+        synchronized (this) {
+            if (eventsDuringBuild != null) {
+                // The initial build has not run yet and loads these rows anyway
+                return;
+            }
+            eventsDuringBuild = new ArrayList<>();
+        }
+        try {
+            for (int from = 0; from < studentIds.size(); from += buildChunkSize) {
+                List<Long> chunk = studentIds.subList(from, Math.min(from + buildChunkSize, studentIds.size()));
+                for (TimeBlock timeBlock : timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(chunk)) {
+                    put(new TimeBlockDTO(timeBlock));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Indexing copied schedules of {} students failed", studentIds.size(), e);
+        }
+        
+        List<ScheduleEvent> missed;
+        synchronized (this) {
+            missed = eventsDuringBuild;
+            eventsDuringBuild = null;
+        }
+        missed.forEach(this::applyToIndex);
+    }
+    
+    private static List<QueryTerm> parse(String query) {
+        String[] tokens = TOKEN_SEPARATOR.split(normalize(query.replace("*", " * ")));
+        List<QueryTerm> terms = new ArrayList<>();
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].isEmpty() || tokens[i].equals("*")) {
+                continue;
+            }
+            boolean prefix = (i + 1 < tokens.length && tokens[i + 1].equals("*"))
+                    || (i == tokens.length - 1 && !query.endsWith(" "));
+            terms.add(new QueryTerm(tokens[i], prefix));
+        }
+        return terms;
+    }
+    
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text != null) {
+            for (String token : TOKEN_SEPARATOR.split(normalize(text))) {
+                if (!token.isEmpty()) {
+                    terms.add(token);
+                }
+            }
+        }
+        return terms;
+    }
+    
+    // Lowercase without accents, so "Café" and "cafe" index the same
+    private static String normalize(String text) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+    
+    // Edit distance, giving up as soon as it exceeds max
+    private static boolean withinDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return false;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+    
+    private record QueryTerm(String text, boolean prefix) {
+        private int maxEdits() {
+            return text.length() >= 8 ? 2 : text.length() >= 4 ? 1 : 0;
+        }
+    }
+    
+    private record Hit(TimeBlockDTO timeBlock, int score) {}
+    
+    /**
+     * One student's blocks. Postings are sorted id arrays replaced on write; the partition lock is
+     * uncontended in practice because a student's schedule changes rarely.
+     */
+    private static class Partition {
+        private final TreeMap<String, long[]> titlePostings = new TreeMap<>();
+        private final TreeMap<String, long[]> descriptionPostings = new TreeMap<>();
+        private final Map<Long, TimeBlockDTO> timeBlocks = new HashMap<>();
+        
+        private synchronized void put(TimeBlockDTO timeBlock) {
+            remove(timeBlock.getTimeBlockId());
+            timeBlocks.put(timeBlock.getTimeBlockId(), timeBlock);
+            for (String term : tokenize(timeBlock.getTitle())) {
+                titlePostings.merge(term, new long[] {timeBlock.getTimeBlockId()}, Partition::union);
+            }
+            for (String term : tokenize(timeBlock.getDescription())) {
+                descriptionPostings.merge(term, new long[] {timeBlock.getTimeBlockId()}, Partition::union);
+            }
+        }
+        
+        private synchronized void remove(Long timeBlockId) {
+            TimeBlockDTO previous = timeBlocks.remove(timeBlockId);
+            if (previous == null) {
+                return;
+            }
+            for (String term : tokenize(previous.getTitle())) {
+                titlePostings.computeIfPresent(term, (key, ids) -> without(ids, timeBlockId));
+            }
+            for (String term : tokenize(previous.getDescription())) {
+                descriptionPostings.computeIfPresent(term, (key, ids) -> without(ids, timeBlockId));
+            }
+        }
+        
+        private synchronized void search(List<QueryTerm> terms, boolean fuzzy, List<Hit> hits) {
+            Map<Long, Integer> scores = null;
+            for (QueryTerm term : terms) {
+                Map<Long, Integer> matches = new HashMap<>();
+                collect(titlePostings, term, fuzzy, 2, matches);
+                collect(descriptionPostings, term, fuzzy, 1, matches);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    // Every term has to match
+                    scores.keySet().retainAll(matches.keySet());
+                    for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + matches.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return;
+                }
+            }
+            scores.forEach((id, score) -> hits.add(new Hit(timeBlocks.get(id), score)));
+        }
+        
+        private static void collect(TreeMap<String, long[]> postings, QueryTerm term, boolean fuzzy, int weight,
+                                    Map<Long, Integer> matches) {
+            add(matches, postings.getOrDefault(term.text(), NO_POSTINGS), EXACT_SCORE * weight);
+            if (term.prefix()) {
+                // Dictionary terms sorting between text and text + Character.MAX_VALUE start with text
+                for (Map.Entry<String, long[]> entry : postings.subMap(term.text(), false, term.text() + Character.MAX_VALUE, false).entrySet()) {
+                    add(matches, entry.getValue(), PREFIX_SCORE * weight);
+                }
+            }
+            if (fuzzy && term.maxEdits() > 0) {
+                for (Map.Entry<String, long[]> entry : postings.entrySet()) {
+                    if (!entry.getKey().equals(term.text()) && withinDistance(term.text(), entry.getKey(), term.maxEdits())) {
+                        add(matches, entry.getValue(), FUZZY_SCORE * weight);
+                    }
+                }
+            }
+        }
+        
+        private static void add(Map<Long, Integer> matches, long[] ids, int score) {
+            for (long id : ids) {
+                matches.merge(id, score, Math::max);
+            }
+        }
+        
+        private static long[] union(long[] ids, long[] added) {
+            int index = Arrays.binarySearch(ids, added[0]);
+            if (index >= 0) {
+                return ids;
+            }
+            int insertAt = -index - 1;
+            long[] result = new long[ids.length + 1];
+            System.arraycopy(ids, 0, result, 0, insertAt);
+            result[insertAt] = added[0];
+            System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+            return result;
+        }
+        
+        // Returns null once no id is left, which drops the term from the dictionary
+        private static long[] without(long[] ids, long removed) {
+            int index = Arrays.binarySearch(ids, removed);
+            if (index < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] result = new long[ids.length - 1];
+            System.arraycopy(ids, 0, result, 0, index);
+            System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+            return result;
+        }
+    }
+}
@@ -1,110 +1,195 @@
 package com.scheduleplanner.backend.service;
 
+import com.scheduleplanner.backend.diagnostics.OverlapCheckEvent;
+import com.scheduleplanner.backend.model.ScheduleEvent;
 import com.scheduleplanner.backend.model.TimeBlock;
 import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
-import com.scheduleplanner.backend.repository.TimeBlockRepository;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import com.scheduleplanner.backend.repository.TimeBlockStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.function.ToIntFunction;
 
 @Service
 public class TimeBlockService {
     
+    // Versioned statements per write; only a block changed by others between attempts needs more than two
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    
     @Autowired
-    private TimeBlockRepository timeBlockRepository;
+    private TimeBlockStore timeBlockRepository;
     
-    // Type to color mapping
-    private static final Map<String, String> TYPE_COLORS = new HashMap<>();
+    @Autowired
+    private ScheduleEventBus scheduleEventBus;
     
-    static {
-        TYPE_COLORS.put("club", "#9C27B0");
-        TYPE_COLORS.put("job", "#FF5722");
-        TYPE_COLORS.put("break", "#4CAF50");
-        TYPE_COLORS.put("personal", "#FF9800");
-        TYPE_COLORS.put("other", "#607D8B");
-    }
+    @Autowired
+    private TypeColorRegistry typeColorRegistry;
     
+    @Autowired
+    private ScheduleSnapshotCache scheduleSnapshotCache;
+    
+    @Transactional(readOnly = true)
     public List<TimeBlock> getAllTimeBlocks() {
         return timeBlockRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public Optional<TimeBlock> getTimeBlockById(Long id) {
         return timeBlockRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public List<TimeBlock> getTimeBlocksByDay(DayOfWeek day) {
         return timeBlockRepository.findByDay(day);
     }
     
+    @Transactional(readOnly = true)
     public List<TimeBlock> getTimeBlocksByType(String type) {
         return timeBlockRepository.findByType(type);
     }
     
+    @Transactional(readOnly = true)
     public List<TimeBlock> getTimeBlocksByStudentId(Long studentId) {
-        return timeBlockRepository.findByStudentId(studentId);
+        List<TimeBlock> timeBlocks = timeBlockRepository.findByStudentId(studentId);
+        scheduleSnapshotCache.remember(studentId, timeBlocks);
+        return timeBlocks;
     }
     
+    @Transactional(readOnly = true)
     public List<TimeBlock> getTimeBlocksByStudentIdAndDay(Long studentId, DayOfWeek day) {
         return timeBlockRepository.findByStudentIdAndDay(studentId, day);
     }
     
+    @Transactional(readOnly = true)
     public List<TimeBlock> getTimeBlocksByStudentIdAndType(Long studentId, String type) {
         return timeBlockRepository.findByStudentIdAndType(studentId, type);
     }
     
+    @Transactional(readOnly = true)
     public List<TimeBlock> getTimeBlocksForScheduleView(Long studentId) {
-        return timeBlockRepository.findTimeBlocksForScheduleView(studentId);
+        List<TimeBlock> timeBlocks = timeBlockRepository.findTimeBlocksForScheduleView(studentId);
+        scheduleSnapshotCache.remember(studentId, timeBlocks);
+        return timeBlocks;
     }
     
+    @Transactional
     public TimeBlock createTimeBlock(TimeBlock timeBlock) {
         // Set color based on type if not provided
         if (timeBlock.getColor() == null || timeBlock.getColor().isEmpty()) {
-            timeBlock.setColor(TYPE_COLORS.getOrDefault(timeBlock.getType(), TYPE_COLORS.get("other")));
+            timeBlock.setColor(typeColorRegistry.colorFor(timeBlock.getStudentId(), timeBlock.getType()));
         }
         
-        return timeBlockRepository.save(timeBlock);
+        TimeBlock created = timeBlockRepository.save(timeBlock);
+        scheduleEventBus.publish(ScheduleEvent.created(created));
+        return created;
     }
     
+    @Transactional
     public TimeBlock updateTimeBlock(Long id, TimeBlock timeBlockDetails) {
-        TimeBlock timeBlock = timeBlockRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("TimeBlock not found with id: " + id));
-        
-        timeBlock.setTitle(timeBlockDetails.getTitle());
-        timeBlock.setDay(timeBlockDetails.getDay());
-        timeBlock.setStartTime(timeBlockDetails.getStartTime());
-        timeBlock.setEndTime(timeBlockDetails.getEndTime());
-        timeBlock.setType(timeBlockDetails.getType());
-        timeBlock.setWeeks(timeBlockDetails.getWeeks());
-        timeBlock.setDescription(timeBlockDetails.getDescription());
-        timeBlock.setStudentId(timeBlockDetails.getStudentId());
-        
+        return updateTimeBlock(id, timeBlockDetails, null);
+    }
+    
+    /**
+     * Updates a time block, optionally only if it is still at {@code expectedVersion}, with a single
+     * versioned UPDATE. A version mismatch throws {@link OptimisticLockingFailureException}.
+     */
+    @Transactional
+    public TimeBlock updateTimeBlock(Long id, TimeBlock timeBlockDetails, Long expectedVersion) {
         // Update color based on type if not provided
         if (timeBlockDetails.getColor() == null || timeBlockDetails.getColor().isEmpty()) {
-            timeBlock.setColor(TYPE_COLORS.getOrDefault(timeBlockDetails.getType(), TYPE_COLORS.get("other")));
-        } else {
-            timeBlock.setColor(timeBlockDetails.getColor());
+            timeBlockDetails.setColor(typeColorRegistry.colorFor(timeBlockDetails.getStudentId(), timeBlockDetails.getType()));
         }
         
-        return timeBlockRepository.save(timeBlock);
+        TimeBlock before = writeInPlace(id, expectedVersion,
+                current -> timeBlockRepository.updateInPlace(id, timeBlockDetails, current.getVersion()));
+        timeBlockDetails.setTimeBlockId(id);
+        timeBlockDetails.setVersion(before.getVersion() + 1);
+        scheduleEventBus.publish(ScheduleEvent.updated(new TimeBlockDTO(before), timeBlockDetails));
+        return timeBlockDetails;
     }
     
+    @Transactional
     public void deleteTimeBlock(Long id) {
-        TimeBlock timeBlock = timeBlockRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("TimeBlock not found with id: " + id));
-        timeBlockRepository.delete(timeBlock);
+        deleteTimeBlock(id, null);
+    }
+    
+    /**
+     * Deletes a time block, optionally only if it is still at {@code expectedVersion}, with a single
+     * versioned DELETE. A version mismatch throws {@link OptimisticLockingFailureException}.
+     */
+    @Transactional
+    public void deleteTimeBlock(Long id, Long expectedVersion) {
+        TimeBlock deleted = writeInPlace(id, expectedVersion,
+                current -> timeBlockRepository.deleteInPlace(id, current.getVersion()));
+        scheduleEventBus.publish(ScheduleEvent.deleted(deleted));
+    }
+    
+    /**
+     * Runs a versioned single-row statement and returns the block as it was before it.
+     *
+     * The version to match comes from findById, which the second-level cache normally answers without a
+     * query; the statement's version predicate is what proves that copy current, so it is also the change
+     * event's before image. Only when the statement matches no row, or the copy is not at the expected version,
+     * is the block read from the database, to tell a missing block (404) from a version mismatch (412). An unconditional write whose cached copy
+     * was stale, or that lost a race, is retried against the row it just read.
+     */
+    private TimeBlock writeInPlace(Long id, Long expectedVersion, ToIntFunction<TimeBlock> statement) {
+        Optional<TimeBlock> current = timeBlockRepository.findById(id);
+        for (int attempt = 1; ; attempt++) {
+            TimeBlock before = current.orElseThrow(() -> new RuntimeException("TimeBlock not found with id: " + id));
+            boolean expected = expectedVersion == null || expectedVersion.equals(before.getVersion());
+            if (expected && statement.applyAsInt(before) == 1) {
+                return before;
+            }
+            if (attempt == MAX_WRITE_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("TimeBlock " + id + " kept changing during the write");
+            }
+            current = timeBlockRepository.findCurrentById(id);
+            current.ifPresent(timeBlock -> checkVersion(timeBlock, expectedVersion));
+        }
     }
     
+    private static void checkVersion(TimeBlock timeBlock, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(timeBlock.getVersion())) {
+            throw new OptimisticLockingFailureException("TimeBlock " + timeBlock.getTimeBlockId()
+                    + " is at version " + timeBlock.getVersion() + ", not " + expectedVersion);
+        }
+    }
+    
+    // Overlap checks guard writes, so they run read-write and are never served by a lagging replica
+    @Transactional
     public List<TimeBlock> checkForOverlaps(DayOfWeek day, LocalTime startTime, LocalTime endTime) {
-        return timeBlockRepository.findOverlappingTimeBlocks(day, startTime, endTime);
+        OverlapCheckEvent event = new OverlapCheckEvent();
+        event.begin();
+        List<TimeBlock> overlapping = timeBlockRepository.findOverlappingTimeBlocks(day, startTime, endTime);
+        commit(event, 0, day, overlapping);
+        return overlapping;
     }
     
+    @Transactional
     public List<TimeBlock> checkForOverlapsForStudent(Long studentId, DayOfWeek day, LocalTime startTime, LocalTime endTime) {
-        return timeBlockRepository.findOverlappingTimeBlocksForStudent(studentId, day, startTime, endTime);
+        OverlapCheckEvent event = new OverlapCheckEvent();
+        event.begin();
+        List<TimeBlock> overlapping = timeBlockRepository.findOverlappingTimeBlocksForStudent(studentId, day, startTime, endTime);
+        commit(event, studentId, day, overlapping);
+        return overlapping;
+    }
+    
+    private static void commit(OverlapCheckEvent event, long studentId, DayOfWeek day, List<TimeBlock> overlapping) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.studentId = studentId;
+            event.day = day.name();
+            event.candidates = overlapping.size();
+            event.commit();
+        }
     }
     
     // Legacy method for backwards compatibility (converts String to DayOfWeek and String to LocalTime)
@@ -120,6 +205,6 @@ public class TimeBlockService {
     }
     
     public Map<String, String> getTypeColors() {
-        return new HashMap<>(TYPE_COLORS);
+        return typeColorRegistry.getDefaults().getColors();
     }
 }
@@ -0,0 +1,281 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.config.DatabaseCircuitBreakerFilter;
+import com.scheduleplanner.backend.model.AsyncOperation;
+import com.scheduleplanner.backend.model.AsyncOperation.Kind;
+import com.scheduleplanner.backend.model.AsyncOperation.Status;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in asynchronous write path for time block creates and updates.
+ *
+ * Mutations are validated and checked against the student's still-pending writes on the request
+ * thread, then queued per student. Each student's queue is drained by at most one worker at a time,
+ * so writes for a student are applied in submission order, while different students flush in parallel.
+ * Consecutive updates to the same time block are coalesced into a single write, and each drain
+ * persists up to {@code batchSize} writes in one transaction. A student may have at most
+ * {@code maxPendingPerStudent} writes waiting and the node {@code maxPending} in total; beyond that
+ * submissions are refused instead of queued.
+ */
+@Service
+public class TimeBlockWriteQueue {
+    
+    private static final Logger log = LoggerFactory.getLogger(TimeBlockWriteQueue.class);
+    
+    @Autowired
+    private TimeBlockService timeBlockService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${timeblocks.async.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${timeblocks.async.operation-retention-ms:600000}")
+    private long operationRetentionMs;
+    
+    @Value("${timeblocks.async.max-pending-per-student:100}")
+    private int maxPendingPerStudent;
+    
+    @Value("${timeblocks.async.max-pending:10000}")
+    private int maxPending;
+    
+    private final ExecutorService executor;
+    
+    // Only students with queued or in-flight writes have an entry; a drain that runs dry removes it
+    private final Map<Long, StudentQueue> queues = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    
+    private final Map<String, AsyncOperation> operations = new ConcurrentHashMap<>();
+    
+    public TimeBlockWriteQueue(@Value("${timeblocks.async.worker-threads:4}") int workerThreads) {
+        this.executor = Executors.newFixedThreadPool(workerThreads);
+    }
+    
+    public AsyncOperation submitCreate(TimeBlock timeBlock) {
+        return submit(new PendingWrite(Kind.CREATE, null, timeBlock));
+    }
+    
+    public AsyncOperation submitUpdate(Long id, TimeBlock timeBlockDetails) {
+        return submit(new PendingWrite(Kind.UPDATE, id, timeBlockDetails));
+    }
+    
+    public Optional<AsyncOperation> getOperation(String operationId) {
+        return Optional.ofNullable(operations.get(operationId));
+    }
+    
+    private AsyncOperation submit(PendingWrite write) {
+        Long studentId = write.timeBlock.getStudentId();
+        if (studentId == null) {
+            throw new IllegalArgumentException("Asynchronous writes require a studentId");
+        }
+        
+        AsyncOperation operation = new AsyncOperation(write.kind, studentId, write.timeBlockId);
+        while (true) {
+            StudentQueue queue = queues.computeIfAbsent(studentId, key -> new StudentQueue());
+            boolean startDrain;
+            
+            synchronized (queue) {
+                if (queue.retired) {
+                    // Its drain just finished and removed it; the next lookup creates a fresh one
+                    continue;
+                }
+                for (PendingWrite pending : queue.pending) {
+                    if (overlaps(pending, write)) {
+                        throw new ConflictException("Overlaps a pending write for the same student");
+                    }
+                }
+                
+                PendingWrite last = queue.pending.peekLast();
+                if (write.kind == Kind.UPDATE && last != null && last.kind == Kind.UPDATE
+                        && last.timeBlockId.equals(write.timeBlockId)) {
+                    // Coalesce: the newer details replace the queued ones and both operations share the outcome
+                    last.timeBlock = write.timeBlock;
+                    last.operations.add(operation);
+                } else {
+                    if (queue.pending.size() >= maxPendingPerStudent) {
+                        throw new QueueFullException("Too many pending writes for this student", true);
+                    }
+                    if (pendingWrites.incrementAndGet() > maxPending) {
+                        pendingWrites.decrementAndGet();
+                        throw new QueueFullException("The write queue is full", false);
+                    }
+                    write.operations.add(operation);
+                    queue.pending.addLast(write);
+                }
+                
+                operations.put(operation.getOperationId(), operation);
+                startDrain = !queue.draining;
+                queue.draining = true;
+            }
+            
+            if (startDrain) {
+                executor.execute(() -> drain(studentId, queue));
+            }
+            return operation;
+        }
+    }
+    
+    private boolean overlaps(PendingWrite pending, PendingWrite candidate) {
+        if (candidate.timeBlockId != null && candidate.timeBlockId.equals(pending.timeBlockId)) {
+            return false;
+        }
+        TimeBlock a = pending.timeBlock;
+        TimeBlock b = candidate.timeBlock;
+        return a.getDay() == b.getDay()
+                && a.getStartTime().isBefore(b.getEndTime())
+                && b.getStartTime().isBefore(a.getEndTime());
+    }
+    
+    private void drain(Long studentId, StudentQueue queue) {
+        while (true) {
+            List<PendingWrite> batch = new ArrayList<>();
+            synchronized (queue) {
+                while (batch.size() < batchSize && !queue.pending.isEmpty()) {
+                    batch.add(queue.pending.pollFirst());
+                }
+                if (batch.isEmpty()) {
+                    queue.draining = false;
+                    queue.retired = true;
+                    queues.remove(studentId, queue);
+                    return;
+                }
+            }
+            pendingWrites.addAndGet(-batch.size());
+            flush(batch);
+        }
+    }
+    
+    private void flush(List<PendingWrite> batch) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Runnable> outcomes = new ArrayList<>();
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingWrite write : batch) {
+                    outcomes.add(apply(write));
+                }
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() > 1 && !DatabaseCircuitBreakerFilter.isDatabaseFailure(e)) {
+                // A failed write leaves the shared transaction rollback-only, so none of the batch was kept:
+                // replay it one write per transaction and only the failing write fails
+                log.warn("Asynchronous write batch failed, retrying its writes one at a time", e);
+                batch.forEach(write -> flush(List.of(write)));
+                return;
+            }
+            log.warn("Asynchronous write failed", e);
+            String message = e instanceof DataAccessException || e instanceof TransactionException
+                    ? "Write could not be committed"
+                    : e.getMessage();
+            for (PendingWrite write : batch) {
+                write.operations.forEach(op -> op.fail(Status.FAILED, message));
+            }
+            return;
+        }
+        
+        // Results are only published once the whole batch has committed
+        outcomes.forEach(Runnable::run);
+    }
+    
+    private Runnable apply(PendingWrite write) {
+        TimeBlock timeBlock = write.timeBlock;
+        List<TimeBlock> overlapping = timeBlockService.checkForOverlapsForStudent(
+                timeBlock.getStudentId(), timeBlock.getDay(), timeBlock.getStartTime(), timeBlock.getEndTime());
+        if (write.timeBlockId != null) {
+            overlapping.removeIf(tb -> tb.getId().equals(write.timeBlockId));
+        }
+        if (!overlapping.isEmpty()) {
+            return () -> write.operations.forEach(op -> op.fail(Status.CONFLICT, "Time block overlaps an existing time block"));
+        }
+        
+        // Checked up front: a not-found exception thrown inside the batch transaction would roll back the whole batch
+        if (write.kind == Kind.UPDATE && timeBlockService.getTimeBlockById(write.timeBlockId).isEmpty()) {
+            return () -> write.operations.forEach(op -> op.fail(Status.FAILED, "TimeBlock not found with id: " + write.timeBlockId));
+        }
+        
+        // Anything thrown here fails the whole batch transaction, see flush
+        TimeBlock saved = write.kind == Kind.CREATE
+                ? timeBlockService.createTimeBlock(timeBlock)
+                : timeBlockService.updateTimeBlock(write.timeBlockId, timeBlock);
+        TimeBlockDTO result = new TimeBlockDTO(saved);
+        return () -> write.operations.forEach(op -> op.complete(result));
+    }
+    
+    @Scheduled(fixedDelayString = "${timeblocks.async.cleanup-interval-ms:60000}")
+    public void evictFinishedOperations() {
+        Instant cutoff = Instant.now().minusMillis(operationRetentionMs);
+        operations.values().removeIf(op -> op.isFinished() && op.getCompletedAt().isBefore(cutoff));
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+    
+    public static class ConflictException extends RuntimeException {
+        public ConflictException(String message) {
+            super(message);
+        }
+    }
+    
+    // Submission refused because the student's queue (studentLimit) or the whole node's is full
+    public static class QueueFullException extends RuntimeException {
+        private final boolean studentLimit;
+        
+        public QueueFullException(String message, boolean studentLimit) {
+            super(message);
+            this.studentLimit = studentLimit;
+        }
+        
+        public boolean isStudentLimit() {
+            return studentLimit;
+        }
+    }
+    
+    private static class StudentQueue {
+        private final Deque<PendingWrite> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean retired;
+    }
+    
+    private static class PendingWrite {
+        private final Kind kind;
+        private final Long timeBlockId;
+        private final List<AsyncOperation> operations = new ArrayList<>();
+        private TimeBlock timeBlock;
+        
+        private PendingWrite(Kind kind, Long timeBlockId, TimeBlock timeBlock) {
+            this.kind = kind;
+            this.timeBlockId = timeBlockId;
+            this.timeBlock = timeBlock;
+        }
+    }
+}
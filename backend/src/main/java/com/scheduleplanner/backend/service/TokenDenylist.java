@@ -0,0 +1,106 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.RevokedToken;
+import com.scheduleplanner.backend.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids (jti), held in memory so checking a token costs one or two hash lookups
+ * instead of a query. Entries are grouped into buckets by the token's own expiry: a lookup goes
+ * straight to the bucket of the {@code exp} claim, and once a bucket's window has passed every
+ * token in it has expired, so the whole bucket is dropped at once.
+ *
+ * Revocations are written to the shared {@code revoked_tokens} table, which every node polls
+ * incrementally (re-reading a small window below the highest id seen, as IDENTITY values can
+ * commit out of order). The table also rebuilds the list after a restart.
+ */
+@Service
+public class TokenDenylist {
+    
+    private static final int REORDER_WINDOW = 100;
+    
+    private static final int PAGE_SIZE = 1000;
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    @Value("${jwt.revocation.bucket-ms:60000}")
+    private long bucketMs;
+    
+    private final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+    
+    private long highestSeenId;
+    
+    @PostConstruct
+    public void init() {
+        poll();
+    }
+    
+    public boolean isRevoked(String jti, Instant expiresAt) {
+        Set<String> bucket = buckets.get(bucketOf(expiresAt));
+        return bucket != null && bucket.contains(jti);
+    }
+    
+    // False when the token was already revoked, here or on another node
+    public boolean revoke(String jti, Instant expiresAt) {
+        if (isRevoked(jti, expiresAt)) {
+            return false;
+        }
+        try {
+            revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        } catch (DataIntegrityViolationException e) {
+            add(jti, expiresAt);
+            return false;
+        }
+        add(jti, expiresAt);
+        return true;
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        while (true) {
+            long previous = highestSeenId;
+            List<RevokedToken> page = revokedTokenRepository.findTop1000ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(
+                    Math.max(0L, highestSeenId - REORDER_WINDOW), Instant.now());
+            for (RevokedToken revoked : page) {
+                add(revoked.getJti(), revoked.getExpiresAt());
+                highestSeenId = Math.max(highestSeenId, revoked.getId());
+            }
+            if (page.size() < PAGE_SIZE || highestSeenId == previous) {
+                return;
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.revocation.bucket-ms:60000}")
+    public void evictExpired() {
+        long current = bucketOf(Instant.now());
+        buckets.keySet().removeIf(bucket -> bucket < current);
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.revocation.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        revokedTokenRepository.deleteByExpiresAtBefore(Instant.now());
+    }
+    
+    private void add(String jti, Instant expiresAt) {
+        if (expiresAt.isAfter(Instant.now())) {
+            buckets.computeIfAbsent(bucketOf(expiresAt), key -> ConcurrentHashMap.newKeySet()).add(jti);
+        }
+    }
+    
+    private long bucketOf(Instant expiresAt) {
+        return Math.floorDiv(expiresAt.toEpochMilli(), bucketMs);
+    }
+}
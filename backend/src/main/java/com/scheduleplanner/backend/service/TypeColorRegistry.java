@@ -0,0 +1,247 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.TypeColor;
+import com.scheduleplanner.backend.repository.TypeColorRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Block type colors: built-in defaults plus per-student custom types and overrides, stored in
+ * {@code type_colors} and served from an immutable in-memory snapshot.
+ *
+ * Reads (including the color lookup on every time block write) are plain map lookups on the current
+ * snapshot. Changes are written to the table, then a new snapshot is swapped in and the other nodes
+ * are told to reload the affected student through {@link ClusterBroadcast}.
+ *
+ * The defaults are stored under student {@link #DEFAULTS_OWNER} rather than a NULL student, so the
+ * {@code (student_id, type)} unique key stops nodes starting together from seeding them twice.
+ */
+@Service
+public class TypeColorRegistry {
+    
+    public static final String FALLBACK_TYPE = "other";
+    
+    public static final long DEFAULTS_OWNER = 0L;
+    
+    private static final Logger log = LoggerFactory.getLogger(TypeColorRegistry.class);
+    
+    private static final String CHANNEL = "type-colors";
+    
+    @Autowired
+    private TypeColorRepository typeColorRepository;
+    
+    @Autowired
+    private ClusterBroadcast clusterBroadcast;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private volatile Snapshot snapshot;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        // Read-write on purpose: reloads follow a change and must not be answered by a lagging replica
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        moveLegacyDefaults();
+        if (!transactionTemplate.execute(status -> typeColorRepository.existsByStudentId(DEFAULTS_OWNER))) {
+            seedDefaults();
+        }
+        reloadAll();
+        clusterBroadcast.subscribe(CHANNEL, payload -> reloadStudent(Long.valueOf(payload)));
+    }
+    
+    // Each row in its own transaction: a row another node inserted first is simply skipped
+    private void seedDefaults() {
+        Map<String, String> builtIn = new LinkedHashMap<>();
+        builtIn.put("club", "#9C27B0");
+        builtIn.put("job", "#FF5722");
+        builtIn.put("break", "#4CAF50");
+        builtIn.put("personal", "#FF9800");
+        builtIn.put(FALLBACK_TYPE, "#607D8B");
+        builtIn.forEach((type, color) -> {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        typeColorRepository.save(new TypeColor(DEFAULTS_OWNER, type, color)));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Default color for {} was seeded by another node", type);
+            }
+        });
+    }
+    
+    // Older databases hold the defaults under a NULL student, possibly several times over; the oldest row per type wins
+    private void moveLegacyDefaults() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<TypeColor> legacy = typeColorRepository.findByStudentIdIsNullOrderByIdAsc();
+                if (legacy.isEmpty()) {
+                    return;
+                }
+                Set<String> types = new HashSet<>();
+                for (TypeColor row : legacy) {
+                    if (types.add(row.getType())
+                            && typeColorRepository.findByStudentIdAndType(DEFAULTS_OWNER, row.getType()).isEmpty()) {
+                        row.setStudentId(DEFAULTS_OWNER);
+                        typeColorRepository.save(row);
+                    } else {
+                        typeColorRepository.delete(row);
+                    }
+                }
+                log.info("Moved the default type colors of {} types to student {}", types.size(), DEFAULTS_OWNER);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Default type colors were moved by another node", e);
+        }
+    }
+    
+    public View getDefaults() {
+        return snapshot.defaults;
+    }
+    
+    public View getView(Long studentId) {
+        return snapshot.view(studentId);
+    }
+    
+    // Color for a block of the given type; unknown types get the fallback color
+    public String colorFor(Long studentId, String type) {
+        Snapshot current = snapshot;
+        String color = current.view(studentId).colors.get(type);
+        return color != null ? color : current.defaults.colors.get(FALLBACK_TYPE);
+    }
+    
+    public synchronized View setColor(Long studentId, String type, String color) {
+        try {
+            saveColor(studentId, type, color);
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the same type first; the retry finds its row and updates it
+            saveColor(studentId, type, color);
+        }
+        reloadStudent(studentId);
+        clusterBroadcast.publish(CHANNEL, studentId.toString());
+        return getView(studentId);
+    }
+    
+    public synchronized boolean removeColor(Long studentId, String type) {
+        return typeColorRepository.findByStudentIdAndType(studentId, type)
+                .map(typeColor -> {
+                    typeColorRepository.delete(typeColor);
+                    reloadStudent(studentId);
+                    clusterBroadcast.publish(CHANNEL, studentId.toString());
+                    return true;
+                })
+                .orElse(false);
+    }
+    
+    private void saveColor(Long studentId, String type, String color) {
+        transactionTemplate.executeWithoutResult(status -> {
+            TypeColor typeColor = typeColorRepository.findByStudentIdAndType(studentId, type)
+                    .orElseGet(() -> new TypeColor(studentId, type, color));
+            typeColor.setColor(color);
+            typeColorRepository.save(typeColor);
+        });
+    }
+    
+    private synchronized void reloadAll() {
+        List<TypeColor> rows = transactionTemplate.execute(status -> typeColorRepository.findAll());
+        Map<String, String> defaults = new HashMap<>();
+        Map<Long, Map<String, String>> overrides = new HashMap<>();
+        for (TypeColor row : rows) {
+            if (row.getStudentId() == null || row.getStudentId() == DEFAULTS_OWNER) {
+                defaults.put(row.getType(), row.getColor());
+            } else {
+                overrides.computeIfAbsent(row.getStudentId(), key -> new HashMap<>()).put(row.getType(), row.getColor());
+            }
+        }
+        
+        View defaultView = new View(defaults);
+        Map<Long, View> students = new HashMap<>();
+        overrides.forEach((studentId, colors) -> students.put(studentId, merge(defaultView, colors)));
+        snapshot = new Snapshot(defaultView, students);
+    }
+    
+    // Copy-on-write: only the changed student's view is rebuilt, every other view is shared with the old snapshot
+    private synchronized void reloadStudent(Long studentId) {
+        List<TypeColor> rows = transactionTemplate.execute(status -> typeColorRepository.findByStudentId(studentId));
+        Map<String, String> colors = new HashMap<>();
+        rows.forEach(row -> colors.put(row.getType(), row.getColor()));
+        
+        Snapshot current = snapshot;
+        Map<Long, View> students = new HashMap<>(current.students);
+        if (colors.isEmpty()) {
+            students.remove(studentId);
+        } else {
+            students.put(studentId, merge(current.defaults, colors));
+        }
+        snapshot = new Snapshot(current.defaults, students);
+    }
+    
+    private static View merge(View defaults, Map<String, String> overrides) {
+        Map<String, String> merged = new HashMap<>(defaults.colors);
+        merged.putAll(overrides);
+        return new View(merged);
+    }
+    
+    // An immutable color map with a content-derived ETag, so every node produces the same tag for the same colors
+    public static final class View {
+        private final Map<String, String> colors;
+        private final String etag;
+        
+        private View(Map<String, String> colors) {
+            Map<String, String> sorted = new TreeMap<>(colors);
+            this.colors = Collections.unmodifiableMap(new LinkedHashMap<>(sorted));
+            this.etag = "\"" + hash(sorted.toString()) + "\"";
+        }
+        
+        public Map<String, String> getColors() {
+            return colors;
+        }
+        
+        public String getEtag() {
+            return etag;
+        }
+        
+        private static String hash(String value) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+                return HexFormat.of().formatHex(digest, 0, 8);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+    
+    private static final class Snapshot {
+        private final View defaults;
+        private final Map<Long, View> students;
+        
+        private Snapshot(View defaults, Map<Long, View> students) {
+            this.defaults = defaults;
+            this.students = students;
+        }
+        
+        private View view(Long studentId) {
+            View view = studentId != null ? students.get(studentId) : null;
+            return view != null ? view : defaults;
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.scheduleplanner.backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// A fixed signing key: outside the dev and loadtest profiles the application refuses to start without one
+@SpringBootTest(properties = "jwt.secret=GSunUxBimtSOmKerPN6qozejKWvuO4QHEBOxqRW8JMmTPaXLbiEw99TvGN3eYI1PxXw/uzZuRs7587Rfgy/r2A==")
 class SchedulePlannerBackendApplicationTests {
 
 	@Test
@@ -0,0 +1,116 @@
+package com.scheduleplanner.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    
+    private static final long OPEN_MILLIS = 50;
+    
+    @Test
+    void opensOnceFailureRateIsReachedAfterMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, OPEN_MILLIS, 2);
+        
+        // Below the minimum number of calls even 100% failures keep it closed
+        call(breaker, false);
+        call(breaker, false);
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertTrue(breaker.getRemainingOpenMillis() > 0);
+    }
+    
+    @Test
+    void staysClosedBelowThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, OPEN_MILLIS, 2);
+        for (int i = 0; i < 20; i++) {
+            call(breaker, i % 4 != 3);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+    
+    @Test
+    void onlyTheLastWindowOfCallsCounts() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 2, 0.5, OPEN_MILLIS, 2);
+        for (int i = 0; i < 8; i++) {
+            call(breaker, true);
+        }
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // 2 failures in 10 calls overall, but 2 of the last 4
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+    
+    @Test
+    void closesAfterSuccessfulTrialCalls() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        
+        // Only the configured number of trial calls is let through
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        
+        // A fresh window: three failures are below the minimum of four calls again
+        call(breaker, false);
+        call(breaker, false);
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+    
+    @Test
+    void reopensWhenATrialCallFails() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+        
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+    
+    @Test
+    void ignoredTrialCallFreesItsSlot() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onIgnored();
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+    
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, OPEN_MILLIS, 2);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, false);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+    
+    private static void call(CircuitBreaker breaker, boolean succeeds) {
+        assertTrue(breaker.tryAcquirePermission());
+        if (succeeds) {
+            breaker.onSuccess();
+        } else {
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.scheduleplanner.backend.config;
+
+import com.scheduleplanner.backend.model.SnowflakeIds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Routing decisions only; {@link ShardRouter#onShard} and the data sources behind the shards are not involved.
+ */
+class ShardRouterTest {
+    
+    private static final long LEGACY_MAX_STUDENT_ID = 1000;
+    
+    private final List<ShardRouter> routers = new ArrayList<>();
+    
+    @AfterEach
+    void shutDownRouters() {
+        routers.forEach(ShardRouter::shutdown);
+    }
+    
+    @Test
+    void singleShardRoutesEverythingToTheMainDatabase() {
+        ShardRouter router = router(false, 3, 0);
+        long snowflakeId = new SnowflakeIds(0).nextId(2);
+        
+        assertEquals(1, router.getShardCount());
+        assertEquals(0, router.shardForStudent(123_456L));
+        assertEquals(0, router.shardForTimeBlock(snowflakeId));
+    }
+    
+    @Test
+    void legacyStudentsStayOnShardZeroWithTheirBlocks() {
+        ShardRouter hashed = router(true, 3, 0);
+        ShardRouter router = router(true, 3, LEGACY_MAX_STUDENT_ID);
+        // A student the hash alone would send elsewhere
+        long legacyStudent = LongStream.rangeClosed(1, LEGACY_MAX_STUDENT_ID)
+                .filter(studentId -> hashed.shardForStudent(studentId) != 0)
+                .findFirst()
+                .orElseThrow();
+        
+        assertEquals(0, router.shardForStudent(legacyStudent));
+        // The student's IDENTITY-numbered blocks are found on the same shard
+        assertEquals(0, router.shardForTimeBlock(42L));
+        assertNotEquals(0, hashed.shardForStudent(legacyStudent));
+    }
+    
+    @Test
+    void laterStudentsAreSpreadOverEveryShard() {
+        ShardRouter router = router(true, 3, LEGACY_MAX_STUDENT_ID);
+        int[] students = new int[router.getShardCount()];
+        
+        for (long studentId = LEGACY_MAX_STUDENT_ID + 1; studentId <= LEGACY_MAX_STUDENT_ID + 1000; studentId++) {
+            students[router.shardForStudent(studentId)]++;
+        }
+        
+        for (int shard = 0; shard < students.length; shard++) {
+            // An even spread puts 250 students on each shard
+            assertEquals(250, students[shard], 100, "students on shard " + shard);
+        }
+    }
+    
+    @Test
+    void snowflakeIdsRouteToTheShardTheyWereReservedOn() {
+        ShardRouter router = router(true, 3, LEGACY_MAX_STUDENT_ID);
+        SnowflakeIds ids = new SnowflakeIds(7);
+        
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            long first = ids.reserve(shard, 10);
+            assertEquals(shard, router.shardForTimeBlock(first));
+            assertEquals(shard, router.shardForTimeBlock(first + 9));
+        }
+    }
+    
+    private ShardRouter router(boolean enabled, int extraShards, long legacyMaxStudentId) {
+        String[] extraShardUrls = new String[extraShards];
+        for (int i = 0; i < extraShards; i++) {
+            extraShardUrls[i] = "jdbc:mysql://shard" + (i + 1) + ":3306/schedule_planner";
+        }
+        ShardRouter router = new ShardRouter(enabled, extraShardUrls, legacyMaxStudentId, 2);
+        routers.add(router);
+        return router;
+    }
+}
@@ -0,0 +1,106 @@
+package com.scheduleplanner.backend.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.scheduleplanner.backend.model.TimeBlockDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Encode time and size of a 50-block schedule as JSON and as CBOR, the two encodings the time block
+ * endpoints negotiate. Both mappers are configured like the application's converters. Results are logged
+ * and written to {@code target/load-test/cbor-vs-json.txt}; the test fails if CBOR is not the smaller body.
+ */
+@Tag("load")
+class CborEncodingLoadTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(CborEncodingLoadTest.class);
+    
+    private static final int BLOCKS = 50;
+    
+    private static final int WARMUP_ITERATIONS = 20_000;
+    
+    private static final int ITERATIONS = 50_000;
+    
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
+    
+    private static final String[] TYPES = {"class", "club", "job", "break", "personal"};
+    
+    private final ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+    
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+    
+    @Test
+    void comparesCborWithJsonForAFiftyBlockSchedule() throws Exception {
+        List<TimeBlockDTO> schedule = schedule();
+        
+        byte[] jsonBody = json.writeValueAsBytes(schedule);
+        byte[] cborBody = cbor.writeValueAsBytes(schedule);
+        // Both encodings carry the same values
+        List<TimeBlockDTO> decoded = cbor.readValue(cborBody, new TypeReference<>() { });
+        assertEquals(json.readTree(jsonBody), json.valueToTree(decoded));
+        
+        double jsonMicros = encodeMicros(json, schedule);
+        double cborMicros = encodeMicros(cbor, schedule);
+        
+        String report = String.format("%d time blocks%n", BLOCKS)
+                + String.format("json  %6d bytes  %8.2f us/encode%n", jsonBody.length, jsonMicros)
+                + String.format("cbor  %6d bytes  %8.2f us/encode%n", cborBody.length, cborMicros)
+                + String.format("cbor/json size %.2f, encode time %.2f%n",
+                        (double) cborBody.length / jsonBody.length, cborMicros / jsonMicros);
+        log.info("Encoding comparison:\n{}", report);
+        Path reportFile = Path.of("target", "load-test", "cbor-vs-json.txt");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, report);
+        
+        assertTrue(cborBody.length < jsonBody.length, report);
+    }
+    
+    // Mean time per encode after a warm-up long enough for the JIT to compile the serializers
+    private static double encodeMicros(ObjectMapper mapper, List<TimeBlockDTO> schedule) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(schedule).length;
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(schedule).length;
+        }
+        long elapsed = System.nanoTime() - started;
+        assertTrue(sink > 0);
+        return elapsed / 1_000.0 / ITERATIONS;
+    }
+    
+    private static List<TimeBlockDTO> schedule() {
+        List<TimeBlockDTO> schedule = new ArrayList<>();
+        for (int i = 0; i < BLOCKS; i++) {
+            TimeBlockDTO dto = new TimeBlockDTO();
+            dto.setTimeBlockId(1_000_000_000_000L + i);
+            dto.setTitle("Course " + (i + 1));
+            LocalTime start = LocalTime.of(8 + (i / DAYS.length) % 10, (i % 2) * 30);
+            dto.setStartTime(start);
+            dto.setEndTime(start.plusMinutes(50));
+            dto.setDay(DAYS[i % DAYS.length]);
+            dto.setType(TYPES[i % TYPES.length]);
+            dto.setWeeks(i % 3 == 0 ? null : 12);
+            dto.setDescription(i % 4 == 0 ? null : "Room " + (100 + i));
+            dto.setColor("#2196F3");
+            dto.setStudentId(42L);
+            dto.setVersion((long) i % 5);
+            schedule.add(dto);
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,86 @@
+package com.scheduleplanner.backend.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-endpoint latency samples and error counts for one load-test phase. Every sample is kept,
+ * so percentiles are exact rather than bucketed.
+ */
+class LatencyStats {
+    
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    
+    void record(String endpoint, long nanos, boolean error) {
+        recorders.computeIfAbsent(endpoint, key -> new Recorder()).add(nanos, error);
+    }
+    
+    Map<String, Summary> summarize(double seconds) {
+        Map<String, Summary> summaries = new TreeMap<>();
+        recorders.forEach((endpoint, recorder) -> summaries.put(endpoint, recorder.summarize(seconds)));
+        return summaries;
+    }
+    
+    static String format(Map<String, Summary> summaries) {
+        StringBuilder report = new StringBuilder(String.format("%-14s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        summaries.forEach((endpoint, s) -> report.append(String.format("%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, s.count, s.errors, s.throughput, s.p50Ms, s.p99Ms, s.p999Ms, s.maxMs)));
+        return report.toString();
+    }
+    
+    static class Summary {
+        final long count;
+        final long errors;
+        final double throughput;
+        final double p50Ms;
+        final double p99Ms;
+        final double p999Ms;
+        final double maxMs;
+        
+        Summary(long count, long errors, double throughput, double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+            this.count = count;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50Ms = p50Ms;
+            this.p99Ms = p99Ms;
+            this.p999Ms = p999Ms;
+            this.maxMs = maxMs;
+        }
+    }
+    
+    private static class Recorder {
+        private long[] samples = new long[4096];
+        private int count;
+        private long errors;
+        
+        private synchronized void add(long nanos, boolean error) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+        
+        private synchronized Summary summarize(double seconds) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return new Summary(count, errors, count / seconds,
+                    percentileMs(sorted, 0.50), percentileMs(sorted, 0.99), percentileMs(sorted, 0.999),
+                    count == 0 ? 0 : sorted[count - 1] / 1_000_000.0);
+        }
+        
+        // Nearest-rank percentile
+        private static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.scheduleplanner.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test: boots the backend on a random port against H2, seeds students and their
+ * schedules through the API, then drives the weighted request mix from {@code application-loadtest.properties}
+ * with a pool of blocking HTTP clients. It reports p50/p99/p999 and throughput per endpoint (also written to
+ * {@code target/load-test/report.txt}) and fails when an SLO gate is missed.
+ *
+ * Each worker owns a disjoint slice of the students for writes, so versions it tracks stay current and a
+ * 409 or 412 always means a real bug rather than two workers racing each other.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class ScheduleLoadTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(ScheduleLoadTest.class);
+    
+    private static final String[] OPERATIONS = {"schedule-read", "overlap-check", "update", "create-delete", "login", "register"};
+    
+    private static final String[] ENDPOINTS = {"schedule-read", "overlap-check", "update", "create", "delete", "login", "register"};
+    
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
+    
+    private static final String PASSWORD = "load-test-password";
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private HttpClient client;
+    
+    private String baseUrl;
+    
+    @Test
+    void meetsLatencySlos() throws Exception {
+        int studentCount = intProperty("loadtest.students");
+        int concurrency = intProperty("loadtest.concurrency");
+        baseUrl = "http://localhost:" + port;
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        
+        try {
+            List<SimStudent> students = seed(workers, studentCount, intProperty("loadtest.blocks-per-student"));
+            int[] cumulativeWeights = cumulativeWeights();
+            
+            log.info("Warming up for {} s", intProperty("loadtest.warmup-seconds"));
+            runPhase(workers, concurrency, students, cumulativeWeights, intProperty("loadtest.warmup-seconds"), new LatencyStats());
+            
+            int durationSeconds = intProperty("loadtest.duration-seconds");
+            log.info("Measuring {} workers for {} s", concurrency, durationSeconds);
+            LatencyStats stats = new LatencyStats();
+            long started = System.nanoTime();
+            runPhase(workers, concurrency, students, cumulativeWeights, durationSeconds, stats);
+            double elapsedSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            
+            Map<String, LatencyStats.Summary> summaries = stats.summarize(elapsedSeconds);
+            String report = LatencyStats.format(summaries);
+            long total = summaries.values().stream().mapToLong(s -> s.count).sum();
+            report += String.format("total %d requests, %.1f req/s%n", total, total / elapsedSeconds);
+            log.info("Load test results:\n{}", report);
+            Path reportFile = Path.of("target", "load-test", "report.txt");
+            Files.createDirectories(reportFile.getParent());
+            Files.writeString(reportFile, report);
+            
+            List<String> violations = checkSlos(summaries);
+            assertTrue(violations.isEmpty(), "SLO violations:\n" + String.join("\n", violations) + "\n" + report);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+    
+    private List<SimStudent> seed(ExecutorService workers, int studentCount, int blocksPerStudent) throws Exception {
+        LatencyStats setup = new LatencyStats();
+        List<Future<SimStudent>> futures = new ArrayList<>();
+        for (int i = 0; i < studentCount; i++) {
+            futures.add(workers.submit(() -> {
+                SimStudent student = register(setup);
+                if (student == null) {
+                    throw new IllegalStateException("Could not register a load-test student");
+                }
+                for (int b = 0; b < blocksPerStudent; b++) {
+                    String day = DAYS[b % DAYS.length];
+                    int hour = 7 + b / DAYS.length;
+                    SimBlock block = create(setup, student, day, hour);
+                    if (block == null) {
+                        throw new IllegalStateException("Could not seed time blocks for student " + student.id);
+                    }
+                    student.blocks.add(block);
+                }
+                return student;
+            }));
+        }
+        List<SimStudent> students = new ArrayList<>();
+        for (Future<SimStudent> future : futures) {
+            students.add(future.get());
+        }
+        log.info("Seeded {} students with {} time blocks each", studentCount, blocksPerStudent);
+        return students;
+    }
+    
+    private void runPhase(ExecutorService workers, int concurrency, List<SimStudent> students,
+                          int[] cumulativeWeights, int seconds, LatencyStats stats) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            List<SimStudent> owned = new ArrayList<>();
+            for (int i = w; i < students.size(); i += concurrency) {
+                owned.add(students.get(i));
+            }
+            futures.add(workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String operation = pick(cumulativeWeights, random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+                    SimStudent anyStudent = students.get(random.nextInt(students.size()));
+                    SimStudent ownStudent = owned.isEmpty() ? null : owned.get(random.nextInt(owned.size()));
+                    run(operation, anyStudent, ownStudent, random, stats);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+    
+    private void run(String operation, SimStudent anyStudent, SimStudent ownStudent,
+                     ThreadLocalRandom random, LatencyStats stats) {
+        switch (operation) {
+            case "schedule-read" -> call(stats, "schedule-read", 200,
+                    get("/api/timeblocks/student/" + anyStudent.id, anyStudent));
+            case "overlap-check" -> call(stats, "overlap-check", 200,
+                    get("/api/timeblocks/check-overlap?day=" + DAYS[random.nextInt(DAYS.length)]
+                            + "&startTime=09:00:00&endTime=10:30:00&studentId=" + anyStudent.id, anyStudent));
+            case "login" -> call(stats, "login", 200,
+                    post("/api/auth/login", Map.of("email", anyStudent.email, "password", PASSWORD), null));
+            case "register" -> register(stats);
+            case "update" -> {
+                if (ownStudent != null) {
+                    update(stats, ownStudent, ownStudent.blocks.get(random.nextInt(ownStudent.blocks.size())));
+                }
+            }
+            case "create-delete" -> {
+                if (ownStudent != null) {
+                    SimBlock scratch = create(stats, ownStudent, "Sunday", 22);
+                    if (scratch != null) {
+                        call(stats, "delete", 200, request("/api/timeblocks/" + scratch.id, ownStudent)
+                                .header("If-Match", "\"" + scratch.version + "\"")
+                                .DELETE()
+                                .build());
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+    
+    private SimStudent register(LatencyStats stats) {
+        long n = sequence.incrementAndGet();
+        String suffix = Long.toString(System.nanoTime() % 1_000_000_000L, 36) + n;
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("fullName", "Load Student " + n);
+        body.put("username", "load" + suffix);
+        body.put("email", "load" + suffix + "@example.com");
+        body.put("password", PASSWORD);
+        JsonNode response = call(stats, "register", 201, post("/api/auth/register", body, null));
+        if (response == null) {
+            return null;
+        }
+        SimStudent student = new SimStudent();
+        student.id = response.get("studentId").asLong();
+        student.email = response.get("email").asText();
+        student.token = response.get("token").asText();
+        return student;
+    }
+    
+    private SimBlock create(LatencyStats stats, SimStudent student, String day, int hour) {
+        SimBlock block = new SimBlock();
+        block.day = day;
+        block.start = String.format("%02d:00:00", hour);
+        block.end = String.format("%02d:00:00", hour + 1);
+        JsonNode response = call(stats, "create", 201, post("/api/timeblocks", blockBody(student, block, "Load block"), student));
+        if (response == null) {
+            return null;
+        }
+        block.id = response.get("timeBlockId").asLong();
+        block.version = response.get("version").asLong();
+        return block;
+    }
+    
+    private void update(LatencyStats stats, SimStudent student, SimBlock block) {
+        HttpRequest request = request("/api/timeblocks/" + block.id, student)
+                .header("Content-Type", "application/json")
+                .header("If-Match", "\"" + block.version + "\"")
+                .PUT(HttpRequest.BodyPublishers.ofString(json(blockBody(student, block, "Load block " + sequence.incrementAndGet()))))
+                .build();
+        JsonNode response = call(stats, "update", 200, request);
+        if (response != null && response.hasNonNull("version")) {
+            block.version = response.get("version").asLong();
+        }
+    }
+    
+    private Map<String, Object> blockBody(SimStudent student, SimBlock block, String title) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("title", title);
+        body.put("day", block.day);
+        body.put("startTime", block.start);
+        body.put("endTime", block.end);
+        body.put("type", "other");
+        body.put("description", "Generated by the load test");
+        body.put("studentId", student.id);
+        return body;
+    }
+    
+    // Sends the request and records its latency; returns the parsed body when the status was the expected one
+    private JsonNode call(LatencyStats stats, String endpoint, int expectedStatus, HttpRequest request) {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean ok = response.statusCode() == expectedStatus;
+            stats.record(endpoint, System.nanoTime() - started, !ok);
+            if (!ok) {
+                log.debug("{} {} answered {}", request.method(), request.uri(), response.statusCode());
+                return null;
+            }
+            return response.body().isEmpty() ? objectMapper.createObjectNode() : objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            stats.record(endpoint, System.nanoTime() - started, true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+    
+    private HttpRequest get(String path, SimStudent student) {
+        return request(path, student).GET().build();
+    }
+    
+    private HttpRequest post(String path, Map<String, Object> body, SimStudent student) {
+        return request(path, student)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(body)))
+                .build();
+    }
+    
+    private HttpRequest.Builder request(String path, SimStudent student) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (student != null) {
+            builder.header("Authorization", "Bearer " + student.token);
+        }
+        return builder;
+    }
+    
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private List<String> checkSlos(Map<String, LatencyStats.Summary> summaries) {
+        List<String> violations = new ArrayList<>();
+        double maxErrorRate = Double.parseDouble(environment.getRequiredProperty("loadtest.slo.max-error-rate"));
+        for (String endpoint : ENDPOINTS) {
+            LatencyStats.Summary summary = summaries.get(endpoint);
+            if (summary == null || summary.count == 0) {
+                continue;
+            }
+            double errorRate = (double) summary.errors / summary.count;
+            if (errorRate > maxErrorRate) {
+                violations.add(String.format("%s error rate %.4f > %.4f", endpoint, errorRate, maxErrorRate));
+            }
+            checkPercentile(violations, endpoint, "p99", summary.p99Ms);
+            checkPercentile(violations, endpoint, "p999", summary.p999Ms);
+        }
+        return violations;
+    }
+    
+    private void checkPercentile(List<String> violations, String endpoint, String percentile, double actualMs) {
+        String limit = environment.getProperty("loadtest.slo." + endpoint + "." + percentile + "-ms");
+        if (limit != null && actualMs > Double.parseDouble(limit)) {
+            violations.add(String.format("%s %s %.2f ms > %s ms", endpoint, percentile, actualMs, limit));
+        }
+    }
+    
+    private int[] cumulativeWeights() {
+        int[] cumulative = new int[OPERATIONS.length];
+        int total = 0;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            total += environment.getProperty("loadtest.mix." + OPERATIONS[i], Integer.class, 0);
+            cumulative[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalStateException("loadtest.mix.* weights must not all be zero");
+        }
+        return cumulative;
+    }
+    
+    private static String pick(int[] cumulativeWeights, int roll) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[OPERATIONS.length - 1];
+    }
+    
+    private int intProperty(String name) {
+        return environment.getRequiredProperty(name, Integer.class);
+    }
+    
+    private static class SimStudent {
+        private long id;
+        private String email;
+        private String token;
+        private final List<SimBlock> blocks = new ArrayList<>();
+    }
+    
+    private static class SimBlock {
+        private long id;
+        private long version;
+        private String day;
+        private String start;
+        private String end;
+    }
+}
@@ -0,0 +1,78 @@
+package com.scheduleplanner.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the generator on a stopped clock, so every id below falls in the same second unless a reservation
+ * has to move past it.
+ */
+class SnowflakeIdsTest {
+    
+    private static final long NOW = Instant.parse("2026-11-02T09:30:00Z").toEpochMilli();
+    
+    // Distance between the same sequence number in consecutive seconds
+    private static final long ONE_SECOND = 1L << 22;
+    
+    private final SnowflakeIds ids = new SnowflakeIds(3, () -> NOW);
+    
+    @Test
+    void consecutiveReservationsShareTheSecond() {
+        long first = ids.reserve(2, 100);
+        long second = ids.reserve(2, 50);
+        
+        assertEquals(first + 100, second);
+        assertEquals(2, SnowflakeIds.shardOf(first));
+        assertEquals(2, SnowflakeIds.shardOf(second + 49));
+        // Single ids continue after the last reservation
+        assertEquals(second + 50, ids.nextId(2));
+    }
+    
+    @Test
+    void reservationThatDoesNotFitMovesToTheNextSecond() {
+        int max = SnowflakeIds.getMaxReservation();
+        long first = ids.reserve(1, max - 10);
+        
+        long moved = ids.reserve(1, 20);
+        
+        assertEquals(first + ONE_SECOND, moved);
+        // The clock has not caught up, so later ids stay in the second the reservation moved to
+        assertEquals(moved + 20, ids.nextId(1));
+    }
+    
+    @Test
+    void reservationCoversAtMostOneSecond() {
+        int max = SnowflakeIds.getMaxReservation();
+        assertThrows(IllegalArgumentException.class, () -> ids.reserve(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> ids.reserve(0, max + 1));
+        
+        long first = ids.reserve(0, max);
+        long last = first + max - 1;
+        assertEquals(first / ONE_SECOND, last / ONE_SECOND);
+        assertEquals(0, SnowflakeIds.shardOf(last));
+        // The whole second is taken, so the next reservation starts the following one
+        assertEquals(first + ONE_SECOND, ids.reserve(0, 1));
+    }
+    
+    @Test
+    void identityValuesBelongToShardZero() {
+        long id = ids.nextId(5);
+        
+        assertTrue(id >= SnowflakeIds.MIN_ID);
+        assertEquals(5, SnowflakeIds.shardOf(id));
+        assertEquals(0, SnowflakeIds.shardOf(42L));
+        assertEquals(0, SnowflakeIds.shardOf(SnowflakeIds.MIN_ID - 1));
+    }
+    
+    @Test
+    void rejectsNodesAndShardsOutsideTheLayout() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIds(SnowflakeIds.MAX_NODES));
+        assertThrows(IllegalArgumentException.class, () -> ids.nextId(SnowflakeIds.MAX_SHARDS));
+        assertThrows(IllegalArgumentException.class, () -> ids.reserve(-1, 1));
+    }
+}
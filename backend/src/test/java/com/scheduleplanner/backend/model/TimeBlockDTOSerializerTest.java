@@ -0,0 +1,93 @@
+package com.scheduleplanner.backend.model;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Holds the hand-written serializer to the JSON that bean serialization with the fields' {@code @JsonFormat}
+ * produced before it, down to property order, explicit nulls and the legacy "id" property.
+ */
+class TimeBlockDTOSerializerTest {
+    
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    
+    // The serializer as it was before TimeBlockDTOSerializer: the mix-in takes the class-level one away
+    private final ObjectMapper beanMapper = new ObjectMapper().findAndRegisterModules()
+            .addMixIn(TimeBlockDTO.class, BeanSerialization.class);
+    
+    @Test
+    void writesTheSameJsonAsBeanSerialization() throws Exception {
+        TimeBlockDTO dto = dto();
+        
+        String json = mapper.writeValueAsString(dto);
+        
+        assertEquals(beanMapper.writeValueAsString(dto), json);
+        assertEquals("{\"timeBlockId\":1234567890123,\"title\":\"Linear Algebra\",\"startTime\":\"09:05:00\","
+                + "\"endTime\":\"10:30:15\",\"day\":\"Tuesday\",\"type\":\"class\",\"weeks\":12,"
+                + "\"description\":\"Room 2.14 \\\"east\\\"\",\"color\":\"#2196F3\",\"studentId\":42,\"version\":3,"
+                + "\"id\":1234567890123}", json);
+    }
+    
+    @Test
+    void writesNullsLikeBeanSerialization() throws Exception {
+        TimeBlockDTO dto = new TimeBlockDTO();
+        dto.setTitle("Unsaved");
+        dto.setStartTime(LocalTime.of(8, 0));
+        dto.setEndTime(LocalTime.of(9, 0));
+        dto.setDay("Friday");
+        dto.setType("personal");
+        
+        assertEquals(beanMapper.writeValueAsString(dto), mapper.writeValueAsString(dto));
+    }
+    
+    @Test
+    void readsItsOwnOutputBack() throws Exception {
+        TimeBlockDTO dto = dto();
+        
+        TimeBlockDTO read = mapper.readValue(mapper.writeValueAsBytes(dto), TimeBlockDTO.class);
+        
+        assertEquals(dto.getTimeBlockId(), read.getTimeBlockId());
+        assertEquals(dto.getTitle(), read.getTitle());
+        assertEquals(dto.getStartTime(), read.getStartTime());
+        assertEquals(dto.getEndTime(), read.getEndTime());
+        assertEquals(dto.getDay(), read.getDay());
+        assertEquals(dto.getType(), read.getType());
+        assertEquals(dto.getWeeks(), read.getWeeks());
+        assertEquals(dto.getDescription(), read.getDescription());
+        assertEquals(dto.getColor(), read.getColor());
+        assertEquals(dto.getStudentId(), read.getStudentId());
+        assertEquals(dto.getVersion(), read.getVersion());
+        
+        TimeBlockDTO empty = mapper.readValue(mapper.writeValueAsString(new TimeBlockDTO()), TimeBlockDTO.class);
+        assertNull(empty.getTimeBlockId());
+        assertNull(empty.getStartTime());
+        assertNull(empty.getWeeks());
+    }
+    
+    private static TimeBlockDTO dto() {
+        TimeBlockDTO dto = new TimeBlockDTO();
+        dto.setTimeBlockId(1234567890123L);
+        dto.setTitle("Linear Algebra");
+        dto.setStartTime(LocalTime.of(9, 5));
+        dto.setEndTime(LocalTime.of(10, 30, 15));
+        dto.setDay("Tuesday");
+        dto.setType("class");
+        dto.setWeeks(12);
+        dto.setDescription("Room 2.14 \"east\"");
+        dto.setColor("#2196F3");
+        dto.setStudentId(42L);
+        dto.setVersion(3L);
+        return dto;
+    }
+    
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class BeanSerialization {
+    }
+}
@@ -0,0 +1,170 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.model.Student;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the engine against a temporary directory. A crash is simulated by closing the log without the
+ * final snapshot {@link EmbeddedStorageEngine#close} would write, so reopening has to recover from the files alone.
+ */
+class EmbeddedStorageEngineTest {
+    
+    private static final long STUDENT_ID = 7L;
+    
+    @TempDir
+    Path directory;
+    
+    private EmbeddedStorageEngine engine;
+    
+    @AfterEach
+    void closeEngine() throws Exception {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+    
+    @Test
+    void replaysTheLogAfterACrash() throws Exception {
+        engine = open();
+        putStudent();
+        put(1L, DayOfWeek.Tuesday, 9);
+        put(2L, DayOfWeek.Monday, 14);
+        put(3L, DayOfWeek.Monday, 8);
+        engine.write(() -> {
+            engine.removeTimeBlock(2L);
+            return null;
+        });
+        crash();
+        
+        engine = open();
+        assertNotNull(engine.read(() -> engine.studentByEmail("Ada@Example.com")));
+        assertNull(engine.read(() -> engine.timeBlock(2L)));
+        assertEquals(List.of(3L, 1L), scheduleIds());
+    }
+    
+    @Test
+    void truncatesATornLastRecord() throws Exception {
+        engine = open();
+        putStudent();
+        put(1L, DayOfWeek.Monday, 9);
+        put(2L, DayOfWeek.Monday, 10);
+        crash();
+        
+        // A crash after the header was written but before the whole payload reached the page cache
+        Path log = logFiles().get(0);
+        long end = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(12);
+            torn.putInt(64).putInt(0xDEADBEEF).putInt(0x0C000000);
+            torn.flip();
+            channel.write(torn, end);
+        }
+        
+        engine = open();
+        assertEquals(end, Files.size(log));
+        assertEquals(List.of(1L, 2L), scheduleIds());
+        
+        // Writes after recovery continue where the last whole record ended
+        put(3L, DayOfWeek.Monday, 11);
+        crash();
+        engine = open();
+        assertEquals(List.of(1L, 2L, 3L), scheduleIds());
+    }
+    
+    @Test
+    void recoversFromTheSnapshotAndTheLogAfterIt() throws Exception {
+        engine = open();
+        putStudent();
+        put(1L, DayOfWeek.Monday, 9);
+        put(2L, DayOfWeek.Wednesday, 9);
+        engine.snapshot();
+        put(3L, DayOfWeek.Friday, 9);
+        put(2L, DayOfWeek.Thursday, 9);
+        engine.write(() -> {
+            engine.removeTimeBlock(1L);
+            return null;
+        });
+        crash();
+        
+        // The snapshot replaced the first log segment
+        assertEquals(1, filesNamed("snapshot-").size());
+        assertEquals(List.of("wal-00000000000000000001.log"),
+                logFiles().stream().map(file -> file.getFileName().toString()).toList());
+        
+        engine = open();
+        assertNotNull(engine.read(() -> engine.studentByUsername("ada")));
+        assertEquals(List.of(2L, 3L), scheduleIds());
+        assertEquals(DayOfWeek.Thursday, engine.read(() -> engine.timeBlock(2L)).getDay());
+    }
+    
+    private EmbeddedStorageEngine open() throws IOException {
+        EmbeddedStorageEngine opened = new EmbeddedStorageEngine();
+        ReflectionTestUtils.setField(opened, "directory", directory.toString());
+        ReflectionTestUtils.setField(opened, "fsync", false);
+        ReflectionTestUtils.setField(opened, "snapshotIntervalMs", 3_600_000L);
+        opened.open();
+        return opened;
+    }
+    
+    // Stops the engine without the final snapshot, leaving the files as a killed process would
+    private void crash() throws IOException {
+        ((ScheduledExecutorService) ReflectionTestUtils.getField(engine, "snapshotScheduler")).shutdownNow();
+        ((FileChannel) ReflectionTestUtils.getField(engine, "wal")).close();
+        engine = null;
+    }
+    
+    private void putStudent() {
+        Student student = new Student("Ada Lovelace", "ada", "ada@example.com", "hash");
+        student.setStudentId(STUDENT_ID);
+        engine.write(() -> {
+            engine.putStudent(student);
+            return null;
+        });
+    }
+    
+    private void put(long id, DayOfWeek day, int hour) {
+        TimeBlock timeBlock = new TimeBlock("Block " + id, LocalTime.of(hour, 0), LocalTime.of(hour + 1, 0), day,
+                "Class", null, null, null, STUDENT_ID);
+        timeBlock.setTimeBlockId(id);
+        timeBlock.setVersion(0L);
+        engine.write(() -> {
+            engine.putTimeBlock(timeBlock);
+            return null;
+        });
+    }
+    
+    private List<Long> scheduleIds() {
+        return engine.read(() -> Arrays.stream(engine.schedule(STUDENT_ID)).map(TimeBlock::getTimeBlockId).toList());
+    }
+    
+    private List<Path> logFiles() throws IOException {
+        return filesNamed("wal-");
+    }
+    
+    private List<Path> filesNamed(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+}
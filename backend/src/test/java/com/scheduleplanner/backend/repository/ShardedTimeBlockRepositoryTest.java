@@ -0,0 +1,206 @@
+package com.scheduleplanner.backend.repository;
+
+import com.scheduleplanner.backend.config.ShardRouter;
+import com.scheduleplanner.backend.model.SnowflakeIds;
+import com.scheduleplanner.backend.model.TimeBlock;
+import com.scheduleplanner.backend.model.TimeBlock.DayOfWeek;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exercises schedule copies with the shards' database access replaced by mocks: the repository, the JDBC
+ * statements and the transaction manager, whose commits and rollbacks show what each shard would keep.
+ */
+class ShardedTimeBlockRepositoryTest {
+    
+    private TimeBlockRepository timeBlockRepository;
+    
+    private JdbcTemplate jdbcTemplate;
+    
+    private PlatformTransactionManager transactionManager;
+    
+    private ShardRouter shardRouter;
+    
+    // Rows each source student has, as countByStudentIds reports them
+    private final Map<Long, Long> sourceRows = new LinkedHashMap<>();
+    
+    @BeforeEach
+    void createMocks() {
+        timeBlockRepository = mock(TimeBlockRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> mock(TransactionStatus.class));
+        when(timeBlockRepository.countByStudentIds(any())).thenAnswer(invocation -> {
+            List<Object[]> counts = new ArrayList<>();
+            for (Long studentId : invocation.<Collection<Long>>getArgument(0)) {
+                counts.add(new Object[]{studentId, sourceRows.getOrDefault(studentId, 0L)});
+            }
+            return counts;
+        });
+        when(timeBlockRepository.findByStudentIdInOrderByStudentIdAscDayAscStartTimeAsc(any())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().map(studentId -> block(null, studentId)).toList());
+        when(timeBlockRepository.findByStudentIdInForUpdate(any())).thenReturn(List.of());
+        when(timeBlockRepository.findByTimeBlockIdBetweenOrderByTimeBlockId(anyLong(), anyLong())).thenAnswer(invocation ->
+                LongStream.rangeClosed(invocation.<Long>getArgument(0), invocation.<Long>getArgument(1))
+                        .mapToObj(id -> block(id, null))
+                        .toList());
+    }
+    
+    @AfterEach
+    void shutDownRouter() {
+        shardRouter.shutdown();
+    }
+    
+    @Test
+    void singleShardCopyIsReadBackFromTheFirstIdentityValue() {
+        ShardedTimeBlockRepository store = newStore(false, null);
+        sourceRows.put(1L, 2L);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(2);
+        when(jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class)).thenReturn(500L);
+        List<TimeBlock> written = List.of(block(500L, 2L), block(501L, 2L));
+        when(timeBlockRepository.findByStudentIdInAndTimeBlockIdGreaterThanEqualOrderByTimeBlockId(List.of(2L), 500L))
+                .thenReturn(written);
+        
+        List<TimeBlock> copies = store.copySchedules(Map.of(2L, 1L), null, Map.of(), null);
+        
+        assertEquals(written, copies);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(sql.capture(), any(Object[].class));
+        // The database numbers the rows itself
+        assertFalse(sql.getValue().contains("time_block_id"));
+        verify(transactionManager).commit(any());
+    }
+    
+    @Test
+    void shardedCopyNumbersItsRowsFromAReservedRange() {
+        ShardedTimeBlockRepository store = newStore(true, new SnowflakeIds(0));
+        long source = studentOnShard(1, 0);
+        long target = studentOnShard(1, source);
+        sourceRows.put(source, 3L);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(3);
+        
+        List<TimeBlock> copies = store.copySchedules(Map.of(target, source), 4, Map.of(), null);
+        
+        ArgumentCaptor<Long> firstId = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> lastId = ArgumentCaptor.forClass(Long.class);
+        verify(timeBlockRepository).findByTimeBlockIdBetweenOrderByTimeBlockId(firstId.capture(), lastId.capture());
+        assertEquals(2, lastId.getValue() - firstId.getValue());
+        assertEquals(1, SnowflakeIds.shardOf(firstId.getValue()));
+        assertEquals(3, copies.size());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(sql.capture(), any(Object[].class));
+        assertTrue(sql.getValue().contains("SELECT " + firstId.getValue() + " + c.rn - 1,"));
+        assertTrue(sql.getValue().endsWith("WHERE c.rn <= 3"));
+    }
+    
+    @Test
+    void statementsStayWithinOneReservation() {
+        ShardedTimeBlockRepository store = newStore(true, new SnowflakeIds(0));
+        long firstSource = studentOnShard(0, 0);
+        long secondSource = studentOnShard(0, firstSource);
+        long firstTarget = studentOnShard(0, secondSource);
+        long secondTarget = studentOnShard(0, firstTarget);
+        // Together more rows than one reservation can number
+        sourceRows.put(firstSource, 10_000L);
+        sourceRows.put(secondSource, 10_000L);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(10_000);
+        Map<Long, Long> sourceByTarget = new LinkedHashMap<>();
+        sourceByTarget.put(firstTarget, firstSource);
+        sourceByTarget.put(secondTarget, secondSource);
+        
+        store.copySchedules(sourceByTarget, null, Map.of(), null);
+        
+        ArgumentCaptor<Long> firstId = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> lastId = ArgumentCaptor.forClass(Long.class);
+        verify(timeBlockRepository, times(2)).findByTimeBlockIdBetweenOrderByTimeBlockId(firstId.capture(), lastId.capture());
+        for (int statement = 0; statement < 2; statement++) {
+            assertEquals(9_999, lastId.getAllValues().get(statement) - firstId.getAllValues().get(statement));
+        }
+        assertTrue(firstId.getAllValues().get(1) > lastId.getAllValues().get(0));
+    }
+    
+    @Test
+    void rejectionOnALaterShardRollsBackEveryShard() {
+        ShardedTimeBlockRepository store = newStore(true, new SnowflakeIds(0));
+        long firstSource = studentOnShard(0, 0);
+        long firstTarget = studentOnShard(0, firstSource);
+        long secondSource = studentOnShard(1, 0);
+        long secondTarget = studentOnShard(1, secondSource);
+        sourceRows.put(firstSource, 1L);
+        sourceRows.put(secondSource, 1L);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        Map<Long, Long> sourceByTarget = new LinkedHashMap<>();
+        sourceByTarget.put(secondTarget, secondSource);
+        sourceByTarget.put(firstTarget, firstSource);
+        TimeBlockStore.CopyFilter reject = (pairs, sources, targets) -> {
+            if (pairs.containsKey(secondTarget)) {
+                throw new IllegalStateException("Conflicts with the schedule of student " + secondTarget);
+            }
+            return Set.of();
+        };
+        
+        assertThrows(IllegalStateException.class, () -> store.copySchedules(sourceByTarget, null, Map.of(), reject));
+        
+        // Shard 0 was copied first, but its transaction was still open when shard 1 rejected
+        verify(jdbcTemplate).update(anyString(), any(Object[].class));
+        verify(transactionManager, never()).commit(any());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+    
+    private ShardedTimeBlockRepository newStore(boolean sharded, SnowflakeIds snowflakeIds) {
+        shardRouter = new ShardRouter(sharded, new String[]{"jdbc:mysql://shard1:3306/schedule_planner"}, 0, 2);
+        ShardedTimeBlockRepository store = new ShardedTimeBlockRepository();
+        ReflectionTestUtils.setField(store, "timeBlockRepository", timeBlockRepository);
+        ReflectionTestUtils.setField(store, "shardRouter", shardRouter);
+        ReflectionTestUtils.setField(store, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(store, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(store, "snowflakeIds", snowflakeIds);
+        ReflectionTestUtils.setField(store, "copyStatementStudents", 500);
+        ReflectionTestUtils.setField(store, "copyChunkSize", 1000);
+        return store;
+    }
+    
+    // The first student id after the given one that lives on the shard
+    private long studentOnShard(int shard, long after) {
+        long studentId = after + 1;
+        while (shardRouter.shardForStudent(studentId) != shard) {
+            studentId++;
+        }
+        return studentId;
+    }
+    
+    private static TimeBlock block(Long id, Long studentId) {
+        TimeBlock timeBlock = new TimeBlock("Seminar", LocalTime.of(10, 0), LocalTime.of(11, 0), DayOfWeek.Wednesday,
+                "class", 12, null, "#4CAF50", studentId);
+        timeBlock.setTimeBlockId(id);
+        return timeBlock;
+    }
+}
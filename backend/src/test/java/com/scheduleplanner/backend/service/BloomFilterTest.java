@@ -0,0 +1,52 @@
+package com.scheduleplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fills a filter to its expected size with email-like values and checks both sides of the contract.
+ */
+class BloomFilterTest {
+    
+    private static final int EXPECTED_VALUES = 10_000;
+    
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    
+    @Test
+    void neverMissesAnAddedValue() {
+        BloomFilter filter = filled();
+        
+        for (int i = 0; i < EXPECTED_VALUES; i++) {
+            assertTrue(filter.mightContain(email(i)), "lost " + email(i));
+        }
+    }
+    
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredOne() {
+        BloomFilter filter = filled();
+        
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = EXPECTED_VALUES; i < EXPECTED_VALUES + probes; i++) {
+            if (filter.mightContain(email(i))) {
+                falsePositives++;
+            }
+        }
+        double measured = (double) falsePositives / probes;
+        // Twice the target leaves room for chance without hiding a badly spread hash
+        assertTrue(measured <= 2 * FALSE_POSITIVE_RATE, "false-positive rate " + measured);
+    }
+    
+    private static BloomFilter filled() {
+        BloomFilter filter = new BloomFilter(EXPECTED_VALUES, FALSE_POSITIVE_RATE);
+        for (int i = 0; i < EXPECTED_VALUES; i++) {
+            filter.add(email(i));
+        }
+        return filter;
+    }
+    
+    private static String email(int i) {
+        return "student" + i + "@example.com";
+    }
+}
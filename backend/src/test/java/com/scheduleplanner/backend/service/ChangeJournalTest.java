@@ -0,0 +1,174 @@
+package com.scheduleplanner.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduleplanner.backend.model.JournalEntry;
+import com.scheduleplanner.backend.model.JournalPage;
+import com.scheduleplanner.backend.model.ScheduleEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the journal against a temporary directory with 1 KiB segments, so a few dozen records span
+ * several segment files. Events are fed through {@link ScheduleEventBus#dispatch} as the bus would after commit.
+ */
+class ChangeJournalTest {
+    
+    private static final int SEGMENT_SIZE = 1024;
+    
+    @TempDir
+    Path directory;
+    
+    private ChangeJournal journal;
+    
+    @AfterEach
+    void closeJournal() throws Exception {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+    
+    @Test
+    void rollsOverSegmentsAndReadsAcrossThem() throws Exception {
+        ScheduleEventBus bus = new ScheduleEventBus(1);
+        journal = open(bus, 16);
+        
+        appendAll(bus, 1, 40);
+        
+        assertTrue(segmentFiles().size() > 2, "expected records to span several segments");
+        List<JournalEntry> entries = journal.read(0, 1000).getEntries();
+        assertEquals(40, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(i + 1L, entries.get(i).getEvent().getTimeBlockId());
+            if (i > 0) {
+                assertTrue(entries.get(i).getOffset() >= entries.get(i - 1).getNextOffset());
+            }
+        }
+    }
+    
+    @Test
+    void dropsOldestSegmentsBeyondRetention() throws Exception {
+        ScheduleEventBus bus = new ScheduleEventBus(1);
+        journal = open(bus, 2);
+        
+        appendAll(bus, 1, 40);
+        
+        assertEquals(2, segmentFiles().size());
+        assertTrue(journal.getStartOffset() > 0);
+        // An offset older than the retained segments starts at the oldest record still on disk
+        List<JournalEntry> entries = journal.read(0, 1000).getEntries();
+        assertEquals(journal.getStartOffset(), entries.get(0).getOffset());
+        assertEquals(40L, entries.get(entries.size() - 1).getEvent().getTimeBlockId());
+    }
+    
+    @Test
+    void rejectsRecordWithBadChecksum() throws Exception {
+        ScheduleEventBus bus = new ScheduleEventBus(1);
+        journal = open(bus, 16);
+        appendAll(bus, 1, 40);
+        journal.close();
+        
+        // Flip a payload byte of the first record in the first (closed) segment
+        Path first = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(first, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer payloadByte = ByteBuffer.allocate(1);
+            channel.read(payloadByte, 10);
+            payloadByte.put(0, (byte) (payloadByte.get(0) ^ 0x5A));
+            payloadByte.rewind();
+            channel.write(payloadByte, 10);
+        }
+        
+        bus = new ScheduleEventBus(1);
+        journal = open(bus, 16);
+        ChangeJournal.CorruptRecordException corrupt = assertThrows(ChangeJournal.CorruptRecordException.class,
+                () -> journal.read(0, 1000));
+        assertEquals(0L, corrupt.getOffset());
+    }
+    
+    @Test
+    void truncatesTornTailOnReopen() throws Exception {
+        ScheduleEventBus bus = new ScheduleEventBus(1);
+        journal = open(bus, 16);
+        appendAll(bus, 1, 5);
+        long end = journal.getEndOffset();
+        journal.close();
+        
+        // A crash after the length was written but before the payload and checksum reached the page cache
+        List<Path> files = segmentFiles();
+        Path active = files.get(files.size() - 1);
+        long position = end - baseOffsetOf(active);
+        try (FileChannel channel = FileChannel.open(active, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(12);
+            torn.putInt(64).putInt(0xDEADBEEF).putInt(0x7B227479);
+            torn.flip();
+            channel.write(torn, position);
+        }
+        
+        bus = new ScheduleEventBus(1);
+        journal = open(bus, 16);
+        assertEquals(end, journal.getEndOffset());
+        
+        appendAll(bus, 6, 3);
+        JournalPage page = journal.read(0, 1000);
+        assertEquals(8, page.getEntries().size());
+        assertEquals(6L, page.getEntries().get(5).getEvent().getTimeBlockId());
+        assertEquals(end, page.getEntries().get(5).getOffset());
+    }
+    
+    private ChangeJournal open(ScheduleEventBus bus, int maxSegments) throws IOException {
+        ChangeJournal opened = new ChangeJournal();
+        ReflectionTestUtils.setField(opened, "scheduleEventBus", bus);
+        ReflectionTestUtils.setField(opened, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(opened, "directory", directory.toString());
+        ReflectionTestUtils.setField(opened, "segmentSize", SEGMENT_SIZE);
+        ReflectionTestUtils.setField(opened, "maxSegments", maxSegments);
+        ReflectionTestUtils.setField(opened, "fsync", false);
+        ReflectionTestUtils.setField(opened, "queueCapacity", 1024);
+        ReflectionTestUtils.setField(opened, "enqueueTimeoutMs", 1000L);
+        opened.open();
+        return opened;
+    }
+    
+    // Appends count delete events for time blocks firstId.. and waits until the writer has committed them
+    private void appendAll(ScheduleEventBus bus, long firstId, int count) throws InterruptedException {
+        long lastId = firstId + count - 1;
+        for (long id = firstId; id <= lastId; id++) {
+            bus.dispatch(new ScheduleEvent(ScheduleEvent.Type.DELETED, 1L, id, null, null));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!committed(lastId)) {
+            assertTrue(System.currentTimeMillis() < deadline, "journal did not commit time block " + lastId + " in time");
+            journal.poll(journal.getEndOffset(), 1, 100);
+        }
+    }
+    
+    private boolean committed(long timeBlockId) {
+        List<JournalEntry> entries = journal.read(0, 1000).getEntries();
+        return !entries.isEmpty() && entries.get(entries.size() - 1).getEvent().getTimeBlockId() == timeBlockId;
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+    
+    private static long baseOffsetOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - ".journal".length()));
+    }
+}
@@ -0,0 +1,149 @@
+package com.scheduleplanner.backend.service;
+
+import com.scheduleplanner.backend.model.RevokedToken;
+import com.scheduleplanner.backend.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exercises the expiry buckets directly, with the revoked_tokens table replaced by a mock repository.
+ */
+class TokenDenylistTest {
+    
+    private static final long BUCKET_MS = 60_000;
+    
+    private RevokedTokenRepository repository;
+    
+    private TokenDenylist denylist;
+    
+    @BeforeEach
+    void createDenylist() {
+        repository = mock(RevokedTokenRepository.class);
+        denylist = newDenylist(BUCKET_MS);
+    }
+    
+    @Test
+    void findsRevokedTokenInTheBucketOfItsExpiry() {
+        Instant expiresAt = bucketStart(10).plusSeconds(1);
+        assertTrue(denylist.revoke("jti-1", expiresAt));
+        
+        assertTrue(denylist.isRevoked("jti-1", expiresAt));
+        // Any expiry in the same bucket finds it, one in another bucket does not
+        assertTrue(denylist.isRevoked("jti-1", expiresAt.plusSeconds(30)));
+        assertFalse(denylist.isRevoked("jti-1", expiresAt.plusMillis(BUCKET_MS)));
+        assertFalse(denylist.isRevoked("jti-2", expiresAt));
+        verify(repository).save(any(RevokedToken.class));
+    }
+    
+    @Test
+    void revokingTwiceReportsTheSecondAttempt() {
+        Instant expiresAt = bucketStart(10);
+        assertTrue(denylist.revoke("jti-1", expiresAt));
+        assertFalse(denylist.revoke("jti-1", expiresAt));
+    }
+    
+    @Test
+    void tokenRevokedOnAnotherNodeIsAddedWhenTheInsertCollides() {
+        Instant expiresAt = bucketStart(10);
+        when(repository.save(any(RevokedToken.class))).thenThrow(new DataIntegrityViolationException("duplicate jti"));
+        
+        assertFalse(denylist.revoke("jti-1", expiresAt));
+        assertTrue(denylist.isRevoked("jti-1", expiresAt));
+    }
+    
+    @Test
+    void ignoresTokensThatAlreadyExpired() {
+        Instant expiresAt = Instant.now().minusSeconds(1);
+        denylist.revoke("jti-1", expiresAt);
+        
+        assertFalse(denylist.isRevoked("jti-1", expiresAt));
+        assertTrue(buckets().isEmpty());
+    }
+    
+    @Test
+    void evictsWholeBucketsOnceTheirWindowHasPassed() throws InterruptedException {
+        long bucketMs = 100;
+        denylist = newDenylist(bucketMs);
+        long nextBucket = Math.floorDiv(System.currentTimeMillis(), bucketMs) + 1;
+        Instant soon = Instant.ofEpochMilli(nextBucket * bucketMs + 10);
+        Instant alsoSoon = Instant.ofEpochMilli(nextBucket * bucketMs + 90);
+        Instant later = Instant.now().plusSeconds(3600);
+        denylist.revoke("soon-1", soon);
+        denylist.revoke("soon-2", alsoSoon);
+        denylist.revoke("later", later);
+        assertEquals(2, buckets().size());
+        
+        // Nothing is dropped while the bucket's window is still open
+        denylist.evictExpired();
+        assertTrue(denylist.isRevoked("soon-1", soon));
+        
+        while (System.currentTimeMillis() < (nextBucket + 1) * bucketMs) {
+            Thread.sleep(10);
+        }
+        denylist.evictExpired();
+        
+        assertEquals(1, buckets().size());
+        assertFalse(denylist.isRevoked("soon-1", soon));
+        assertFalse(denylist.isRevoked("soon-2", alsoSoon));
+        assertTrue(denylist.isRevoked("later", later));
+    }
+    
+    @Test
+    void pollRereadsAWindowBelowTheHighestIdSeen() {
+        Instant expiresAt = bucketStart(10);
+        when(repository.findTop1000ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(0L), any(Instant.class)))
+                .thenReturn(List.of(revoked(150L, "jti-150", expiresAt), revoked(180L, "jti-180", expiresAt)));
+        when(repository.findTop1000ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(80L), any(Instant.class)))
+                .thenReturn(List.of(revoked(175L, "jti-175", expiresAt)));
+        
+        denylist.poll();
+        assertTrue(denylist.isRevoked("jti-150", expiresAt));
+        assertTrue(denylist.isRevoked("jti-180", expiresAt));
+        
+        // A row with a lower id that committed late is still picked up
+        denylist.poll();
+        verify(repository).findTop1000ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(80L), any(Instant.class));
+        assertTrue(denylist.isRevoked("jti-175", expiresAt));
+    }
+    
+    private TokenDenylist newDenylist(long bucketMs) {
+        TokenDenylist created = new TokenDenylist();
+        ReflectionTestUtils.setField(created, "revokedTokenRepository", repository);
+        ReflectionTestUtils.setField(created, "bucketMs", bucketMs);
+        when(repository.findTop1000ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(anyLong(), any(Instant.class)))
+                .thenReturn(List.of());
+        return created;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> buckets() {
+        return (Map<Long, ?>) ReflectionTestUtils.getField(denylist, "buckets");
+    }
+    
+    // The start of the bucket the given number of buckets from now
+    private static Instant bucketStart(int bucketsAhead) {
+        return Instant.ofEpochMilli((Math.floorDiv(System.currentTimeMillis(), BUCKET_MS) + bucketsAhead) * BUCKET_MS);
+    }
+    
+    private static RevokedToken revoked(Long id, String jti, Instant expiresAt) {
+        RevokedToken revoked = new RevokedToken(jti, expiresAt);
+        revoked.setId(id);
+        return revoked;
+    }
+}